@@ -0,0 +1,17 @@
+package com.todus.task;
+
+import java.util.List;
+
+import com.todus.enums.BulkTaskOperation;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BulkTaskRequest {
+    private List<Long> taskIds;
+    private BulkTaskOperation operation;
+    private Long categoryId; // MOVE_CATEGORY (null = sin categoría)
+    private Long priorityId; // REPRIORITIZE
+}
@@ -0,0 +1,17 @@
+package com.todus.task;
+
+import java.util.List;
+
+/**
+ * Resultado de una operación masiva: una entrada por id, en el orden de la petición.
+ */
+public record BulkTaskResultDTO(List<Item> results, int updated) {
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND // no existe o no es del usuario
+    }
+
+    public record Item(Long taskId, Outcome outcome) {}
+}
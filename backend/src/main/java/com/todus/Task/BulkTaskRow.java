@@ -0,0 +1,18 @@
+package com.todus.task;
+
+import java.time.LocalDateTime;
+
+import com.todus.enums.Status;
+import com.todus.stats.TaskStatsSnapshot;
+
+/**
+ * Estado actual de una tarea propia leído para una operación masiva, sin cargar la entidad.
+ */
+public record BulkTaskRow(Long id, TaskStatsSnapshot snapshot) {
+
+    public BulkTaskRow(Long id, Long userId, Long categoryId, Long priorityId, Status status, Boolean trashed,
+                       Boolean rescheduled, LocalDateTime dateCreated, LocalDateTime completedAt) {
+        this(id, new TaskStatsSnapshot(userId, categoryId, priorityId, status, trashed, rescheduled,
+                dateCreated, completedAt, 0L, 0L));
+    }
+}
@@ -0,0 +1,131 @@
+package com.todus.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.todus.category.CategoryRepository;
+import com.todus.enums.PurgeAction;
+import com.todus.enums.Status;
+import com.todus.util.Throttle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Aplica en segundo plano el borrado automático de completadas de cada categoría
+ * ({@code autoDeleteComplete} / {@code deleteCompleteDays}). En cada ejecución se tratan
+ * como mucho {@code max-batches-per-run} lotes, con una pausa entre lotes; lo que quede
+ * pendiente se recoge en la siguiente.
+ */
+@Component
+@ConditionalOnProperty(name = "todus.purge.completed.enabled", havingValue = "true", matchIfMissing = true)
+public class CompletedTaskPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletedTaskPurgeJob.class);
+
+    private final CategoryRepository categoryRepository;
+    private final TaskRepository taskRepository;
+    private final TaskPurgeService taskPurgeService;
+
+    private final PurgeAction action;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration pause;
+
+    private final Counter purgedTasks;
+    private final Counter purgedSubTasks;
+    private final DistributionSummary tasksPerRun;
+    private final Timer runTimer;
+
+    public CompletedTaskPurgeJob(CategoryRepository categoryRepository,
+                                 TaskRepository taskRepository,
+                                 TaskPurgeService taskPurgeService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${todus.purge.completed.action:TRASH}") PurgeAction action,
+                                 @Value("${todus.purge.completed.batch-size:200}") int batchSize,
+                                 @Value("${todus.purge.completed.max-batches-per-run:50}") int maxBatchesPerRun,
+                                 @Value("${todus.purge.completed.pause-ms:100}") long pauseMs) {
+        this.categoryRepository = categoryRepository;
+        this.taskRepository = taskRepository;
+        this.taskPurgeService = taskPurgeService;
+        this.action = action;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pause = Duration.ofMillis(pauseMs);
+
+        String actionTag = action.name().toLowerCase();
+        this.purgedTasks = Counter.builder("todus.purge.completed.tasks")
+                .tag("action", actionTag).register(meterRegistry);
+        this.purgedSubTasks = Counter.builder("todus.purge.completed.subtasks")
+                .tag("action", actionTag).register(meterRegistry);
+        this.tasksPerRun = DistributionSummary.builder("todus.purge.completed.tasks.per.run")
+                .tag("action", actionTag).register(meterRegistry);
+        this.runTimer = Timer.builder("todus.purge.completed.run")
+                .tag("action", actionTag).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${todus.purge.completed.interval-ms:3600000}",
+               initialDelayString = "${todus.purge.completed.initial-delay-ms:60000}")
+    public void run() {
+        TaskPurgeService.PurgeResult result = purge(LocalDateTime.now());
+        if (result.tasks() > 0) {
+            log.info("Completadas caducadas ({}): {} tareas, {} subtareas", action, result.tasks(), result.subtasks());
+        }
+    }
+
+    public TaskPurgeService.PurgeResult purge(LocalDateTime now) {
+        TaskPurgeService.PurgeResult result = runTimer.record(() -> purgeBatches(now));
+        purgedTasks.increment(result.tasks());
+        purgedSubTasks.increment(result.subtasks());
+        tasksPerRun.record(result.tasks());
+        return result;
+    }
+
+    private TaskPurgeService.PurgeResult purgeBatches(LocalDateTime now) {
+        TaskPurgeService.PurgeResult total = TaskPurgeService.PurgeResult.EMPTY;
+        int batches = 0;
+        for (Object[] rule : categoryRepository.findAutoDeleteRules()) {
+            Long categoryId = (Long) rule[0];
+            Long userId = (Long) rule[1];
+            // Igual que la app: sin días indicados caducan en cuanto se completan
+            int days = rule[2] != null ? (Integer) rule[2] : 0;
+            LocalDateTime cutoff = now.minusDays(days);
+
+            while (true) {
+                if (batches >= maxBatchesPerRun) {
+                    return total;
+                }
+                List<Long> ids = taskRepository.findCompletedBefore(categoryId, Status.COMPLETED, cutoff,
+                        PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                if (batches > 0 && !Throttle.pause(pause)) {
+                    return total;
+                }
+                TaskPurgeService.PurgeScope scope = TaskPurgeService.PurgeScope.completedBefore(userId, categoryId,
+                        cutoff);
+                TaskPurgeService.PurgeResult batch = action == PurgeAction.DELETE
+                        ? taskPurgeService.deleteTasks(ids, scope)
+                        : taskPurgeService.trashTasks(userId, ids, scope, now);
+                total = total.plus(batch);
+                batches++;
+                if (ids.size() < batchSize || batch.tasks() == 0) {
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+}
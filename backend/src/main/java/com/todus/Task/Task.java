@@ -6,6 +6,10 @@ import com.todus.user.User;
 import com.todus.enums.Status;
 import com.todus.priority.Priority;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import java.time.LocalDateTime;
 import java.util.List;
 import javax.validation.constraints.NotNull;
@@ -13,17 +17,30 @@ import javax.validation.constraints.NotNull;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.todus.category.Category;
 import com.todus.subTask.SubTask;
+import com.todus.util.IdGenerators;
 
 
 
 @Entity
 @Getter
 @Setter
-@Table(name = "tasks")
+@DynamicUpdate
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_user_category_trashed_status_due", columnList = "user_id, category_id, trashed, status, due_date"),
+    @Index(name = "idx_tasks_category_status_completed", columnList = "category_id, status, completed_at"),
+    @Index(name = "idx_tasks_trashed_date_trashed", columnList = "trashed, date_trashed"),
+    @Index(name = "idx_tasks_user_trashed_date_trashed", columnList = "user_id, trashed, date_trashed"),
+    @Index(name = "idx_tasks_user_updated_at", columnList = "user_id, updated_at"),
+    @Index(name = "idx_tasks_status_trashed_due", columnList = "status, trashed, due_date"),
+    @Index(name = "idx_tasks_user_trashed_status_due", columnList = "user_id, trashed, status, due_date")
+})
 public class Task {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = IdGenerators.TASKS)
+    @TableGenerator(name = IdGenerators.TASKS, table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.TASKS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -53,6 +70,21 @@ public class Task {
     @Column(name = "rescheduled", nullable = false)
     private Boolean rescheduled = false;
 
+    // Última modificación, para la sincronización incremental. Los UPDATE masivos la ponen a mano.
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Contadores de subtareas para los listados. Solo los cambia SubTaskRepository con
+    // UPDATE relativos; @DynamicUpdate evita que guardar la tarea los pise.
+    @Column(name = "subtask_total", nullable = false)
+    @ColumnDefault("0")
+    private Long subtaskTotal = 0L;
+
+    @Column(name = "subtask_completed", nullable = false)
+    @ColumnDefault("0")
+    private Long subtaskCompleted = 0L;
+
     @ManyToOne
     @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     private User user;
@@ -64,10 +96,16 @@ public class Task {
     private Category category;
 
     @OneToMany(mappedBy = "task", cascade = CascadeType.ALL)
+    @OrderBy("position ASC, id ASC")
     @JsonManagedReference
     private List<SubTask> subtasks;
 
     @ManyToOne
     @JoinColumn(name = "priority_id", referencedColumnName = "id", nullable = false)
     private Priority priority;
+
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
 }
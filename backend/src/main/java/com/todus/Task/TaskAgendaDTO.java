@@ -0,0 +1,14 @@
+package com.todus.task;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Agenda de la pantalla de inicio. {@code overdue} agrupa por día las tareas cuya fecha límite
+ * ya ha pasado (también las de hoy); {@code upcoming} tiene un grupo por cada día desde hoy,
+ * aunque esté vacío. Las tareas no llevan sus subtareas, solo los contadores.
+ */
+public record TaskAgendaDTO(LocalDate today, long overdueCount, List<Day> overdue, List<Day> upcoming) {
+
+    public record Day(LocalDate date, List<TaskSummaryDTO> tasks) {}
+}
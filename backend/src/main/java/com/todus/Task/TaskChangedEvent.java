@@ -0,0 +1,38 @@
+package com.todus.task;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evento publicado tras cualquier cambio en las tareas o subtareas de un usuario.
+ * {@code taskId} es null cuando el cambio afecta a varias tareas a la vez; {@code taskIds}
+ * lleva entonces las tareas afectadas si se conocen (operaciones por lotes) y va vacío si no
+ * (purgas, borrado de una categoría).
+ */
+public record TaskChangedEvent(Long userId, Long taskId, Change change, List<Long> taskIds) {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        // Cambio de categoría o de prioridad, sin tocar el texto de la tarea
+        MOVED,
+        COMPLETED,
+        REOPENED,
+        TRASHED,
+        RESTORED,
+        DELETED,
+        SUBTASKS
+    }
+
+    public TaskChangedEvent(Long userId, Long taskId, Change change) {
+        this(userId, taskId, change, taskId != null ? List.of(taskId) : List.of());
+    }
+
+    /**
+     * Un solo evento para el mismo cambio en varias tareas.
+     */
+    public static TaskChangedEvent ofTasks(Long userId, Collection<Long> taskIds, Change change) {
+        List<Long> ids = List.copyOf(taskIds);
+        return new TaskChangedEvent(userId, ids.size() == 1 ? ids.get(0) : null, change, ids);
+    }
+}
@@ -1,10 +1,13 @@
 package com.todus.task;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.todus.sync.ListVersionService;
 import com.todus.user.AuthService;
 import com.todus.user.User;
+import com.todus.util.ETags;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -19,6 +22,8 @@ public class TaskController {
     private TaskService taskService;
     @Autowired
     private AuthService userService;
+    @Autowired
+    private ListVersionService listVersions;
 
     @PostMapping("/create")
     public ResponseEntity<?> createTask(@RequestHeader("Authorization") String token, @RequestBody TaskDTO taskRequest) {
@@ -31,16 +36,75 @@ public class TaskController {
     }
 
     @GetMapping("/list")
-    public ResponseEntity<List<Task>> getTaskByUser(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<List<TaskSummaryDTO>> getTaskByUser(@RequestHeader("Authorization") String token,
+                                                              @RequestParam(defaultValue = "true") boolean includeSubtasks,
+                                                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         User user = userService.getAuthenticatedUser(token);
-        List<Task> tasks = taskService.getTasksByUser(user);
-        return ResponseEntity.ok(tasks);
+        // Si el cliente ya tiene la versión actual no se consulta ninguna tarea
+        String etag = listVersions.taskListTag(user.getId());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        List<TaskSummaryDTO> tasks = taskService.getTaskSummaries(user, includeSubtasks);
+        return ETags.ok(etag, tasks);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> getTaskPage(@RequestHeader("Authorization") String token,
+                                         @RequestParam(required = false) Long categoryId,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         @RequestParam(defaultValue = "true") boolean includeSubtasks) {
+        try {
+            return ResponseEntity.ok(taskService.getTaskPage(token, categoryId, cursor, size, includeSubtasks));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/category/{categoryId}")
+    public ResponseEntity<?> getTasksByCategory(@RequestHeader("Authorization") String token,
+                                                @PathVariable Long categoryId,
+                                                @RequestParam(defaultValue = "true") boolean includeSubtasks) {
+        try {
+            return ResponseEntity.ok(taskService.getTasksByCategory(token, categoryId, includeSubtasks));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Tareas sin completar cuya fecha límite ya ha pasado, agrupadas por día.
+     */
+    @GetMapping("/overdue")
+    public ResponseEntity<?> getOverdueTasks(@RequestHeader("Authorization") String token) {
+        try {
+            return ResponseEntity.ok(taskService.getAgenda(token, 0));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Vencidas más un grupo por día desde hoy ({@code days} = 1 es "hoy", 7 "esta semana").
+     */
+    @GetMapping("/agenda")
+    public ResponseEntity<?> getAgenda(@RequestHeader("Authorization") String token,
+                                       @RequestParam(defaultValue = "7") int days) {
+        try {
+            return ResponseEntity.ok(taskService.getAgenda(token, days));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PutMapping("/complete/{id}")
-    public ResponseEntity<?> markTaskAsCompleted(@RequestHeader("Authorization") String token, @PathVariable Long id) {
+    public ResponseEntity<?> markTaskAsCompleted(@RequestHeader("Authorization") String token, @PathVariable Long id,
+                                                 @RequestParam(required = false) Long version) {
         try {
-            return ResponseEntity.ok(taskService.markTaskAsCompleted(token, id));
+            return ResponseEntity.ok(taskService.markTaskAsCompleted(token, id, version));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
@@ -48,6 +112,18 @@ public class TaskController {
         }
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkUpdate(@RequestHeader("Authorization") String token,
+                                        @RequestBody BulkTaskRequest request) {
+        try {
+            return ResponseEntity.ok(taskService.bulkUpdate(token, request));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/update/{taskId}")
     public ResponseEntity<?> updateTask(
             @RequestHeader("Authorization") String token,
@@ -61,6 +137,8 @@ public class TaskController {
     public ResponseEntity<?> deleteTask(@RequestHeader("Authorization") String token, @PathVariable Long id) {
         try {
             return ResponseEntity.ok(taskService.deleteTask(token, id));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
@@ -74,6 +152,8 @@ public class TaskController {
     public ResponseEntity<?> trashTask(@RequestHeader("Authorization") String token, @PathVariable Long id) {
         try {
             return ResponseEntity.ok(taskService.trashTask(token, id));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
@@ -85,26 +165,40 @@ public class TaskController {
     public ResponseEntity<?> recoverTask(@RequestHeader("Authorization") String token, @PathVariable Long id) {
         try {
             return ResponseEntity.ok(taskService.recoverTask(token, id));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
     @GetMapping("/trash")
-    public ResponseEntity<List<Task>> getTrashedTasks(@RequestHeader("Authorization") String token,
-                                                      @RequestParam(required = false) Long categoryId) {
+    public ResponseEntity<List<TaskSummaryDTO>> getTrashedTasks(@RequestHeader("Authorization") String token,
+                                                                @RequestParam(required = false) Long categoryId) {
         User user = taskService.getAuthenticatedUser(token);
-        List<Task> trashedTasks = taskService.getTrashedTasks(user, categoryId);
+        List<TaskSummaryDTO> trashedTasks = taskService.getTrashedTasks(user, categoryId);
         return ResponseEntity.ok(trashedTasks);
     }
 
+    @GetMapping("/trash/page")
+    public ResponseEntity<?> getTrashPage(@RequestHeader("Authorization") String token,
+                                          @RequestParam(required = false) Long categoryId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(taskService.getTrashPage(token, categoryId, cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/trash/deleteAll")
-    public ResponseEntity<Map<String, String>> deleteAllTrashedTasks(
+    public ResponseEntity<Map<String, Object>> deleteAllTrashedTasks(
         @RequestHeader("Authorization") String token, 
         @RequestParam(value = "categoryId", required = false) Long categoryId) {
 
         try {
-            Map<String, String> response = taskService.deleteAllTrashedTasks(token, categoryId);
+            Map<String, Object> response = taskService.deleteAllTrashedTasks(token, categoryId);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -112,6 +206,12 @@ public class TaskController {
         }
     }
 
-
-    
+    /**
+     * Conflictos de versión al guardar una tarea modificada a la vez por otra petición.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "La tarea ha cambiado mientras tanto, vuelve a cargarla"));
+    }
 }
@@ -0,0 +1,53 @@
+package com.todus.task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.todus.enums.OrderTask;
+
+/**
+ * Posición de continuación de la paginación por clave (keyset).
+ * Guarda el valor de la clave de orden y el id de la última tarea devuelta.
+ */
+public record TaskCursor(OrderTask order, Long id, Comparable<?> value) {
+
+    public static TaskCursor after(OrderTask order, TaskSummaryDTO task) {
+        return new TaskCursor(order, task.id(), sortValue(order, task));
+    }
+
+    public static Comparable<?> sortValue(OrderTask order, TaskSummaryDTO task) {
+        return switch (order) {
+            case DATE_CREATED -> task.dateCreated();
+            case DUE_DATE -> task.dueDate();
+            case PRIORITY_ASC, PRIORITY_DES -> task.priority().level();
+            case NAME_ASC, NAME_DES -> task.name();
+        };
+    }
+
+    public String encode() {
+        String raw = order.name() + "|" + id + "|" + (value == null ? "" : "v" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            OrderTask order = OrderTask.valueOf(parts[0]);
+            Long id = Long.valueOf(parts[1]);
+            Comparable<?> value = parts[2].isEmpty() ? null : parseValue(order, parts[2].substring(1));
+            return new TaskCursor(order, id, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+    }
+
+    private static Comparable<?> parseValue(OrderTask order, String value) {
+        return switch (order) {
+            case DATE_CREATED, DUE_DATE -> LocalDateTime.parse(value);
+            case PRIORITY_ASC, PRIORITY_DES -> Integer.valueOf(value);
+            case NAME_ASC, NAME_DES -> value;
+        };
+    }
+}
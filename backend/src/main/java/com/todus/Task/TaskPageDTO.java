@@ -0,0 +1,8 @@
+package com.todus.task;
+
+import java.util.List;
+
+/**
+ * Página de tareas. {@code nextCursor} es null cuando no quedan más.
+ */
+public record TaskPageDTO<T>(List<T> items, String nextCursor) {}
@@ -0,0 +1,169 @@
+package com.todus.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.todus.enums.BulkTaskOperation;
+import com.todus.enums.SyncEntityType;
+import com.todus.search.TaskSearchIndex;
+import com.todus.stats.StatsRollupService;
+import com.todus.stats.TaskStatsSnapshot;
+import com.todus.subTask.SubTaskRepository;
+import com.todus.sync.SyncService;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Borrado de tareas por conjuntos: subtareas y tareas se eliminan con un DELETE ... IN
+ * por lote en lugar de cargar cada entidad. Cada llamada es una transacción corta,
+ * así que quien borra mucho debe trocear los ids.
+ */
+@Service
+public class TaskPurgeService {
+
+    public record PurgeResult(int tasks, int subtasks) {
+
+        public static final PurgeResult EMPTY = new PurgeResult(0, 0);
+
+        public PurgeResult plus(PurgeResult other) {
+            return new PurgeResult(tasks + other.tasks, subtasks + other.subtasks);
+        }
+    }
+
+    /**
+     * Condición con la que se eligieron las tareas a borrar. Se repite al leerlas con la fila
+     * bloqueada, así que una tarea que cambió entre medias (restaurada, reabierta...) se deja
+     * como está. Los campos null no filtran.
+     */
+    public record PurgeScope(Long userId, Long categoryId, Boolean trashed, LocalDateTime trashedBefore,
+                             LocalDateTime completedBefore) {
+
+        /** Tareas del usuario, en cualquier estado. */
+        public static PurgeScope owned(Long userId) {
+            return new PurgeScope(userId, null, null, null, null);
+        }
+
+        /** Papelera del usuario, o solo la de una categoría si {@code categoryId} no es null. */
+        public static PurgeScope trash(Long userId, Long categoryId) {
+            return new PurgeScope(userId, categoryId, true, null, null);
+        }
+
+        /** Tareas de cualquier usuario que llevan en la papelera desde antes de {@code cutoff}. */
+        public static PurgeScope trashedBefore(LocalDateTime cutoff) {
+            return new PurgeScope(null, null, true, cutoff, null);
+        }
+
+        /** Tareas de la categoría completadas antes de {@code cutoff} y fuera de la papelera. */
+        public static PurgeScope completedBefore(Long userId, Long categoryId, LocalDateTime cutoff) {
+            return new PurgeScope(userId, categoryId, false, null, cutoff);
+        }
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private SubTaskRepository subTaskRepository;
+
+    @Autowired
+    private StatsRollupService statsRollup;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private TaskSearchIndex searchIndex;
+
+    /**
+     * Borra las tareas que sigan cumpliendo {@code scope}, y sus subtareas. Las filas se leen
+     * bloqueadas, así que estadísticas, sincronización y búsqueda se ajustan exactamente con
+     * lo que se borra. Para la sincronización solo queda el rastro de las tareas: el cliente
+     * quita con ellas sus subtareas.
+     */
+    @Transactional
+    public PurgeResult deleteTasks(Collection<Long> taskIds, PurgeScope scope) {
+        if (taskIds.isEmpty()) {
+            return PurgeResult.EMPTY;
+        }
+        List<BulkTaskRow> rows = taskRepository.lockRows(taskIds, scope);
+        if (rows.isEmpty()) {
+            return PurgeResult.EMPTY;
+        }
+        List<Long> lockedIds = rows.stream().map(BulkTaskRow::id).toList();
+
+        // Lo que aportaban a las estadísticas, subtareas incluidas
+        Map<Long, long[]> subTasks = new HashMap<>();
+        for (Object[] row : subTaskRepository.countByTaskIdIn(lockedIds)) {
+            subTasks.put((Long) row[0], new long[] {((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+        Map<Long, List<TaskStatsSnapshot>> removedByUser = new HashMap<>();
+        Map<Long, List<Long>> idsByUser = new HashMap<>();
+        for (BulkTaskRow row : rows) {
+            TaskStatsSnapshot task = row.snapshot();
+            long[] counts = subTasks.getOrDefault(row.id(), new long[2]);
+            removedByUser.computeIfAbsent(task.userId(), id -> new ArrayList<>()).add(new TaskStatsSnapshot(
+                    task.userId(), task.categoryId(), task.priorityId(), task.status(), task.trashed(),
+                    task.rescheduled(), task.dateCreated(), task.completedAt(), counts[0], counts[1]));
+            idsByUser.computeIfAbsent(task.userId(), id -> new ArrayList<>()).add(row.id());
+        }
+        // Con las filas bloqueadas nada puede haberlas cambiado desde la lectura
+        int deletedSubTasks = subTaskRepository.deleteByTaskIdIn(lockedIds);
+        int deletedTasks = taskRepository.deleteByIdIn(lockedIds);
+        searchIndex.remove(lockedIds);
+
+        removedByUser.forEach((userId, removed) -> {
+            statsRollup.applyAll(userId, removed, List.of());
+            syncService.recordDeleted(userId, SyncEntityType.TASK, idsByUser.get(userId));
+            events.publishEvent(new TaskChangedEvent(userId, null, TaskChangedEvent.Change.DELETED));
+        });
+        return new PurgeResult(deletedTasks, deletedSubTasks);
+    }
+
+    /**
+     * Mueve a la papelera, con un UPDATE por lotes JDBC, las tareas indicadas del usuario
+     * que aún no lo estén y sigan cumpliendo {@code scope} (leídas con la fila bloqueada).
+     */
+    @Transactional
+    public PurgeResult trashTasks(Long userId, Collection<Long> taskIds, PurgeScope scope, LocalDateTime now) {
+        if (taskIds.isEmpty()) {
+            return PurgeResult.EMPTY;
+        }
+
+        List<Long> changed = new ArrayList<>();
+        List<TaskStatsSnapshot> before = new ArrayList<>();
+        List<TaskStatsSnapshot> after = new ArrayList<>();
+        for (BulkTaskRow row : taskRepository.lockRows(taskIds, scope)) {
+            if (!userId.equals(row.snapshot().userId())) {
+                continue;
+            }
+            TaskStatsSnapshot task = row.snapshot();
+            if (task.isTrashed()) {
+                continue;
+            }
+            changed.add(row.id());
+            before.add(task);
+            after.add(new TaskStatsSnapshot(task.userId(), task.categoryId(), task.priorityId(), task.status(),
+                    true, task.rescheduled(), task.dateCreated(), task.completedAt(),
+                    task.subtaskTotal(), task.subtaskCompleted()));
+        }
+        if (changed.isEmpty()) {
+            return PurgeResult.EMPTY;
+        }
+
+        taskRepository.batchUpdate(BulkTaskOperation.TRASH, userId, changed, null, now);
+        statsRollup.applyAll(userId, before, after);
+        events.publishEvent(new TaskChangedEvent(userId, null, TaskChangedEvent.Change.TRASHED));
+        return new PurgeResult(changed.size(), 0);
+    }
+}
@@ -1,19 +1,25 @@
 package com.todus.task;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.stereotype.Repository;
 
 import com.todus.enums.Status;
+import com.todus.reminder.Reminder;
 import com.todus.user.User;
 
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
     List<Task> findByCategoryId(Long categoryId);
     List<Task> findByUserId(Long userId);
     List<Task> findByUser(User user);
@@ -22,23 +28,167 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findByUserAndTrashedAndCategoryId(User user, Boolean trashed, Long categoryId);
     List<Task> findByPriorityId(Long priorityId);
 
-    long countByUserIdAndTrashedFalse(Long userId);
-    long countByUserIdAndStatusAndTrashedFalse(Long userId, Status status);
-    long countByUserIdAndStatusNotAndTrashedFalse(Long userId, Status status);
-    long countByUserIdAndRescheduledTrue(Long userId);
-    long countByUserIdAndDueDateBeforeAndStatusNotAndTrashedFalse(Long userId, LocalDateTime now, Status status);
-    List<Task> findByUserIdAndStatusAndCompletedAtAfter(Long userId, Status status, LocalDateTime after);
-    long countByUserIdAndTrashedTrue(Long userId);
-    long countByUserIdAndDateCreatedBetween(Long userId, LocalDateTime start, LocalDateTime end);
+    String SUMMARY_SELECT = "SELECT new com.todus.task.TaskSummaryDTO(t.id, t.name, t.description, t.dateCreated, "
+            + "t.dueDate, t.status, t.trashed, t.dateTrashed, t.completedAt, t.rescheduled, "
+            + "t.subtaskTotal, t.subtaskCompleted, "
+            + "c.id, c.name, c.orderTasks, c.showComplete, c.autoDeleteComplete, c.deleteCompleteDays, "
+            + "p.id, p.name, p.level, p.color) "
+            + "FROM Task t LEFT JOIN t.category c JOIN t.priority p ";
 
-    @Query("SELECT t.category.name, COUNT(t) FROM Task t WHERE t.user.id = :userId GROUP BY t.category.name")
-    List<Object[]> countGroupByCategory(@Param("userId") Long userId);
+    @Query(SUMMARY_SELECT + "WHERE t.user.id = :userId ORDER BY t.id")
+    List<TaskSummaryDTO> findSummariesByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT t.priority.name, COUNT(t) FROM Task t WHERE t.user.id = :userId GROUP BY t.priority.name")
-    List<Object[]> countGroupByPriority(@Param("userId") Long userId);
+    /**
+     * Tareas del usuario creadas o modificadas desde {@code since} (recorre idx_tasks_user_updated_at).
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.user.id = :userId AND t.updatedAt >= :since ORDER BY t.id")
+    List<TaskSummaryDTO> findSummariesChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
 
-    @Query("SELECT HOUR(t.completedAt), COUNT(t) FROM Task t WHERE t.user.id = :userId AND t.status = 'COMPLETED' GROUP BY HOUR(t.completedAt)")
-    List<Object[]> countByCompletedHour(@Param("userId") Long userId);
+    @Query(SUMMARY_SELECT + "WHERE t.user.id = :userId AND t.trashed = :trashed ORDER BY t.id")
+    List<TaskSummaryDTO> findSummariesByUserIdAndTrashed(@Param("userId") Long userId, @Param("trashed") boolean trashed);
 
+    /**
+     * Papelera del usuario, la enviada más recientemente primero. Con la categoría va en otra
+     * consulta, como {@link #findTrashedIds}.
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.user.id = :userId AND t.trashed = true "
+            + "ORDER BY t.dateTrashed DESC, t.id DESC")
+    List<TaskSummaryDTO> findTrashSummaries(@Param("userId") Long userId);
 
+    /**
+     * Papelera del usuario en una categoría, la enviada más recientemente primero.
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.user.id = :userId AND c.id = :categoryId AND t.trashed = true "
+            + "ORDER BY t.dateTrashed DESC, t.id DESC")
+    List<TaskSummaryDTO> findTrashSummariesInCategory(@Param("userId") Long userId,
+                                                      @Param("categoryId") Long categoryId);
+
+    @Query(SUMMARY_SELECT + "WHERE t.user.id = :userId AND c.id = :categoryId AND t.trashed = false")
+    List<TaskSummaryDTO> findCategorySummaries(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+                                               Sort sort);
+
+    @Query(SUMMARY_SELECT + "WHERE t.user.id = :userId AND c.id = :categoryId AND t.trashed = false "
+            + "AND t.status <> :status")
+    List<TaskSummaryDTO> findCategorySummariesWithoutStatus(@Param("userId") Long userId,
+                                                            @Param("categoryId") Long categoryId,
+                                                            @Param("status") Status status, Sort sort);
+
+    /**
+     * La tarea si es del usuario, con sus relaciones obligatorias en la misma consulta.
+     */
+    @Query("SELECT t FROM Task t JOIN FETCH t.user u LEFT JOIN FETCH u.image JOIN FETCH t.priority "
+            + "LEFT JOIN FETCH t.category c LEFT JOIN FETCH c.image LEFT JOIN FETCH c.studyMethod "
+            + "WHERE t.id = :id AND u.id = :userId")
+    Optional<Task> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Estado y versión de la tarea si es del usuario, sin cargar la entidad.
+     */
+    @Query("SELECT new com.todus.task.TaskVersionRow(t.id, t.version, t.user.id, c.id, p.id, t.status, t.trashed, "
+            + "t.rescheduled, t.dateCreated, t.completedAt) "
+            + "FROM Task t LEFT JOIN t.category c JOIN t.priority p WHERE t.id = :id AND t.user.id = :userId")
+    Optional<TaskVersionRow> findOwnedVersionRow(@Param("id") Long id, @Param("userId") Long userId);
+
+    boolean existsByPriorityId(Long priorityId);
+
+    /**
+     * Cambia el estado solo si la tarea es del usuario y sigue en {@code version}; devuelve las filas
+     * modificadas (0 = conflicto).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.status = :status, t.completedAt = :completedAt, t.version = t.version + 1, "
+            + "t.updatedAt = :now WHERE t.id = :id AND t.user.id = :userId AND t.version = :version")
+    int updateStatusIfVersion(@Param("id") Long id, @Param("userId") Long userId, @Param("version") Long version,
+                              @Param("status") Status status, @Param("completedAt") LocalDateTime completedAt,
+                              @Param("now") LocalDateTime now);
+
+    /**
+     * Envía a la papelera o la saca de ella con la misma comprobación de dueño y versión.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.trashed = :trashed, t.dateTrashed = :dateTrashed, t.version = t.version + 1, "
+            + "t.updatedAt = :now WHERE t.id = :id AND t.user.id = :userId AND t.version = :version")
+    int updateTrashedIfVersion(@Param("id") Long id, @Param("userId") Long userId, @Param("version") Long version,
+                               @Param("trashed") boolean trashed, @Param("dateTrashed") LocalDateTime dateTrashed,
+                               @Param("now") LocalDateTime now);
+
+    /**
+     * Tareas del usuario fuera de la papelera, en alguno de los estados indicados, que vencen
+     * antes de {@code until}, por fecha límite (recorre idx_tasks_user_trashed_status_due).
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.user.id = :userId AND t.trashed = false AND t.status IN :statuses "
+            + "AND t.dueDate < :until ORDER BY t.dueDate, t.id")
+    List<TaskSummaryDTO> findSummariesDueBefore(@Param("userId") Long userId,
+                                                @Param("statuses") Collection<Status> statuses,
+                                                @Param("until") LocalDateTime until);
+
+    /**
+     * Ids de la papelera del usuario, por lotes. Con la categoría va en otra consulta: un
+     * "(:categoryId IS NULL OR ...)" impide usar el índice en cualquiera de los dos casos.
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.user.id = :userId AND t.trashed = true ORDER BY t.id")
+    List<Long> findTrashedIds(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Ids de la papelera del usuario en una categoría, por lotes.
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.user.id = :userId AND t.category.id = :categoryId "
+            + "AND t.trashed = true ORDER BY t.id")
+    List<Long> findTrashedIdsInCategory(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+                                        Pageable pageable);
+
+    /**
+     * Ids de las tareas de la categoría completadas antes de {@code cutoff} y fuera de la
+     * papelera, las más antiguas primero (recorre idx_tasks_category_status_completed).
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.category.id = :categoryId AND t.status = :status "
+            + "AND t.completedAt < :cutoff AND t.trashed = false ORDER BY t.completedAt, t.id")
+    List<Long> findCompletedBefore(@Param("categoryId") Long categoryId, @Param("status") Status status,
+                                   @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Ids de las tareas (de cualquier usuario) que llevan en la papelera desde antes de
+     * {@code cutoff}, las más antiguas primero (recorre idx_tasks_trashed_date_trashed).
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.trashed = true AND t.dateTrashed < :cutoff "
+            + "ORDER BY t.dateTrashed, t.id")
+    List<Long> findTrashedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.trashed = true AND t.dateTrashed < :cutoff")
+    long countTrashedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Tareas pendientes (de cualquier usuario) que vencen antes de {@code to}, a partir de
+     * ({@code afterDue}, {@code afterId}) en orden (dueDate, id), por lotes
+     * (recorre idx_tasks_status_trashed_due).
+     */
+    @Query("SELECT new com.todus.reminder.Reminder(t.id, t.user.id, t.name, t.dueDate) FROM Task t "
+            + "WHERE t.status = com.todus.enums.Status.PENDENT AND t.trashed = false AND t.dueDate < :to "
+            + "AND (t.dueDate > :afterDue OR (t.dueDate = :afterDue AND t.id > :afterId)) ORDER BY t.dueDate, t.id")
+    List<Reminder> findRemindersAfter(@Param("afterDue") LocalDateTime afterDue, @Param("afterId") Long afterId,
+                                      @Param("to") LocalDateTime to, Pageable pageable);
+
+    /**
+     * Las tareas indicadas que siguen pendientes, fuera de la papelera y con fecha límite.
+     */
+    @Query("SELECT new com.todus.reminder.Reminder(t.id, t.user.id, t.name, t.dueDate) FROM Task t "
+            + "WHERE t.id IN :ids AND t.status = com.todus.enums.Status.PENDENT AND t.trashed = false "
+            + "AND t.dueDate IS NOT NULL")
+    List<Reminder> findPendingReminders(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Filas (id, userId, nombre, descripción) con el texto que indexa la búsqueda.
+     */
+    @Query("SELECT t.id, t.user.id, t.name, t.description FROM Task t WHERE t.id IN :ids")
+    List<Object[]> findSearchTextByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Ids de todas las tareas a partir de {@code afterId}, por lotes (recorrido por clave primaria).
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.id > :afterId ORDER BY t.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Task t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,39 @@
+package com.todus.task;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.todus.enums.BulkTaskOperation;
+import com.todus.enums.OrderTask;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Devuelve hasta {@code limit} tareas no eliminadas del usuario, ordenadas según
+     * {@code order} y situadas estrictamente después de {@code after} (null = primera página).
+     * Si {@code includeCompleted} es false se excluyen las completadas.
+     */
+    List<TaskSummaryDTO> findKeysetPage(Long userId, Long categoryId, boolean includeCompleted, OrderTask order,
+                                        TaskCursor after, int limit);
+
+    /**
+     * Devuelve hasta {@code limit} tareas de la papelera del usuario (de una categoría si
+     * {@code categoryId} no es null), de la enviada más recientemente a la más antigua y
+     * después de {@code after} (null = primera página).
+     */
+    List<TrashedTaskDTO> findTrashPage(Long userId, Long categoryId, TrashCursor after, int limit);
+
+    /**
+     * Aplica {@code operation} a las tareas indicadas del usuario con un único UPDATE
+     * ejecutado en lote JDBC. {@code targetId} es la categoría o prioridad de destino.
+     */
+    int[] batchUpdate(BulkTaskOperation operation, Long userId, List<Long> taskIds, Long targetId,
+                      LocalDateTime now);
+
+    /**
+     * Lee con SELECT ... FOR UPDATE las tareas indicadas que siguen cumpliendo {@code scope}.
+     * Quedan bloqueadas hasta el final de la transacción.
+     */
+    List<BulkTaskRow> lockRows(Collection<Long> taskIds, TaskPurgeService.PurgeScope scope);
+}
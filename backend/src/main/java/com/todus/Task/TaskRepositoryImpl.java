@@ -0,0 +1,262 @@
+package com.todus.task;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.todus.category.Category;
+import com.todus.enums.BulkTaskOperation;
+import com.todus.enums.OrderTask;
+import com.todus.enums.Status;
+import com.todus.priority.Priority;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Paginación por clave (seek) sobre tareas: en lugar de OFFSET se filtra por
+ * "(clave, id) posterior al cursor", de modo que cada página cuesta lo mismo
+ * sea cual sea su posición. También reúne las actualizaciones masivas por lotes JDBC.
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<TaskSummaryDTO> findKeysetPage(Long userId, Long categoryId, boolean includeCompleted,
+                                               OrderTask order, TaskCursor after, int limit) {
+        Filter filter = new Filter(userId, categoryId, includeCompleted);
+        if (order != OrderTask.DUE_DATE) {
+            return query(filter, order, after, false, limit);
+        }
+
+        // Las tareas sin fecha límite van primero (como el orden ascendente de MySQL).
+        // Se recorren en dos tramos para que ambos usen el índice sin depender de cómo ordena los NULL.
+        if (after != null && after.value() != null) {
+            return query(filter, order, after, false, limit);
+        }
+        List<TaskSummaryDTO> result = new ArrayList<>(query(filter, order, after, true, limit));
+        if (result.size() < limit) {
+            result.addAll(query(filter, order, null, false, limit - result.size()));
+        }
+        return result;
+    }
+
+    private List<TaskSummaryDTO> query(Filter filter, OrderTask order, TaskCursor after, boolean withoutDueDate,
+                                       int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskSummaryDTO> cq = cb.createQuery(TaskSummaryDTO.class);
+        Root<Task> task = cq.from(Task.class);
+        Join<Task, Category> category = task.join("category", JoinType.LEFT);
+        Join<Task, Priority> priority = task.join("priority");
+        Path<Long> id = task.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(task.get("user").get("id"), filter.userId()));
+        where.add(cb.isFalse(task.get("trashed")));
+        if (filter.categoryId() != null) {
+            where.add(cb.equal(category.get("id"), filter.categoryId()));
+        }
+        if (!filter.includeCompleted()) {
+            where.add(cb.notEqual(task.get("status"), Status.COMPLETED));
+        }
+
+        if (withoutDueDate) {
+            where.add(cb.isNull(task.get("dueDate")));
+            if (after != null) {
+                where.add(cb.greaterThan(id, after.id()));
+            }
+            cq.orderBy(cb.asc(id));
+        } else {
+            boolean ascending = isAscending(order);
+            Expression<? extends Comparable> key = sortKey(task, priority, order);
+            if (order == OrderTask.DUE_DATE) {
+                where.add(cb.isNotNull(key));
+            }
+            if (after != null && after.value() != null) {
+                where.add(seek(cb, key, after.value(), id, after.id(), ascending));
+            }
+            cq.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+
+        // Misma proyección que TaskRepository.SUMMARY_SELECT
+        cq.select(cb.construct(TaskSummaryDTO.class,
+                id, task.get("name"), task.get("description"), task.get("dateCreated"), task.get("dueDate"),
+                task.get("status"), task.get("trashed"), task.get("dateTrashed"), task.get("completedAt"),
+                task.get("rescheduled"), task.get("subtaskTotal"), task.get("subtaskCompleted"),
+                category.get("id"), category.get("name"), category.get("orderTasks"), category.get("showComplete"),
+                category.get("autoDeleteComplete"), category.get("deleteCompleteDays"),
+                priority.get("id"), priority.get("name"), priority.get("level"), priority.get("color")))
+          .where(where.toArray(new Predicate[0]));
+        return entityManager.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<TrashedTaskDTO> findTrashPage(Long userId, Long categoryId, TrashCursor after, int limit) {
+        // Primero las que tienen fecha de envío (más recientes antes) y al final las antiguas sin fecha,
+        // en dos tramos como las fechas límite de findKeysetPage.
+        if (after != null && after.dateTrashed() == null) {
+            return trashQuery(userId, categoryId, after, true, limit);
+        }
+        List<TrashedTaskDTO> result = new ArrayList<>(trashQuery(userId, categoryId, after, false, limit));
+        if (result.size() < limit) {
+            result.addAll(trashQuery(userId, categoryId, null, true, limit - result.size()));
+        }
+        return result;
+    }
+
+    private List<TrashedTaskDTO> trashQuery(Long userId, Long categoryId, TrashCursor after,
+                                            boolean withoutDate, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TrashedTaskDTO> cq = cb.createQuery(TrashedTaskDTO.class);
+        Root<Task> task = cq.from(Task.class);
+        Join<Task, Category> category = task.join("category", JoinType.LEFT);
+        Join<Task, Priority> priority = task.join("priority");
+        Path<Long> id = task.get("id");
+        Path<LocalDateTime> dateTrashed = task.get("dateTrashed");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(task.get("user").get("id"), userId));
+        where.add(cb.isTrue(task.get("trashed")));
+        if (categoryId != null) {
+            where.add(cb.equal(category.get("id"), categoryId));
+        }
+        if (withoutDate) {
+            where.add(cb.isNull(dateTrashed));
+            if (after != null) {
+                where.add(cb.lessThan(id, after.id()));
+            }
+            cq.orderBy(cb.desc(id));
+        } else {
+            where.add(cb.isNotNull(dateTrashed));
+            if (after != null) {
+                where.add(seek(cb, dateTrashed, after.dateTrashed(), id, after.id(), false));
+            }
+            cq.orderBy(cb.desc(dateTrashed), cb.desc(id));
+        }
+
+        cq.select(cb.construct(TrashedTaskDTO.class,
+                id, task.get("name"), task.get("status"), task.get("dateCreated"), dateTrashed,
+                task.get("completedAt"), category.get("id"), category.get("name"),
+                priority.get("id"), priority.get("name"), priority.get("level"), priority.get("color")))
+          .where(where.toArray(new Predicate[0]));
+        return entityManager.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public int[] batchUpdate(BulkTaskOperation operation, Long userId, List<Long> taskIds, Long targetId,
+                             LocalDateTime now) {
+        String set = switch (operation) {
+            case COMPLETE -> "status = 'COMPLETED', completed_at = ?";
+            case TRASH -> "trashed = true, date_trashed = ?";
+            case RESTORE -> "trashed = false, date_trashed = NULL";
+            case MOVE_CATEGORY -> "category_id = ?";
+            case REPRIORITIZE -> "priority_id = ?";
+        };
+        Object value = switch (operation) {
+            case COMPLETE, TRASH -> Timestamp.valueOf(now);
+            case MOVE_CATEGORY, REPRIORITIZE -> targetId;
+            case RESTORE -> null;
+        };
+        boolean hasValue = operation != BulkTaskOperation.RESTORE;
+        Timestamp updatedAt = Timestamp.valueOf(now != null ? now : LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>(taskIds.size());
+        for (Long id : taskIds) {
+            rows.add(hasValue ? new Object[] {value, updatedAt, id, userId} : new Object[] {updatedAt, id, userId});
+        }
+        // Los cambios pendientes de JPA deben llegar antes que el UPDATE
+        entityManager.flush();
+        // La versión también avanza, para que las entidades cargadas antes detecten el cambio
+        return jdbcTemplate.batchUpdate("UPDATE tasks SET " + set + ", version = version + 1, updated_at = ? "
+                + "WHERE id = ? AND user_id = ?", rows);
+    }
+
+    @Override
+    public List<BulkTaskRow> lockRows(Collection<Long> taskIds, TaskPurgeService.PurgeScope scope) {
+        // Misma condición con la que se eligieron los ids; FOR UPDATE en SQL nativo para que
+        // el bloqueo no dependa de cómo trate Hibernate las proyecciones
+        StringBuilder sql = new StringBuilder("SELECT id, user_id, category_id, priority_id, status, trashed, "
+                + "rescheduled, date_created, completed_at FROM tasks WHERE id IN (")
+                .append(String.join(", ", Collections.nCopies(taskIds.size(), "?"))).append(")");
+        List<Object> args = new ArrayList<>(taskIds);
+        if (scope.userId() != null) {
+            sql.append(" AND user_id = ?");
+            args.add(scope.userId());
+        }
+        if (scope.categoryId() != null) {
+            sql.append(" AND category_id = ?");
+            args.add(scope.categoryId());
+        }
+        if (scope.trashed() != null) {
+            sql.append(" AND trashed = ?");
+            args.add(scope.trashed());
+        }
+        if (scope.trashedBefore() != null) {
+            sql.append(" AND date_trashed < ?");
+            args.add(Timestamp.valueOf(scope.trashedBefore()));
+        }
+        if (scope.completedBefore() != null) {
+            sql.append(" AND status = 'COMPLETED' AND completed_at < ?");
+            args.add(Timestamp.valueOf(scope.completedBefore()));
+        }
+        sql.append(" ORDER BY id FOR UPDATE");
+
+        entityManager.flush();
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new BulkTaskRow(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getObject("category_id", Long.class),
+                rs.getLong("priority_id"),
+                Status.valueOf(rs.getString("status")),
+                rs.getBoolean("trashed"),
+                rs.getBoolean("rescheduled"),
+                rs.getObject("date_created", LocalDateTime.class),
+                rs.getObject("completed_at", LocalDateTime.class)), args.toArray());
+    }
+
+    private record Filter(Long userId, Long categoryId, boolean includeCompleted) {}
+
+    static boolean isAscending(OrderTask order) {
+        return order != OrderTask.PRIORITY_DES && order != OrderTask.NAME_DES;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Expression<? extends Comparable> sortKey(Root<Task> task, Join<Task, Priority> priority, OrderTask order) {
+        return switch (order) {
+            case DATE_CREATED -> task.get("dateCreated");
+            case DUE_DATE -> task.get("dueDate");
+            case PRIORITY_ASC, PRIORITY_DES -> priority.get("level");
+            case NAME_ASC, NAME_DES -> task.get("name");
+        };
+    }
+
+    /**
+     * (clave > valor) OR (clave = valor AND id > ultimoId), o al revés si el orden es descendente.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Predicate seek(CriteriaBuilder cb, Expression key, Comparable value, Path<Long> id, Long lastId,
+                           boolean ascending) {
+        Predicate keyBeyond = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+        Predicate idBeyond = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+        return cb.or(keyBeyond, cb.and(cb.equal(key, value), idBeyond));
+    }
+}
@@ -1,25 +1,47 @@
 package com.todus.task;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import com.todus.category.Category;
 import com.todus.category.CategoryRepository;
 import com.todus.user.User;
 import com.todus.user.UserRepository;
 import com.todus.util.JwtUtil;
+import com.todus.util.SecurityUtils;
+import com.todus.enums.BulkTaskOperation;
+import com.todus.enums.OrderTask;
 import com.todus.enums.Status;
 import com.todus.priority.Priority;
 import com.todus.priority.PriorityRepository;
+import com.todus.stats.StatsRollupService;
+import com.todus.stats.TaskStatsSnapshot;
+import com.todus.subTask.SubTaskRepository;
 
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_BULK_SIZE = 500;
+    static final int PURGE_CHUNK_SIZE = 500;
+    static final int MAX_AGENDA_DAYS = 31;
+    static final String TASK_CONFLICT = "La tarea ha cambiado mientras tanto, vuelve a cargarla";
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -29,16 +51,33 @@ public class TaskService {
     @Autowired
     private PriorityRepository priorityRepository;
 
+    @Autowired
+    private SubTaskRepository subTaskRepository;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private StatsRollupService statsRollup;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private TaskPurgeService taskPurgeService;
+
     /**
      * Obtiene el usuario autenticado a partir del token JWT.
      */
     public User getAuthenticatedUser(String token) {
+        // El filtro JWT ya resolvió el usuario de esta petición
+        Optional<User> principal = SecurityUtils.currentUser();
+        if (principal.isPresent()) {
+            return principal.get();
+        }
         String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -48,17 +87,53 @@ public class TaskService {
         return taskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Tarea no encontrada"));
     }
+
+    /**
+     * Tarea del usuario, comprobada en la misma consulta que la carga.
+     */
+    public Task getOwnedTask(User user, Long taskId) {
+        return getOwnedTask(user, taskId, "No tienes permisos para modificar esta tarea");
+    }
+
+    // Solo si la consulta por (id, usuario) no devuelve nada se mira si la tarea existe,
+    // para distinguir "no encontrada" de "no es tuya".
+    private Task getOwnedTask(User user, Long taskId, String forbidden) {
+        return taskRepository.findByIdAndUserId(taskId, user.getId())
+                .orElseThrow(() -> notOwned(taskId, forbidden));
+    }
+
+    private TaskVersionRow getOwnedRow(User user, Long taskId, String forbidden) {
+        return taskRepository.findOwnedVersionRow(taskId, user.getId())
+                .orElseThrow(() -> notOwned(taskId, forbidden));
+    }
+
+    private RuntimeException notOwned(Long taskId, String forbidden) {
+        return new RuntimeException(taskRepository.existsById(taskId) ? forbidden : "Tarea no encontrada");
+    }
+
+    private Priority getOwnedPriority(User user, Long priorityId) {
+        return priorityRepository.findByIdAndUserId(priorityId, user.getId())
+                .orElseThrow(() -> new RuntimeException(priorityRepository.existsById(priorityId)
+                        ? "No tienes permisos para usar esta prioridad" : "Prioridad no encontrada"));
+    }
     
+    @Transactional
     public Map<String, String> createTask(String token, TaskDTO taskRequest) {
-        User user = getAuthenticatedUser(token);
+        createTask(getAuthenticatedUser(token), taskRequest);
+        return Map.of("message", "Tarea creada con éxito");
+    }
 
+    @Transactional
+    public Task createTask(User user, TaskDTO taskRequest) {
         Category category = null;
         if (taskRequest.getCategoryId() != null) {
-            category = categoryRepository.findById(taskRequest.getCategoryId()).orElse(null);
+            category = categoryRepository.findByIdAndUserId(taskRequest.getCategoryId(), user.getId()).orElse(null);
         }
 
-        Priority priority = priorityRepository.findById(taskRequest.getPriorityId())
-                .orElseThrow(() -> new RuntimeException("Prioridad no encontrada"));
+        if (taskRequest.getPriorityId() == null) {
+            throw new RuntimeException("Prioridad no encontrada");
+        }
+        Priority priority = getOwnedPriority(user, taskRequest.getPriorityId());
 
         Task task = new Task();
         task.setName(taskRequest.getName());
@@ -76,47 +151,210 @@ public class TaskService {
 
 
         taskRepository.save(task);
-        return Map.of("message", "Tarea creada con éxito");
+        statsRollup.apply(null, TaskStatsSnapshot.of(task));
+        events.publishEvent(new TaskChangedEvent(user.getId(), task.getId(), TaskChangedEvent.Change.CREATED));
+        return task;
     }
 
     public List<Task> getTasksByUser(User user) {
         return taskRepository.findByUser(user);
     }
 
-    public Map<String, String> markTaskAsCompleted(String token, Long taskId) {
+    /**
+     * Todas las tareas del usuario (incluidas las de la papelera) para el listado principal.
+     * Se resuelve con dos consultas: tareas con categoría y prioridad, y sus subtareas.
+     */
+    public List<TaskSummaryDTO> getTaskSummaries(User user) {
+        return getTaskSummaries(user, true);
+    }
+
+    /**
+     * Con {@code includeSubtasks} a false no se consultan las subtareas: el listado
+     * muestra el progreso con subtaskTotal/subtaskCompleted.
+     */
+    public List<TaskSummaryDTO> getTaskSummaries(User user, boolean includeSubtasks) {
+        List<TaskSummaryDTO> tasks = taskRepository.findSummariesByUserId(user.getId());
+        if (!includeSubtasks) {
+            return tasks;
+        }
+        return TaskSummaryDTO.attachSubtasks(tasks, subTaskRepository.findSummariesByUserId(user.getId()));
+    }
+
+    /**
+     * Devuelve una página de tareas no eliminadas usando paginación por clave.
+     * El orden es el de la categoría indicada o, si no hay categoría, por fecha de creación.
+     */
+    public TaskPageDTO<TaskSummaryDTO> getTaskPage(String token, Long categoryId, String cursor, int size) {
+        return getTaskPage(token, categoryId, cursor, size, true);
+    }
+
+    public TaskPageDTO<TaskSummaryDTO> getTaskPage(String token, Long categoryId, String cursor, int size,
+                                                   boolean includeSubtasks) {
         User user = getAuthenticatedUser(token);
-    
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("Tarea no encontrada"));
-    
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("No tienes permisos para modificar esta tarea");
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE);
         }
-    
-        if (task.getStatus() == Status.COMPLETED) {
-            task.setStatus(Status.PENDENT);
-            task.setCompletedAt(null);
-            taskRepository.save(task);
-            return Map.of("message", "Tarea vuelta a pendiente");
-        } else {
-            task.setStatus(Status.COMPLETED);
-            task.setCompletedAt(LocalDateTime.now());
-            taskRepository.save(task);
-            return Map.of("message", "Tarea marcada como completada");
+
+        OrderTask order = OrderTask.DATE_CREATED;
+        boolean includeCompleted = true;
+        if (categoryId != null) {
+            Category category = getOwnedCategory(user, categoryId);
+            order = orderOf(category);
+            includeCompleted = Boolean.TRUE.equals(category.getShowComplete());
+        }
+
+        TaskCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = TaskCursor.decode(cursor);
+            if (after.order() != order) {
+                throw new IllegalArgumentException("El cursor no corresponde al orden actual de la categoría");
+            }
+        }
+
+        // Se pide una tarea de más para saber si hay página siguiente
+        List<TaskSummaryDTO> tasks = taskRepository.findKeysetPage(
+                user.getId(), categoryId, includeCompleted, order, after, size + 1);
+        String nextCursor = null;
+        if (tasks.size() > size) {
+            tasks = tasks.subList(0, size);
+            nextCursor = TaskCursor.after(order, tasks.get(size - 1)).encode();
         }
+        if (includeSubtasks && !tasks.isEmpty()) {
+            List<Long> ids = tasks.stream().map(TaskSummaryDTO::id).collect(Collectors.toList());
+            TaskSummaryDTO.attachSubtasks(tasks, subTaskRepository.findSummariesByTaskIdIn(ids));
+        }
+        return new TaskPageDTO<>(tasks, nextCursor);
     }
-    
 
-    public Map<String, String> updateTask(String token, Long taskId, TaskDTO taskRequest) {
+    /**
+     * Tareas no eliminadas de una categoría, ordenadas y filtradas en la base de datos
+     * según su orderTasks y showComplete.
+     */
+    public List<TaskSummaryDTO> getTasksByCategory(String token, Long categoryId) {
+        return getTasksByCategory(token, categoryId, true);
+    }
+
+    public List<TaskSummaryDTO> getTasksByCategory(String token, Long categoryId, boolean includeSubtasks) {
         User user = getAuthenticatedUser(token);
-    
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("Tarea no encontrada"));
-    
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("No tienes permisos para modificar esta tarea");
+        Category category = getOwnedCategory(user, categoryId);
+        Sort sort = orderOf(category).toSort();
+
+        List<TaskSummaryDTO> tasks;
+        if (Boolean.TRUE.equals(category.getShowComplete())) {
+            tasks = taskRepository.findCategorySummaries(user.getId(), categoryId, sort);
+        } else {
+            tasks = taskRepository.findCategorySummariesWithoutStatus(
+                    user.getId(), categoryId, Status.COMPLETED, sort);
+        }
+        if (!includeSubtasks) {
+            return tasks;
+        }
+        return TaskSummaryDTO.attachSubtasks(tasks,
+                subTaskRepository.findSummariesByUserIdAndCategoryId(user.getId(), categoryId));
+    }
+
+    /**
+     * Tareas vencidas y las que vencen desde hoy hasta dentro de {@code days} días (con 0, solo
+     * las vencidas), agrupadas por día a partir de una sola consulta ordenada por fecha límite.
+     */
+    public TaskAgendaDTO getAgenda(String token, int days) {
+        return getAgenda(getAuthenticatedUser(token), days, LocalDateTime.now());
+    }
+
+    public TaskAgendaDTO getAgenda(User user, int days, LocalDateTime now) {
+        if (days < 0 || days > MAX_AGENDA_DAYS) {
+            throw new IllegalArgumentException("Los días de la agenda deben estar entre 0 y " + MAX_AGENDA_DAYS);
+        }
+        LocalDate today = now.toLocalDate();
+        LocalDateTime until = days == 0 ? now : today.plusDays(days).atStartOfDay();
+
+        Map<LocalDate, List<TaskSummaryDTO>> overdue = new LinkedHashMap<>();
+        Map<LocalDate, List<TaskSummaryDTO>> upcoming = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            upcoming.put(today.plusDays(i), new ArrayList<>());
+        }
+        long overdueCount = 0;
+        for (TaskSummaryDTO task : taskRepository.findSummariesDueBefore(user.getId(), Status.NOT_COMPLETED, until)) {
+            LocalDate day = task.dueDate().toLocalDate();
+            if (task.dueDate().isBefore(now)) {
+                overdue.computeIfAbsent(day, d -> new ArrayList<>()).add(task);
+                overdueCount++;
+            } else {
+                upcoming.get(day).add(task);
+            }
+        }
+        return new TaskAgendaDTO(today, overdueCount, agendaDays(overdue), agendaDays(upcoming));
+    }
+
+    private static List<TaskAgendaDTO.Day> agendaDays(Map<LocalDate, List<TaskSummaryDTO>> byDay) {
+        return byDay.entrySet().stream()
+                .map(entry -> new TaskAgendaDTO.Day(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private Category getOwnedCategory(User user, Long categoryId) {
+        return categoryRepository.findByIdAndUserId(categoryId, user.getId())
+                .orElseThrow(() -> new RuntimeException(categoryRepository.existsById(categoryId)
+                        ? "No tienes permisos para ver esta categoría" : "Categoría no encontrada"));
+    }
+
+    private OrderTask orderOf(Category category) {
+        return category.getOrderTasks() != null ? category.getOrderTasks() : OrderTask.DATE_CREATED;
+    }
+
+    @Transactional
+    public Map<String, Object> markTaskAsCompleted(String token, Long taskId) {
+        return markTaskAsCompleted(token, taskId, null);
+    }
+
+    /**
+     * Alterna completada/pendiente con un UPDATE condicional (id, usuario y versión) sin cargar
+     * la entidad. Si la tarea ha cambiado entretanto, o no está en la versión que espera el
+     * cliente, se lanza OptimisticLockingFailureException.
+     */
+    @Transactional
+    public Map<String, Object> markTaskAsCompleted(String token, Long taskId, Long expectedVersion) {
+        return markTaskAsCompleted(getAuthenticatedUser(token), taskId, expectedVersion);
+    }
+
+    @Transactional
+    public Map<String, Object> markTaskAsCompleted(User user, Long taskId, Long expectedVersion) {
+        TaskVersionRow row = getOwnedRow(user, taskId, "No tienes permisos para modificar esta tarea");
+        TaskStatsSnapshot before = row.snapshot();
+        if (expectedVersion != null && !expectedVersion.equals(row.version())) {
+            throw new OptimisticLockingFailureException(TASK_CONFLICT);
         }
+
+        boolean complete = before.status() != Status.COMPLETED;
+        Status status = complete ? Status.COMPLETED : Status.PENDENT;
+        LocalDateTime completedAt = complete ? LocalDateTime.now() : null;
+        if (taskRepository.updateStatusIfVersion(taskId, user.getId(), row.version(), status, completedAt,
+                LocalDateTime.now()) == 0) {
+            throw new OptimisticLockingFailureException(TASK_CONFLICT);
+        }
+
+        statsRollup.apply(before, new TaskStatsSnapshot(before.userId(), before.categoryId(), before.priorityId(),
+                status, before.trashed(), before.rescheduled(), before.dateCreated(), completedAt,
+                before.subtaskTotal(), before.subtaskCompleted()));
+        events.publishEvent(new TaskChangedEvent(user.getId(), taskId,
+                complete ? TaskChangedEvent.Change.COMPLETED : TaskChangedEvent.Change.REOPENED));
+        return Map.of("message", complete ? "Tarea marcada como completada" : "Tarea vuelta a pendiente",
+                "status", status,
+                "version", row.version() + 1);
+    }
+
+    @Transactional
+    public Map<String, String> updateTask(String token, Long taskId, TaskDTO taskRequest) {
+        updateTask(getAuthenticatedUser(token), taskId, taskRequest);
+        return Map.of("message", "Tarea actualizada con éxito");
+    }
+
+    @Transactional
+    public Task updateTask(User user, Long taskId, TaskDTO taskRequest) {
+        Task task = getOwnedTask(user, taskId, "No tienes permisos para modificar esta tarea");
     
+        TaskStatsSnapshot before = TaskStatsSnapshot.of(task);
         task.setName(taskRequest.getName());
         task.setDescription(taskRequest.getDescription());
         
@@ -131,13 +369,11 @@ public class TaskService {
         }
     
         if (taskRequest.getPriorityId() != null) {
-            Priority priority = priorityRepository.findById(taskRequest.getPriorityId())
-                    .orElseThrow(() -> new RuntimeException("Prioridad no encontrada"));
-            task.setPriority(priority);
+            task.setPriority(getOwnedPriority(user, taskRequest.getPriorityId()));
         }
     
         if (taskRequest.getCategoryId() != null) {
-            Category category = categoryRepository.findById(taskRequest.getCategoryId())
+            Category category = categoryRepository.findByIdAndUserId(taskRequest.getCategoryId(), user.getId())
                     .orElse(null); // categoría opcional
             task.setCategory(category);
         }
@@ -145,82 +381,224 @@ public class TaskService {
         
     
         taskRepository.save(task);
-        return Map.of("message", "Tarea actualizada con éxito");
+        statsRollup.apply(before, TaskStatsSnapshot.of(task));
+        events.publishEvent(new TaskChangedEvent(user.getId(), taskId, TaskChangedEvent.Change.UPDATED));
+        return task;
     }
     
 
+    /**
+     * Aplica una misma operación a varias tareas: comprueba la propiedad de todas con una
+     * consulta y las actualiza con un único UPDATE en lote. Devuelve el resultado de cada id.
+     */
+    @Transactional
+    public BulkTaskResultDTO bulkUpdate(String token, BulkTaskRequest request) {
+        User user = getAuthenticatedUser(token);
+
+        BulkTaskOperation operation = request.getOperation();
+        if (operation == null) {
+            throw new IllegalArgumentException("Operación no indicada");
+        }
+        List<Long> ids = request.getTaskIds() == null ? List.of()
+                : request.getTaskIds().stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty() || ids.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("Debes indicar entre 1 y " + MAX_BULK_SIZE + " tareas");
+        }
+
+        Long targetId = null;
+        if (operation == BulkTaskOperation.MOVE_CATEGORY && request.getCategoryId() != null) {
+            targetId = getOwnedCategory(user, request.getCategoryId()).getId();
+        }
+        if (operation == BulkTaskOperation.REPRIORITIZE) {
+            if (request.getPriorityId() == null) {
+                throw new IllegalArgumentException("Prioridad no indicada");
+            }
+            targetId = getOwnedPriority(user, request.getPriorityId()).getId();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // Bloqueadas hasta el final: un cambio suelto simultáneo no puede colarse entre la lectura
+        // y el UPDATE, que descontaría de las estadísticas un estado que ya no es el de la tarea
+        Map<Long, BulkTaskRow> owned = taskRepository.lockRows(ids, TaskPurgeService.PurgeScope.owned(user.getId()))
+                .stream()
+                .collect(Collectors.toMap(BulkTaskRow::id, row -> row));
+
+        List<BulkTaskResultDTO.Item> results = new ArrayList<>(ids.size());
+        List<Long> changed = new ArrayList<>();
+        List<TaskStatsSnapshot> before = new ArrayList<>();
+        List<TaskStatsSnapshot> after = new ArrayList<>();
+        for (Long id : ids) {
+            BulkTaskRow row = owned.get(id);
+            if (row == null) {
+                results.add(new BulkTaskResultDTO.Item(id, BulkTaskResultDTO.Outcome.NOT_FOUND));
+                continue;
+            }
+            TaskStatsSnapshot updated = applyOperation(row.snapshot(), operation, targetId, now);
+            if (updated.equals(row.snapshot())) {
+                results.add(new BulkTaskResultDTO.Item(id, BulkTaskResultDTO.Outcome.UNCHANGED));
+                continue;
+            }
+            results.add(new BulkTaskResultDTO.Item(id, BulkTaskResultDTO.Outcome.UPDATED));
+            changed.add(id);
+            before.add(row.snapshot());
+            after.add(updated);
+        }
+
+        if (!changed.isEmpty()) {
+            taskRepository.batchUpdate(operation, user.getId(), changed, targetId, now);
+            statsRollup.applyAll(user.getId(), before, after);
+            TaskChangedEvent.Change change = switch (operation) {
+                case COMPLETE -> TaskChangedEvent.Change.COMPLETED;
+                case TRASH -> TaskChangedEvent.Change.TRASHED;
+                case RESTORE -> TaskChangedEvent.Change.RESTORED;
+                case MOVE_CATEGORY, REPRIORITIZE -> TaskChangedEvent.Change.MOVED;
+            };
+            // Un evento para todo el lote: los oyentes procesan las tareas juntas
+            events.publishEvent(TaskChangedEvent.ofTasks(user.getId(), changed, change));
+        }
+        return new BulkTaskResultDTO(results, changed.size());
+    }
+
+    private static TaskStatsSnapshot applyOperation(TaskStatsSnapshot task, BulkTaskOperation operation,
+                                                    Long targetId, LocalDateTime now) {
+        return switch (operation) {
+            case COMPLETE -> task.status() == Status.COMPLETED ? task
+                    : new TaskStatsSnapshot(task.userId(), task.categoryId(), task.priorityId(), Status.COMPLETED,
+                            task.trashed(), task.rescheduled(), task.dateCreated(), now,
+                            task.subtaskTotal(), task.subtaskCompleted());
+            case TRASH, RESTORE -> {
+                boolean trashed = operation == BulkTaskOperation.TRASH;
+                yield trashed == Boolean.TRUE.equals(task.trashed()) ? task
+                        : new TaskStatsSnapshot(task.userId(), task.categoryId(), task.priorityId(), task.status(),
+                                trashed, task.rescheduled(), task.dateCreated(), task.completedAt(),
+                                task.subtaskTotal(), task.subtaskCompleted());
+            }
+            case MOVE_CATEGORY -> new TaskStatsSnapshot(task.userId(), targetId, task.priorityId(), task.status(),
+                    task.trashed(), task.rescheduled(), task.dateCreated(), task.completedAt(),
+                    task.subtaskTotal(), task.subtaskCompleted());
+            case REPRIORITIZE -> new TaskStatsSnapshot(task.userId(), task.categoryId(), targetId, task.status(),
+                    task.trashed(), task.rescheduled(), task.dateCreated(), task.completedAt(),
+                    task.subtaskTotal(), task.subtaskCompleted());
+        };
+    }
+
+    @Transactional
     public Map<String, String> deleteTask(String token, Long taskId) {
         User user = getAuthenticatedUser(token); // método que extrae el usuario desde el token
     
-        Task task = taskRepository.findById(taskId)
-            .orElseThrow(() -> new RuntimeException("Tarea no encontrada"));
-    
         // Verificar que la tarea pertenece al usuario autenticado
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("No tienes permisos para eliminar esta tarea");
-        }
-    
-        taskRepository.delete(task);
+        getOwnedRow(user, taskId, "No tienes permisos para eliminar esta tarea");
+
+        // Subtareas y tarea con dos DELETE, sin cargar la entidad ni su cascada
+        taskPurgeService.deleteTasks(List.of(taskId), TaskPurgeService.PurgeScope.owned(user.getId()));
     
         return Map.of("message", "Tarea eliminada correctamente");
     }
 
-    public Map<String, String> deleteAllTrashedTasks(String token, Long categoryId) {
+    /**
+     * Vacía la papelera del usuario (o solo la de una categoría). Se borra por lotes de
+     * {@link #PURGE_CHUNK_SIZE} tareas, cada uno en su propia transacción para no retener
+     * bloqueos mucho tiempo, y se devuelve cuántas tareas y subtareas se eliminaron.
+     */
+    public Map<String, Object> deleteAllTrashedTasks(String token, Long categoryId) {
         User user = getAuthenticatedUser(token); // Obtener el usuario autenticado
 
-        List<Task> trashedTasks;
-        if (categoryId != null) {
-            trashedTasks = taskRepository.findByUserAndTrashedAndCategoryId(user, true, categoryId);
-        } else {
-            trashedTasks = taskRepository.findByUserAndTrashed(user, true);
+        TaskPurgeService.PurgeScope scope = TaskPurgeService.PurgeScope.trash(user.getId(), categoryId);
+        TaskPurgeService.PurgeResult total = TaskPurgeService.PurgeResult.EMPTY;
+        while (true) {
+            PageRequest chunkPage = PageRequest.of(0, PURGE_CHUNK_SIZE);
+            List<Long> ids = categoryId == null
+                    ? taskRepository.findTrashedIds(user.getId(), chunkPage)
+                    : taskRepository.findTrashedIdsInCategory(user.getId(), categoryId, chunkPage);
+            if (ids.isEmpty()) {
+                break;
+            }
+            TaskPurgeService.PurgeResult chunk = taskPurgeService.deleteTasks(ids, scope);
+            total = total.plus(chunk);
+            if (ids.size() < PURGE_CHUNK_SIZE || chunk.tasks() == 0) {
+                break;
+            }
         }
 
-        if (trashedTasks.isEmpty()) {
-            return Map.of("message", "No hay tareas en la papelera para eliminar");
+        if (total.tasks() == 0) {
+            return Map.of("message", "No hay tareas en la papelera para eliminar",
+                    "deletedTasks", 0, "deletedSubtasks", 0);
         }
+        return Map.of("message", "Todas las tareas en la papelera han sido eliminadas correctamente",
+                "deletedTasks", total.tasks(), "deletedSubtasks", total.subtasks());
+    }
 
-        taskRepository.deleteAll(trashedTasks);
+    @Transactional
+    public Map<String, String> trashTask(String token, Long taskId) {
+        trashTask(getAuthenticatedUser(token), taskId);
+        return Map.of("message", "Tarea movida a la papelera correctamente");
+    }
 
-        return Map.of("message", "Todas las tareas en la papelera han sido eliminadas correctamente");
+    @Transactional
+    public void trashTask(User user, Long taskId) {
+        TaskVersionRow row = getOwnedRow(user, taskId, "No tienes permisos para eliminar esta tarea");
+        setTrashed(user, row, true, LocalDateTime.now());
+        events.publishEvent(new TaskChangedEvent(user.getId(), taskId, TaskChangedEvent.Change.TRASHED));
     }
 
-    public Map<String, String> trashTask(String token, Long taskId) {
-        User user = getAuthenticatedUser(token);
-    
-        Task task = taskRepository.findById(taskId)
-            .orElseThrow(() -> new RuntimeException("Tarea no encontrada"));
-    
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("No tienes permisos para eliminar esta tarea");
+    /**
+     * Mueve a la papelera o saca de ella con un UPDATE condicional sobre la versión leída.
+     */
+    private void setTrashed(User user, TaskVersionRow row, boolean trashed, LocalDateTime dateTrashed) {
+        if (taskRepository.updateTrashedIfVersion(row.id(), user.getId(), row.version(), trashed, dateTrashed,
+                LocalDateTime.now()) == 0) {
+            throw new OptimisticLockingFailureException(TASK_CONFLICT);
         }
-    
-        task.setTrashed(true);
-        task.setDateTrashed(LocalDateTime.now());
-        taskRepository.save(task);
-    
-        return Map.of("message", "Tarea movida a la papelera correctamente");
+        TaskStatsSnapshot before = row.snapshot();
+        statsRollup.apply(before, new TaskStatsSnapshot(before.userId(), before.categoryId(), before.priorityId(),
+                before.status(), trashed, before.rescheduled(), before.dateCreated(), before.completedAt(),
+                before.subtaskTotal(), before.subtaskCompleted()));
     }
 
-    public List<Task> getTrashedTasks(User user, Long categoryId) {
-        List<Task> trashed = taskRepository.findByUserAndTrashed(user, true);
-        if (categoryId != null) {
-            trashed = trashed.stream()
-              .filter(task -> task.getCategory() != null && task.getCategory().getId().equals(categoryId))
-              .collect(Collectors.toList());
+    /**
+     * Papelera completa con subtareas (filtrada por categoría en la base de datos).
+     */
+    public List<TaskSummaryDTO> getTrashedTasks(User user, Long categoryId) {
+        List<TaskSummaryDTO> trashed = categoryId == null
+                ? taskRepository.findTrashSummaries(user.getId())
+                : taskRepository.findTrashSummariesInCategory(user.getId(), categoryId);
+        if (!trashed.isEmpty()) {
+            List<Long> ids = trashed.stream().map(TaskSummaryDTO::id).collect(Collectors.toList());
+            TaskSummaryDTO.attachSubtasks(trashed, subTaskRepository.findSummariesByTaskIdIn(ids));
         }
         return trashed;
     }
 
-    public Map<String, String> recoverTask(String token, Long taskId) {
+    /**
+     * Página de la papelera con la vista ligera, de la tarea enviada más recientemente a la más antigua.
+     */
+    public TaskPageDTO<TrashedTaskDTO> getTrashPage(String token, Long categoryId, String cursor, int size) {
         User user = getAuthenticatedUser(token);
-        Task task = taskRepository.findById(taskId)
-            .orElseThrow(() -> new RuntimeException("Tarea no encontrada"));
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("No tienes permisos para recuperar esta tarea");
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE);
         }
-        task.setTrashed(false);
-        task.setDateTrashed(null);
-        taskRepository.save(task);
+        if (categoryId != null) {
+            getOwnedCategory(user, categoryId);
+        }
+        TrashCursor after = cursor != null && !cursor.isEmpty() ? TrashCursor.decode(cursor) : null;
+
+        // Se pide una tarea de más para saber si hay página siguiente
+        List<TrashedTaskDTO> tasks = taskRepository.findTrashPage(user.getId(), categoryId, after, size + 1);
+        String nextCursor = null;
+        if (tasks.size() > size) {
+            tasks = tasks.subList(0, size);
+            nextCursor = TrashCursor.after(tasks.get(size - 1)).encode();
+        }
+        return new TaskPageDTO<>(tasks, nextCursor);
+    }
+
+    @Transactional
+    public Map<String, String> recoverTask(String token, Long taskId) {
+        User user = getAuthenticatedUser(token);
+        TaskVersionRow row = getOwnedRow(user, taskId, "No tienes permisos para recuperar esta tarea");
+        setTrashed(user, row, false, null);
+        events.publishEvent(new TaskChangedEvent(user.getId(), taskId, TaskChangedEvent.Change.RESTORED));
         return Map.of("message", "Tarea recuperada con éxito");
     }
     
@@ -0,0 +1,80 @@
+package com.todus.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.todus.enums.Color;
+import com.todus.enums.OrderTask;
+import com.todus.enums.Status;
+import com.todus.subTask.SubTaskSummaryDTO;
+
+/**
+ * Vista de lectura de una tarea para los listados. Mantiene la misma forma JSON
+ * que la entidad (category, priority y subtasks anidados) sin cargar el grafo completo.
+ * subtaskTotal y subtaskCompleted bastan para mostrar el progreso sin pedir las subtareas.
+ */
+public record TaskSummaryDTO(
+        Long id,
+        String name,
+        String description,
+        LocalDateTime dateCreated,
+        LocalDateTime dueDate,
+        Status status,
+        Boolean trashed,
+        LocalDateTime dateTrashed,
+        LocalDateTime completedAt,
+        Boolean rescheduled,
+        Long subtaskTotal,
+        Long subtaskCompleted,
+        CategorySummary category,
+        PrioritySummary priority,
+        List<SubTaskSummaryDTO> subtasks) {
+
+    /**
+     * Constructor plano para las consultas JPQL "select new".
+     */
+    public TaskSummaryDTO(Long id, String name, String description, LocalDateTime dateCreated,
+                          LocalDateTime dueDate, Status status, Boolean trashed, LocalDateTime dateTrashed,
+                          LocalDateTime completedAt, Boolean rescheduled, Long subtaskTotal, Long subtaskCompleted,
+                          Long categoryId, String categoryName, OrderTask orderTasks, Boolean showComplete,
+                          Boolean autoDeleteComplete, Integer deleteCompleteDays,
+                          Long priorityId, String priorityName, Integer priorityLevel, Color priorityColor) {
+        this(id, name, description, dateCreated, dueDate, status, trashed, dateTrashed, completedAt, rescheduled,
+                subtaskTotal, subtaskCompleted,
+                categoryId == null ? null : new CategorySummary(categoryId, categoryName, orderTasks, showComplete,
+                        autoDeleteComplete, deleteCompleteDays),
+                new PrioritySummary(priorityId, priorityName, priorityLevel, priorityColor),
+                new ArrayList<>());
+    }
+
+    public record CategorySummary(Long id, String name, OrderTask orderTasks, Boolean showComplete,
+                                  Boolean autoDeleteComplete, Integer deleteCompleteDays) {}
+
+    public record PrioritySummary(Long id, String name, Integer level, Color color) {
+
+        @JsonProperty("colorHex")
+        public String colorHex() {
+            return color != null ? color.getHex() : null;
+        }
+    }
+
+    /**
+     * Reparte las subtareas (obtenidas en una sola consulta) entre sus tareas.
+     */
+    public static List<TaskSummaryDTO> attachSubtasks(List<TaskSummaryDTO> tasks, List<SubTaskSummaryDTO> subtasks) {
+        Map<Long, TaskSummaryDTO> byId = tasks.stream()
+                .collect(Collectors.toMap(TaskSummaryDTO::id, Function.identity()));
+        for (SubTaskSummaryDTO subTask : subtasks) {
+            TaskSummaryDTO task = byId.get(subTask.taskId());
+            if (task != null) {
+                task.subtasks().add(subTask);
+            }
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,20 @@
+package com.todus.task;
+
+import java.time.LocalDateTime;
+
+import com.todus.enums.Status;
+import com.todus.stats.TaskStatsSnapshot;
+
+/**
+ * Estado y versión actuales de una tarea, leídos sin cargar la entidad, para una
+ * actualización condicional.
+ */
+public record TaskVersionRow(Long id, Long version, TaskStatsSnapshot snapshot) {
+
+    public TaskVersionRow(Long id, Long version, Long userId, Long categoryId, Long priorityId, Status status,
+                          Boolean trashed, Boolean rescheduled, LocalDateTime dateCreated,
+                          LocalDateTime completedAt) {
+        this(id, version, new TaskStatsSnapshot(userId, categoryId, priorityId, status, trashed, rescheduled,
+                dateCreated, completedAt, null, null));
+    }
+}
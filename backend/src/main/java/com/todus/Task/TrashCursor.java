@@ -0,0 +1,33 @@
+package com.todus.task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición de continuación de la papelera, ordenada por fecha de envío descendente.
+ * {@code dateTrashed} es null en el tramo final de tareas sin fecha.
+ */
+public record TrashCursor(LocalDateTime dateTrashed, Long id) {
+
+    public static TrashCursor after(TrashedTaskDTO task) {
+        return new TrashCursor(task.dateTrashed(), task.id());
+    }
+
+    public String encode() {
+        String raw = id + "|" + (dateTrashed == null ? "" : "v" + dateTrashed);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TrashCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            Long id = Long.valueOf(parts[0]);
+            LocalDateTime dateTrashed = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1].substring(1));
+            return new TrashCursor(dateTrashed, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.todus.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.todus.util.Throttle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Elimina definitivamente las tareas que llevan en la papelera más de {@code retention-days}
+ * días (según {@code dateTrashed}). Trabaja por lotes de ids con un límite de lotes por
+ * ejecución y una pausa entre ellos. En modo {@code dry-run} solo cuenta lo que borraría en
+ * una ejecución. Las tareas sin fecha de papelera (anteriores a ese campo) no se tocan.
+ *
+ * Borra datos de los usuarios sin vuelta atrás, así que hay que activarlo a propósito
+ * ({@code todus.purge.trash.enabled=true}).
+ */
+@Component
+@ConditionalOnProperty(name = "todus.purge.trash.enabled", havingValue = "true")
+public class TrashRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TrashRetentionJob.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskPurgeService taskPurgeService;
+
+    private final int retentionDays;
+    private final boolean dryRun;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration pause;
+
+    private final Counter deletedTasks;
+    private final Counter deletedSubTasks;
+    private final DistributionSummary tasksPerRun;
+    private final Timer runTimer;
+
+    public TrashRetentionJob(TaskRepository taskRepository,
+                             TaskPurgeService taskPurgeService,
+                             MeterRegistry meterRegistry,
+                             @Value("${todus.purge.trash.retention-days:30}") int retentionDays,
+                             @Value("${todus.purge.trash.dry-run:true}") boolean dryRun,
+                             @Value("${todus.purge.trash.batch-size:500}") int batchSize,
+                             @Value("${todus.purge.trash.max-batches-per-run:50}") int maxBatchesPerRun,
+                             @Value("${todus.purge.trash.pause-ms:100}") long pauseMs) {
+        this.taskRepository = taskRepository;
+        this.taskPurgeService = taskPurgeService;
+        this.retentionDays = retentionDays;
+        this.dryRun = dryRun;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pause = Duration.ofMillis(pauseMs);
+
+        String mode = dryRun ? "dry-run" : "delete";
+        this.deletedTasks = Counter.builder("todus.purge.trash.tasks").register(meterRegistry);
+        this.deletedSubTasks = Counter.builder("todus.purge.trash.subtasks").register(meterRegistry);
+        this.tasksPerRun = DistributionSummary.builder("todus.purge.trash.tasks.per.run")
+                .tag("mode", mode).register(meterRegistry);
+        this.runTimer = Timer.builder("todus.purge.trash.run").tag("mode", mode).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${todus.purge.trash.interval-ms:3600000}",
+               initialDelayString = "${todus.purge.trash.initial-delay-ms:120000}")
+    public void run() {
+        TaskPurgeService.PurgeResult result = purge(LocalDateTime.now());
+        if (result.tasks() > 0 && dryRun) {
+            log.info("Papelera caducada (simulación): se eliminarían {} tareas", result.tasks());
+        } else if (result.tasks() > 0) {
+            log.info("Papelera caducada: {} tareas, {} subtareas", result.tasks(), result.subtasks());
+        }
+    }
+
+    /**
+     * Ejecuta una pasada. En modo simulación devuelve cuántas tareas se eliminarían en ella
+     * (como mucho {@code batch-size * max-batches-per-run}).
+     */
+    public TaskPurgeService.PurgeResult purge(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusDays(retentionDays);
+        long perRun = (long) batchSize * maxBatchesPerRun;
+        TaskPurgeService.PurgeResult result = runTimer.record(() -> dryRun
+                ? new TaskPurgeService.PurgeResult((int) Math.min(taskRepository.countTrashedBefore(cutoff), perRun), 0)
+                : deleteBatches(cutoff));
+        if (!dryRun) {
+            deletedTasks.increment(result.tasks());
+            deletedSubTasks.increment(result.subtasks());
+        }
+        tasksPerRun.record(result.tasks());
+        return result;
+    }
+
+    private TaskPurgeService.PurgeResult deleteBatches(LocalDateTime cutoff) {
+        TaskPurgeService.PurgeResult total = TaskPurgeService.PurgeResult.EMPTY;
+        for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+            List<Long> ids = taskRepository.findTrashedBefore(cutoff, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            if (batches > 0 && !Throttle.pause(pause)) {
+                break;
+            }
+            TaskPurgeService.PurgeResult batch = taskPurgeService.deleteTasks(ids,
+                    TaskPurgeService.PurgeScope.trashedBefore(cutoff));
+            total = total.plus(batch);
+            if (ids.size() < batchSize || batch.tasks() == 0) {
+                break;
+            }
+        }
+        return total;
+    }
+}
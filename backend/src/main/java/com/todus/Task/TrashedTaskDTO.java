@@ -0,0 +1,35 @@
+package com.todus.task;
+
+import java.time.LocalDateTime;
+
+import com.todus.enums.Color;
+import com.todus.enums.Status;
+
+/**
+ * Vista ligera de una tarea de la papelera: lo que muestra la pantalla, sin descripción
+ * ni subtareas.
+ */
+public record TrashedTaskDTO(
+        Long id,
+        String name,
+        Status status,
+        LocalDateTime dateCreated,
+        LocalDateTime dateTrashed,
+        LocalDateTime completedAt,
+        CategoryRef category,
+        TaskSummaryDTO.PrioritySummary priority) {
+
+    /**
+     * Constructor plano para las consultas con proyección.
+     */
+    public TrashedTaskDTO(Long id, String name, Status status, LocalDateTime dateCreated,
+                          LocalDateTime dateTrashed, LocalDateTime completedAt,
+                          Long categoryId, String categoryName,
+                          Long priorityId, String priorityName, Integer priorityLevel, Color priorityColor) {
+        this(id, name, status, dateCreated, dateTrashed, completedAt,
+                categoryId == null ? null : new CategoryRef(categoryId, categoryName),
+                new TaskSummaryDTO.PrioritySummary(priorityId, priorityName, priorityLevel, priorityColor));
+    }
+
+    public record CategoryRef(Long id, String name) {}
+}
@@ -3,9 +3,13 @@ package com.todus;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = "com.todus")
+@EnableScheduling
+@EnableAsync
 public class TodusApplication {
 
 	public static void main(String[] args) {
@@ -2,6 +2,7 @@ package com.todus.user;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,6 +14,8 @@ import com.todus.image.ImageRepository;
 import com.todus.priority.Priority;
 import com.todus.priority.PriorityRepository;
 import com.todus.util.JwtUtil;
+import com.todus.util.PrincipalCache;
+import com.todus.util.SecurityUtils;
 
 @Service
 public class AuthService {
@@ -31,6 +34,9 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     public String login(String email, String password) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -81,16 +87,31 @@ public class AuthService {
     }
 
     public User getAuthenticatedUser(String token) {
+        // El filtro JWT ya resolvió el usuario de esta petición
+        Optional<User> principal = SecurityUtils.currentUser();
+        if (principal.isPresent()) {
+            return principal.get();
+        }
         String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
     }
 
+    /**
+     * Como {@link #getAuthenticatedUser}, pero leído de nuevo de la base de datos, para los
+     * cambios: el del SecurityContext puede ser el que PrincipalCache comparte entre peticiones,
+     * y modificarlo dejaría en el caché datos que quizá no lleguen a guardarse.
+     */
+    private User loadAuthenticatedUser(String token) {
+        return userRepository.findById(getAuthenticatedUser(token).getId())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+
     /**
      * Cambia la contraseña de un usuario autenticado.
      */
     public Map<String, String> changePassword(String token, ChangePasswordDTO request) {
-        User user = getAuthenticatedUser(token);
+        User user = loadAuthenticatedUser(token);
 
         // Verificar si la contraseña actual es correcta
         if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
@@ -105,6 +126,7 @@ public class AuthService {
         // Cifrar la nueva contraseña y guardarla
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        principalCache.invalidateUser(user.getId());
 
         return Map.of("message", "Contraseña cambiada correctamente");
     }
@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 
 import com.todus.image.Image;
 import com.todus.image.ImageRepository;
+import com.todus.util.PrincipalCache;
 
 import jakarta.transaction.Transactional;
 
@@ -29,6 +30,9 @@ public class UserController {
 
     @Autowired
     private ImageRepository imageRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
    
     @GetMapping("/profile")
     public ResponseEntity<?> getUserProfile() {
@@ -60,6 +64,8 @@ public class UserController {
         }
 
         User authenticatedUser = (User) authentication.getPrincipal();
+        // Se modifica una copia gestionada, nunca el principal: PrincipalCache lo comparte entre
+        // peticiones y un guardado fallido lo dejaría con datos que no están en la base de datos
         User existingUser = userRepository.findById(authenticatedUser.getId()).orElse(null);
 
         if (existingUser == null) {
@@ -130,6 +136,7 @@ public class UserController {
         }
 
         userRepository.save(existingUser);
+        principalCache.invalidateUserAfterCommit(existingUser.getId());
 
         return ResponseEntity.ok(Map.of(
             "name", existingUser.getName(),
@@ -6,7 +6,9 @@ import com.todus.user.User;
 import com.todus.task.Task;
 import javax.validation.constraints.NotNull;
 import com.todus.image.Image;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.todus.enums.OrderTask;
 import com.todus.studyMethod.StudyMethod;
@@ -14,7 +16,9 @@ import com.todus.studyMethod.StudyMethod;
 @Entity
 @Getter
 @Setter
-@Table(name = "categories")
+@Table(name = "categories", indexes = {
+    @Index(name = "idx_categories_user_updated_at", columnList = "user_id, updated_at")
+})
 public class Category {
 
     @Id
@@ -53,4 +57,8 @@ public class Category {
     @OneToOne
     @JoinColumn(name = "study_method_id", referencedColumnName = "id")
     private StudyMethod studyMethod;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.todus.category;
+
+/**
+ * Evento publicado tras crear, editar o borrar una categoría del usuario.
+ */
+public record CategoryChangedEvent(Long userId, Long categoryId, Change change) {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -4,6 +4,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.todus.sync.ListVersionService;
+import com.todus.user.AuthService;
+import com.todus.user.User;
+import com.todus.util.ETags;
+
 import java.util.List;
 import java.util.Map;
 
@@ -14,6 +19,12 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private AuthService userService;
+
+    @Autowired
+    private ListVersionService listVersions;
+
     // CREAR CATEGORÍA
     @PostMapping("/create")
     public ResponseEntity<?> createCategory(@RequestHeader("Authorization") String token,
@@ -28,10 +39,17 @@ public class CategoryController {
 
     // LISTAR TODAS LAS CATEGORÍAS DEL USUARIO AUTENTICADO
     @GetMapping("/all")
-    public ResponseEntity<?> getAllUserCategories(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getAllUserCategories(@RequestHeader("Authorization") String token,
+                                                  @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
+            // Si el cliente ya tiene la versión actual no se cargan las categorías
+            User user = userService.getAuthenticatedUser(token);
+            String etag = listVersions.categoryListTag(user.getId());
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
             List<Category> categories = categoryService.getAllUserCategories(token);
-            return ResponseEntity.ok(categories);
+            return ETags.ok(etag, categories);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -1,7 +1,11 @@
 package com.todus.category;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.todus.user.User;
@@ -11,4 +15,22 @@ import com.todus.user.User;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     List<Category> findAllByUser(User user);
+
+    List<Category> findByUserIdOrderById(Long userId);
+
+    List<Category> findByUserIdAndUpdatedAtGreaterThanEqualOrderById(Long userId, LocalDateTime since);
+
+    /**
+     * La categoría si es del usuario, con sus relaciones en la misma consulta.
+     */
+    @Query("SELECT c FROM Category c JOIN FETCH c.user u LEFT JOIN FETCH u.image JOIN FETCH c.image "
+            + "LEFT JOIN FETCH c.studyMethod WHERE c.id = :id AND u.id = :userId")
+    Optional<Category> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Categorías con borrado automático de completadas: [id, id del usuario, días].
+     */
+    @Query("SELECT c.id, c.user.id, c.deleteCompleteDays FROM Category c "
+            + "WHERE c.autoDeleteComplete = true ORDER BY c.id")
+    List<Object[]> findAutoDeleteRules();
 }
\ No newline at end of file
@@ -1,17 +1,29 @@
 package com.todus.category;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import com.todus.image.Image;
 import com.todus.image.ImageRepository;
+import com.todus.search.TaskSearchIndex;
+import com.todus.enums.SyncEntityType;
+import com.todus.stats.StatsRollupService;
+import com.todus.sync.ListVersionService;
+import com.todus.sync.SyncService;
+import com.todus.task.Task;
+import com.todus.task.TaskChangedEvent;
 import com.todus.studyMethod.StudyMethod;
 import com.todus.studyMethod.StudyMethodRepository;
 import com.todus.user.User;
 import com.todus.user.UserRepository;
 import com.todus.util.JwtUtil;
+import com.todus.util.SecurityUtils;
+
+import jakarta.transaction.Transactional;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class CategoryService {
@@ -31,10 +43,30 @@ public class CategoryService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private ListVersionService listVersions;
+
+    @Autowired
+    private TaskSearchIndex searchIndex;
+
+    @Autowired
+    private StatsRollupService statsRollup;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
     /**
      * Obtiene el usuario autenticado a partir del token JWT.
      */
     public User getAuthenticatedUser(String token) {
+        // El filtro JWT ya resolvió el usuario de esta petición
+        Optional<User> principal = SecurityUtils.currentUser();
+        if (principal.isPresent()) {
+            return principal.get();
+        }
         String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -43,6 +75,7 @@ public class CategoryService {
     /**
      * Crea una nueva categoría para el usuario autenticado.
      */
+    @Transactional
     public Map<String, String> createCategory(String token, CategoryDTO categoryRequest) {
         User user = getAuthenticatedUser(token);
 
@@ -70,6 +103,8 @@ public class CategoryService {
         category.setShowComplete(categoryRequest.getShowComplete());
         
         categoryRepository.save(category);
+        listVersions.bumpCategories(user.getId());
+        events.publishEvent(new CategoryChangedEvent(user.getId(), category.getId(), CategoryChangedEvent.Change.CREATED));
         return Map.of("message", "Categoría creada con éxito");
     }
 
@@ -81,16 +116,11 @@ public class CategoryService {
         return categoryRepository.findAllByUser(user);
     }
 
-   
+    @Transactional
     public Map<String, String> updateCategory(String token, Long categoryId, CategoryDTO categoryRequest) {
         User user = getAuthenticatedUser(token);
 
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
-
-        if (!category.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("No tienes permisos para modificar esta categoría");
-        }
+        Category category = getOwnedCategory(user, categoryId, "No tienes permisos para modificar esta categoría");
 
         category.setName(categoryRequest.getName());
         category.setDescription(categoryRequest.getDescription());
@@ -111,26 +141,44 @@ public class CategoryService {
         }
 
         categoryRepository.save(category);
+        listVersions.bumpCategories(user.getId());
+        events.publishEvent(new CategoryChangedEvent(user.getId(), categoryId, CategoryChangedEvent.Change.UPDATED));
         return Map.of("message", "Categoría actualizada con éxito");
     }
 
     /**
      * Elimina una categoría del usuario autenticado.
      */
+    @Transactional
     public Map<String, String> deleteCategory(String token, Long categoryId) {
         User user = getAuthenticatedUser(token);
 
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
-
-        if (!category.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("No tienes permisos para eliminar esta categoría");
-        }
+        Category category = getOwnedCategory(user, categoryId, "No tienes permisos para eliminar esta categoría");
 
+        // El borrado en cascada carga igualmente las tareas; se guarda su rastro junto al de la categoría
+        List<Long> taskIds = category.getTasks() != null
+                ? category.getTasks().stream().map(Task::getId).toList() : List.of();
         categoryRepository.delete(category);
+        syncService.recordDeleted(user.getId(), SyncEntityType.CATEGORY, List.of(categoryId));
+        syncService.recordDeleted(user.getId(), SyncEntityType.TASK, taskIds);
+        searchIndex.remove(taskIds);
+        listVersions.bumpCategories(user.getId());
+        events.publishEvent(new CategoryChangedEvent(user.getId(), categoryId, CategoryChangedEvent.Change.DELETED));
+        // Borra en cascada sus tareas: se recalculan las estadísticas del usuario
+        statsRollup.rebuild(user.getId());
+        events.publishEvent(new TaskChangedEvent(user.getId(), null, TaskChangedEvent.Change.DELETED));
         return Map.of("message", "Categoría eliminada correctamente");
     }
 
+    /**
+     * Categoría del usuario en una sola consulta; solo si no aparece se comprueba si existe.
+     */
+    private Category getOwnedCategory(User user, Long categoryId, String forbidden) {
+        return categoryRepository.findByIdAndUserId(categoryId, user.getId())
+                .orElseThrow(() -> new RuntimeException(categoryRepository.existsById(categoryId)
+                        ? forbidden : "Categoría no encontrada"));
+    }
+
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -0,0 +1,9 @@
+package com.todus.enums;
+
+public enum BulkTaskOperation {
+    COMPLETE,
+    TRASH,
+    RESTORE,
+    MOVE_CATEGORY,
+    REPRIORITIZE
+}
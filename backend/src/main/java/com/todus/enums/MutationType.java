@@ -0,0 +1,12 @@
+package com.todus.enums;
+
+public enum MutationType {
+    CREATE_TASK,
+    UPDATE_TASK,
+    COMPLETE_TASK,
+    TRASH_TASK,
+    CREATE_SUBTASK,
+    UPDATE_SUBTASK,
+    COMPLETE_SUBTASK,
+    DELETE_SUBTASK
+}
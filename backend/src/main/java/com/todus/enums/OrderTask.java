@@ -1,5 +1,21 @@
 package com.todus.enums;
 
+import org.springframework.data.domain.Sort;
+
 public enum OrderTask {
-    DATE_CREATED, DUE_DATE, PRIORITY_ASC, PRIORITY_DES, NAME_ASC, NAME_DES
+    DATE_CREATED, DUE_DATE, PRIORITY_ASC, PRIORITY_DES, NAME_ASC, NAME_DES;
+
+    /**
+     * Orden SQL equivalente; el id desempata para que el resultado sea estable.
+     */
+    public Sort toSort() {
+        return switch (this) {
+            case DATE_CREATED -> Sort.by("dateCreated", "id");
+            case DUE_DATE -> Sort.by("dueDate", "id");
+            case PRIORITY_ASC -> Sort.by("priority.level", "id");
+            case PRIORITY_DES -> Sort.by(Sort.Direction.DESC, "priority.level", "id");
+            case NAME_ASC -> Sort.by("name", "id");
+            case NAME_DES -> Sort.by(Sort.Direction.DESC, "name", "id");
+        };
+    }
 }
@@ -0,0 +1,6 @@
+package com.todus.enums;
+
+public enum PurgeAction {
+    TRASH,
+    DELETE
+}
@@ -1,5 +1,15 @@
 package com.todus.enums;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum Status {
-    PENDENT, COMPLETED, CANCEL
+    PENDENT, COMPLETED, CANCEL;
+
+    /**
+     * Estados que cuentan como vencidos si pasa la fecha límite. Como lista de valores (y no
+     * {@code status <> COMPLETED}) el filtro usa idx_tasks_user_trashed_status_due hasta due_date.
+     */
+    public static final Set<Status> NOT_COMPLETED = Collections.unmodifiableSet(EnumSet.of(PENDENT, CANCEL));
 }
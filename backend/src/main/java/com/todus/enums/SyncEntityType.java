@@ -0,0 +1,8 @@
+package com.todus.enums;
+
+public enum SyncEntityType {
+    TASK,
+    SUBTASK,
+    CATEGORY,
+    PRIORITY
+}
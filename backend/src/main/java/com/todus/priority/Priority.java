@@ -3,17 +3,22 @@ package com.todus.priority;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 import com.todus.enums.Color;
 import com.todus.user.User;
 
+import org.hibernate.annotations.UpdateTimestamp;
+
 
 @Entity
 @Getter
 @Setter
-@Table(name = "priorities")
+@Table(name = "priorities", indexes = {
+    @Index(name = "idx_priorities_user_updated_at", columnList = "user_id, updated_at")
+})
 public class Priority {
 
     @Id
@@ -38,4 +43,8 @@ public class Priority {
     @ManyToOne(optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
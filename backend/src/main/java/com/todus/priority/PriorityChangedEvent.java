@@ -0,0 +1,13 @@
+package com.todus.priority;
+
+/**
+ * Evento publicado tras crear, editar o borrar una prioridad del usuario.
+ */
+public record PriorityChangedEvent(Long userId, Long priorityId, Change change) {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -4,10 +4,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.todus.sync.ListVersionService;
 import com.todus.user.AuthService;
 import com.todus.user.User;
+import com.todus.util.ETags;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/priorities")
@@ -22,6 +25,9 @@ public class PriorityController {
     @Autowired
     private AuthService userService;
 
+    @Autowired
+    private ListVersionService listVersions;
+
     @GetMapping("/all")
     public List<Priority> getAllPriorities() {
         return priorityService.getAllPriorities();
@@ -46,27 +52,43 @@ public class PriorityController {
     }
 
     @PutMapping("update/{id}")
-    public Priority updatePriority(@PathVariable Long id, @RequestBody Priority updatedPriority) {
-        Priority priority = priorityService.findById(id)
-                .orElseThrow(() -> new RuntimeException("Priority not found"));
-        priority.setName(updatedPriority.getName());
-        priority.setColor(updatedPriority.getColor());
-        return priorityService.save(priority);
+    public ResponseEntity<?> updatePriority(@PathVariable Long id, @RequestBody Priority updatedPriority,
+                                            @RequestHeader("Authorization") String token) {
+        User user = userService.getAuthenticatedUser(token);
+        try {
+            Priority priority = priorityService.getOwnedPriority(user, id);
+            priority.setName(updatedPriority.getName());
+            priority.setColor(updatedPriority.getColor());
+            return ResponseEntity.ok(priorityService.save(priority));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @DeleteMapping("delete/{id}")
-    public ResponseEntity<?> deletePriority(@PathVariable Long id) {
+    public ResponseEntity<?> deletePriority(@PathVariable Long id, @RequestHeader("Authorization") String token) {
+        User user = userService.getAuthenticatedUser(token);
+        try {
+            priorityService.getOwnedPriority(user, id);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
         if (priorityService.hasTasksWithPriority(id)) {
             return ResponseEntity.badRequest().body("No se puede eliminar. Esta prioridad tiene tareas asociadas.");
         }
-        priorityRepository.deleteById(id);
+        priorityService.deletePriority(user, id);
         return ResponseEntity.ok().build();
     }
 
     @GetMapping("/by-user")
-    public ResponseEntity<List<Priority>> listByUser(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<List<Priority>> listByUser(@RequestHeader("Authorization") String token,
+                                                     @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         User user = userService.getAuthenticatedUser(token);
+        String etag = listVersions.priorityListTag(user.getId());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
         List<Priority> priorities = priorityService.getPrioritiesByUser(user);
-        return ResponseEntity.ok(priorities);
+        return ETags.ok(etag, priorities);
     }
 }
@@ -1,9 +1,12 @@
 package com.todus.priority;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.todus.user.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +16,13 @@ public interface PriorityRepository extends JpaRepository<Priority, Long> {
     List<Priority> findAll();
     List<Priority> findByUserId(Long userId);
     long countByUser(User user);
+    List<Priority> findByUserIdAndUpdatedAtGreaterThanEqualOrderById(Long userId, LocalDateTime since);
+
+    /**
+     * La prioridad si es del usuario, en una sola consulta.
+     */
+    @Query("SELECT p FROM Priority p JOIN FETCH p.user u LEFT JOIN FETCH u.image WHERE p.id = :id AND u.id = :userId")
+    Optional<Priority> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 
     
 }
\ No newline at end of file
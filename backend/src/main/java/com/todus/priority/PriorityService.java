@@ -1,14 +1,18 @@
 package com.todus.priority;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import com.todus.task.Task;
+import com.todus.enums.SyncEntityType;
+import com.todus.sync.ListVersionService;
+import com.todus.sync.SyncService;
 import com.todus.task.TaskRepository;
 import com.todus.user.User;
 
+import jakarta.transaction.Transactional;
+
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class PriorityService {
@@ -19,6 +23,15 @@ public class PriorityService {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private ListVersionService listVersions;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
     public List<Priority> getAllPriorities() {
         return priorityRepository.findAll();
     }
@@ -27,13 +40,38 @@ public class PriorityService {
         return priorityRepository.findById(id);
     }
 
+    @Transactional
     public Priority save(Priority priority) {
-        return priorityRepository.save(priority);
+        PriorityChangedEvent.Change change = priority.getId() == null
+                ? PriorityChangedEvent.Change.CREATED : PriorityChangedEvent.Change.UPDATED;
+        Priority saved = priorityRepository.save(priority);
+        listVersions.bumpPriorities(priority.getUser().getId());
+        events.publishEvent(new PriorityChangedEvent(priority.getUser().getId(), saved.getId(), change));
+        return saved;
+    }
+
+    /**
+     * Borra una prioridad ya comprobada como del usuario y deja su rastro para la sincronización.
+     */
+    @Transactional
+    public void deletePriority(User user, Long priorityId) {
+        priorityRepository.deleteById(priorityId);
+        syncService.recordDeleted(user.getId(), SyncEntityType.PRIORITY, List.of(priorityId));
+        listVersions.bumpPriorities(user.getId());
+        events.publishEvent(new PriorityChangedEvent(user.getId(), priorityId, PriorityChangedEvent.Change.DELETED));
     }
 
     public boolean hasTasksWithPriority(Long priorityId) {
-        List<Task> tasks = taskRepository.findByPriorityId(priorityId);
-        return !tasks.isEmpty();
+        return taskRepository.existsByPriorityId(priorityId);
+    }
+
+    /**
+     * Prioridad del usuario en una sola consulta; solo si no aparece se comprueba si existe.
+     */
+    public Priority getOwnedPriority(User user, Long priorityId) {
+        return priorityRepository.findByIdAndUserId(priorityId, user.getId())
+                .orElseThrow(() -> new RuntimeException(priorityRepository.existsById(priorityId)
+                        ? "No tienes permisos para modificar esta prioridad" : "Prioridad no encontrada"));
     }
 
     public List<Priority> getPrioritiesByUser(User user) {
@@ -0,0 +1,166 @@
+package com.todus.reminder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Rueda de tiempo jerárquica: cada nivel tiene {@code wheelSize} casillas y cada casilla de
+ * un nivel abarca una vuelta entera del anterior. Programar y cancelar cuesta O(1) y avanzar
+ * solo visita las casillas que vencen (ordenadas en una cola de casillas, no de entradas),
+ * así que aguanta millones de entradas sin un hilo ni una tarea programada por cada una.
+ * Al vencer una casilla de un nivel alto sus entradas bajan a niveles más finos.
+ *
+ * No es segura entre hilos: quien la usa debe sincronizar el acceso.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    public static final class Entry<T> {
+        private final long expiration;
+        private final T value;
+        private boolean done;
+
+        private Entry(long expiration, T value) {
+            this.expiration = expiration;
+            this.value = value;
+        }
+
+        public long getExpiration() {
+            return expiration;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+
+    private static final class Bucket<T> {
+        private long expiration = -1;
+        private List<Entry<T>> entries = new ArrayList<>();
+
+        private List<Entry<T>> flush() {
+            List<Entry<T>> flushed = entries;
+            entries = new ArrayList<>();
+            expiration = -1;
+            return flushed;
+        }
+    }
+
+    private final class Level {
+        private final long tickMs;
+        private final long interval;
+        private final List<Bucket<T>> buckets;
+        private long currentTime;
+        private Level overflow;
+
+        private Level(long tickMs, long startMs) {
+            this.tickMs = tickMs;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new Bucket<>());
+            }
+            this.currentTime = startMs - startMs % tickMs;
+        }
+
+        /**
+         * Devuelve false si la entrada ya ha vencido (cae en la casilla actual del nivel más fino).
+         */
+        private boolean add(Entry<T> entry) {
+            if (entry.expiration < currentTime + tickMs) {
+                return false;
+            }
+            if (entry.expiration >= currentTime + interval) {
+                if (overflow == null) {
+                    overflow = new Level(interval, currentTime);
+                }
+                return overflow.add(entry);
+            }
+            long virtualId = entry.expiration / tickMs;
+            Bucket<T> bucket = buckets.get((int) (virtualId % wheelSize));
+            bucket.entries.add(entry);
+            long bucketExpiration = virtualId * tickMs;
+            if (bucket.expiration != bucketExpiration) {
+                // Una casilla solo cambia de vencimiento después de vaciarse: entra una vez en la cola
+                bucket.expiration = bucketExpiration;
+                queue.add(bucket);
+            }
+            return true;
+        }
+
+        private void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - timeMs % tickMs;
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    private final int wheelSize;
+    private final PriorityQueue<Bucket<T>> queue = new PriorityQueue<>(Comparator.comparingLong(b -> b.expiration));
+    private final Level root;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs < 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("La rueda necesita un tick positivo y al menos dos casillas");
+        }
+        this.wheelSize = wheelSize;
+        this.root = new Level(tickMs, startMs);
+    }
+
+    /**
+     * Programa {@code value} para {@code expirationMs}. Devuelve null si ya ha vencido: no se
+     * guarda y quien llama decide qué hacer con él.
+     */
+    public Entry<T> schedule(long expirationMs, T value) {
+        Entry<T> entry = new Entry<>(expirationMs, value);
+        if (!root.add(entry)) {
+            return null;
+        }
+        size++;
+        return entry;
+    }
+
+    /**
+     * Anula la entrada. Se queda en su casilla hasta que esta vence y entonces se descarta.
+     */
+    public boolean cancel(Entry<T> entry) {
+        if (entry == null || entry.done) {
+            return false;
+        }
+        entry.done = true;
+        size--;
+        return true;
+    }
+
+    /**
+     * Avanza el reloj hasta {@code nowMs} y devuelve las entradas vencidas, en orden de vencimiento
+     * de sus casillas.
+     */
+    public List<Entry<T>> advance(long nowMs) {
+        List<Entry<T>> expired = new ArrayList<>();
+        Bucket<T> bucket;
+        while ((bucket = queue.peek()) != null && bucket.expiration <= nowMs) {
+            queue.poll();
+            root.advanceClock(bucket.expiration);
+            for (Entry<T> entry : bucket.flush()) {
+                if (!entry.done && !root.add(entry)) {
+                    entry.done = true;
+                    size--;
+                    expired.add(entry);
+                }
+            }
+        }
+        // Las casillas pendientes vencen después de nowMs: adelantar el reloj no salta ninguna
+        root.advanceClock(nowMs);
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,19 @@
+package com.todus.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "todus.reminders.sink", havingValue = "log", matchIfMissing = true)
+public class LogReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LogReminderSink.class);
+
+    @Override
+    public void send(Reminder reminder) {
+        log.info("Tarea {} del usuario {} vence ahora ({}): {}", reminder.taskId(), reminder.userId(),
+                reminder.dueDate(), reminder.taskName());
+    }
+}
@@ -0,0 +1,8 @@
+package com.todus.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aviso de que una tarea pendiente llega a su fecha límite.
+ */
+public record Reminder(Long taskId, Long userId, String taskName, LocalDateTime dueDate) {}
@@ -0,0 +1,374 @@
+package com.todus.reminder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.todus.task.TaskChangedEvent;
+import com.todus.task.TaskRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Avisa cuando una tarea pendiente llega a su fecha límite. Mantiene en memoria, en una
+ * {@link HierarchicalTimingWheel}, solo las tareas que vencen dentro de la ventana
+ * {@code window-minutes}; la ventana se amplía por lotes a medida que avanza el tiempo y
+ * cada cambio de una tarea (crearla, editarla, completarla...) vuelve a leer esa tarea.
+ *
+ * Antes de avisar se comprueba en la base de datos que la tarea sigue pendiente y con la
+ * misma fecha, lo que cubre los borrados y las purgas, que no dicen qué tareas tocaron.
+ * Cada instancia avisa de todas las tareas: con varias, actívalo solo en una.
+ *
+ * El tick corre en un hilo propio y no con @Scheduled: el planificador de Spring lo
+ * compartiría con las purgas y el reindexado, que lo ocupan minutos seguidos.
+ */
+@Component
+@ConditionalOnProperty(name = "todus.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    private static final int WHEEL_SIZE = 60;
+
+    private final TaskRepository taskRepository;
+    private final ReminderSink sink;
+    private final long tickMs;
+    private final Duration window;
+    private final int batchSize;
+
+    private final Counter sent;
+    private final Counter skipped;
+    private final Counter failed;
+
+    // Rueda, entradas por tarea y límites de la ventana: todo bajo este bloqueo, que solo se
+    // toma para tocar la rueda. Las consultas se hacen sin él y al volver se descartan los
+    // datos que otra lectura posterior ya ha sustituido
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, HierarchicalTimingWheel.Entry<Reminder>> byTask = new HashMap<>();
+    private HierarchicalTimingWheel<Reminder> wheel;
+    // Hasta dónde está cargada la ventana y hasta dónde se está cargando
+    private LocalDateTime loadedUntil;
+    private LocalDateTime loadingUntil;
+    // Lecturas de reload en curso: tarea -> número de la última. Solo aplica la más reciente
+    private final Map<Long, Long> reading = new HashMap<>();
+    private long readSequence;
+    // Tareas recargadas mientras se lee un lote de la ventana: el lote no las pisa
+    private Set<Long> reloadedDuringBatch;
+
+    private ScheduledExecutorService ticker;
+
+    public ReminderScheduler(TaskRepository taskRepository,
+                             ReminderSink sink,
+                             MeterRegistry meterRegistry,
+                             @Value("${todus.reminders.tick-ms:1000}") long tickMs,
+                             @Value("${todus.reminders.window-minutes:120}") long windowMinutes,
+                             @Value("${todus.reminders.batch-size:1000}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.sink = sink;
+        this.tickMs = tickMs;
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.batchSize = batchSize;
+        this.sent = Counter.builder("todus.reminders.sent").register(meterRegistry);
+        this.skipped = Counter.builder("todus.reminders.skipped").register(meterRegistry);
+        this.failed = Counter.builder("todus.reminders.failed").register(meterRegistry);
+        Gauge.builder("todus.reminders.pending", this, ReminderScheduler::pending).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("todus-reminders").daemon(true).factory());
+        ticker.scheduleWithFixedDelay(this::run, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            tick(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría los ticks siguientes
+            log.warn("Fallo al procesar los recordatorios: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Amplía la ventana si ya ha pasado la mitad y envía los avisos vencidos. Devuelve cuántos se enviaron.
+     */
+    public int tick(LocalDateTime now) {
+        List<Reminder> due = new ArrayList<>(slideWindow(now));
+        lock.lock();
+        try {
+            for (HierarchicalTimingWheel.Entry<Reminder> entry : wheel.advance(millis(now))) {
+                byTask.remove(entry.getValue().taskId(), entry);
+                due.add(entry.getValue());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return send(due);
+    }
+
+    /**
+     * Dentro de la transacción del cambio solo se anotan las tareas. Tras el commit se recargan
+     * todas juntas en el hilo del tick, sin ocupar el de la petición; si el cambio se deshace
+     * no hay nada que reprogramar.
+     */
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.taskIds().isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadLater(event.taskIds());
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<Long> taskIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, taskIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadLater(List.copyOf(taskIds));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReminderScheduler.this);
+                }
+            });
+            changed = taskIds;
+        }
+        changed.addAll(event.taskIds());
+    }
+
+    private void reloadLater(Collection<Long> taskIds) {
+        Runnable work = () -> {
+            try {
+                send(reload(taskIds, LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron reprogramar los recordatorios de {}: {}", taskIds, e.getMessage(), e);
+            }
+        };
+        if (ticker == null) {
+            // Sin hilo propio (antes de arrancar o en tests)
+            work.run();
+            return;
+        }
+        try {
+            ticker.execute(work);
+        } catch (RejectedExecutionException e) {
+            // Parando la aplicación
+            log.debug("Recordatorios sin reprogramar al parar: {}", taskIds);
+        }
+    }
+
+    /**
+     * Vuelve a programar las tareas indicadas según su estado actual. Devuelve las que ya han
+     * vencido y hay que avisar.
+     */
+    public List<Reminder> reload(Collection<Long> taskIds, LocalDateTime now) {
+        List<Reminder> due = new ArrayList<>();
+        long read;
+        lock.lock();
+        try {
+            if (wheel == null) {
+                // Aún no se ha cargado la ventana: el primer tick las leerá
+                return due;
+            }
+            read = ++readSequence;
+            for (Long taskId : taskIds) {
+                reading.put(taskId, read);
+            }
+            if (reloadedDuringBatch != null) {
+                reloadedDuringBatch.addAll(taskIds);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Map<Long, Reminder> current = Map.of();
+        boolean loaded = false;
+        try {
+            current = taskRepository.findPendingReminders(taskIds).stream()
+                    .collect(Collectors.toMap(Reminder::taskId, Function.identity()));
+            loaded = true;
+        } finally {
+            lock.lock();
+            try {
+                for (Long taskId : taskIds) {
+                    // Si otra lectura empezó después, sus datos son más recientes
+                    if (reading.remove(taskId, read) && loaded) {
+                        wheel.cancel(byTask.remove(taskId));
+                        Reminder reminder = current.get(taskId);
+                        if (reminder != null && !reminder.dueDate().isBefore(now)
+                                && reminder.dueDate().isBefore(loadingUntil)) {
+                            schedule(reminder, due);
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Carga, por lotes, las tareas que vencen entre el final de la ventana y {@code now + window}.
+     * Cada lote se lee sin el bloqueo; al programarlo se saltan las tareas que un
+     * {@link #reload} ha vuelto a leer mientras tanto, para no pisarlas con datos anteriores.
+     */
+    private List<Reminder> slideWindow(LocalDateTime now) {
+        List<Reminder> due = new ArrayList<>();
+        LocalDateTime to = now.plus(window);
+        LocalDateTime afterDue;
+        lock.lock();
+        try {
+            if (wheel == null) {
+                wheel = new HierarchicalTimingWheel<>(tickMs, WHEEL_SIZE, millis(now));
+                loadedUntil = now;
+            }
+            if (loadedUntil.isAfter(now.plus(window.dividedBy(2)))) {
+                return due;
+            }
+            afterDue = loadedUntil;
+            loadingUntil = to;
+        } finally {
+            lock.unlock();
+        }
+
+        Long afterId = -1L;
+        int loaded = 0;
+        while (true) {
+            lock.lock();
+            try {
+                reloadedDuringBatch = new HashSet<>();
+            } finally {
+                lock.unlock();
+            }
+            List<Reminder> batch = List.of();
+            try {
+                batch = taskRepository.findRemindersAfter(afterDue, afterId, to, PageRequest.of(0, batchSize));
+            } finally {
+                lock.lock();
+                try {
+                    for (Reminder reminder : batch) {
+                        if (!reloadedDuringBatch.contains(reminder.taskId())) {
+                            wheel.cancel(byTask.remove(reminder.taskId()));
+                            schedule(reminder, due);
+                        }
+                    }
+                    reloadedDuringBatch = null;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            loaded += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+            Reminder last = batch.get(batch.size() - 1);
+            afterDue = last.dueDate();
+            afterId = last.taskId();
+        }
+        lock.lock();
+        try {
+            loadedUntil = to;
+        } finally {
+            lock.unlock();
+        }
+        if (loaded > 0) {
+            log.debug("Recordatorios cargados hasta {}: {}", to, loaded);
+        }
+        return due;
+    }
+
+    private void schedule(Reminder reminder, List<Reminder> due) {
+        HierarchicalTimingWheel.Entry<Reminder> entry = wheel.schedule(millis(reminder.dueDate()), reminder);
+        if (entry == null) {
+            // Vence en el tick actual (o se cargó con retraso)
+            due.add(reminder);
+        } else {
+            byTask.put(reminder.taskId(), entry);
+        }
+    }
+
+    /**
+     * Envía los avisos de las tareas que siguen pendientes con la misma fecha.
+     */
+    private int send(List<Reminder> due) {
+        if (due.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Reminder> current = taskRepository.findPendingReminders(due.stream().map(Reminder::taskId).toList())
+                .stream().collect(Collectors.toMap(Reminder::taskId, Function.identity()));
+        int count = 0;
+        for (Reminder reminder : due) {
+            Reminder now = current.get(reminder.taskId());
+            if (now == null || !now.dueDate().equals(reminder.dueDate())) {
+                skipped.increment();
+                continue;
+            }
+            try {
+                sink.send(now);
+                sent.increment();
+                count++;
+            } catch (RuntimeException e) {
+                // Un destino que falla no bloquea el resto de avisos
+                failed.increment();
+                log.warn("No se pudo enviar el recordatorio de la tarea {}: {}", now.taskId(), e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    public int pending() {
+        lock.lock();
+        try {
+            return wheel != null ? wheel.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Solo se comparan fechas entre sí, así que basta con tomarlas como UTC
+    private static long millis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,13 @@
+package com.todus.reminder;
+
+/**
+ * Destino de los avisos (notificaciones push, correo, ...). Se elige con
+ * {@code todus.reminders.sink}; por defecto solo se escriben en el log.
+ *
+ * Se llama desde el hilo del planificador, fuera de cualquier transacción: si el envío es
+ * lento debe hacerlo en segundo plano.
+ */
+public interface ReminderSink {
+
+    void send(Reminder reminder);
+}
@@ -0,0 +1,121 @@
+package com.todus.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reparte el texto de las tareas en términos de búsqueda: minúsculas, sin tildes ni diéresis
+ * y sin las palabras vacías más comunes del español.
+ */
+public final class SearchTerms {
+
+    public static final int MIN_LENGTH = 2;
+    public static final int MAX_LENGTH = 40;
+    public static final int MAX_QUERY_TERMS = 8;
+    // Las descripciones pueden ser largas: se guardan los términos con más peso
+    static final int MAX_TERMS_PER_TASK = 300;
+
+    // Peso de cada aparición según dónde esté
+    static final int NAME_WEIGHT = 5;
+    static final int SUBTASK_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Letras que NFKD no descompone en una base y un diacrítico
+    private static final Map<Character, String> FOLDED = Map.ofEntries(
+            Map.entry('ß', "ss"), Map.entry('æ', "ae"), Map.entry('œ', "oe"), Map.entry('ø', "o"),
+            Map.entry('đ', "d"), Map.entry('ð', "d"), Map.entry('þ', "th"), Map.entry('ł', "l"),
+            Map.entry('ħ', "h"), Map.entry('ı', "i"), Map.entry('ŧ', "t"));
+    private static final Set<String> STOPWORDS = Set.of(
+            "al", "como", "con", "de", "del", "el", "en", "es", "la", "las", "le", "lo", "los", "mas", "me",
+            "mi", "no", "para", "pero", "por", "que", "se", "si", "sin", "son", "su", "sus", "un", "una",
+            "uno", "unos", "unas", "ya", "yo");
+
+    private SearchTerms() {}
+
+    /**
+     * "Canción", "CANCION" y "cancion" quedan iguales (la ñ queda como n). NFKD separa
+     * además ligaduras y formas de ancho completo ("ﬁ" → "fi"), y las letras que no se
+     * descomponen se sustituyen a mano ("straße" → "strasse", "æ" → "ae"): el término se
+     * guarda con collation binaria y dos escrituras de la misma palabra no deben diferir.
+     */
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFKD);
+        // Hay formas de compatibilidad que se descomponen en mayúsculas ("ℌ" → "H")
+        String stripped = MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        StringBuilder folded = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            folded.append(FOLDED.getOrDefault(c, String.valueOf(c)));
+        }
+        return folded.toString();
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (token.length() >= MIN_LENGTH) {
+                tokens.add(token.length() > MAX_LENGTH ? token.substring(0, MAX_LENGTH) : token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Términos de una tarea con su peso: la suma de sus apariciones en el nombre, las
+     * subtareas y la descripción.
+     */
+    public static Map<String, Integer> weigh(String name, String description, Collection<String> subTaskNames) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        add(weights, name, NAME_WEIGHT);
+        for (String subTaskName : subTaskNames) {
+            add(weights, subTaskName, SUBTASK_WEIGHT);
+        }
+        add(weights, description, DESCRIPTION_WEIGHT);
+        if (weights.size() <= MAX_TERMS_PER_TASK) {
+            return weights;
+        }
+        Map<String, Integer> top = new LinkedHashMap<>();
+        weights.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_TERMS_PER_TASK)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    private static void add(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokens(text)) {
+            if (!STOPWORDS.contains(token)) {
+                weights.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Términos de una búsqueda, cada uno como prefijo. El último se conserva aunque sea una
+     * palabra vacía: puede ser el principio de la palabra que se está escribiendo ("de" → "deporte").
+     */
+    public static List<String> query(String text) {
+        List<String> tokens = tokens(text);
+        Set<String> terms = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (i == tokens.size() - 1 || !STOPWORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms.stream().limit(MAX_QUERY_TERMS).toList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.todus.search;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.todus.user.AuthService;
+import com.todus.user.User;
+
+@RestController
+@RequestMapping("/api/tasks")
+public class TaskSearchController {
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @Autowired
+    private AuthService userService;
+
+    /**
+     * Ids de las tareas que coinciden con {@code q}, de más a menos relevante.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestHeader("Authorization") String token,
+                                    @RequestParam String q,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "20") int size) {
+        try {
+            User user = userService.getAuthenticatedUser(token);
+            return ResponseEntity.ok(taskSearchService.search(user, q, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
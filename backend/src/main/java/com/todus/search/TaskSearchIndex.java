@@ -0,0 +1,103 @@
+package com.todus.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Lectura y escritura de task_search_terms con JDBC: las filas de una tarea se sustituyen
+ * con un DELETE y un INSERT por lotes, y la búsqueda es una sola consulta agregada que
+ * recorre idx_task_search_terms_user_term por prefijo.
+ */
+@Repository
+public class TaskSearchIndex {
+
+    /**
+     * Términos de una tarea ya calculados con {@link SearchTerms#weigh}.
+     */
+    public record Document(Long taskId, Long userId, Map<String, Integer> terms) {}
+
+    public record Hit(Long taskId, long score) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public TaskSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void replace(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        remove(documents.stream().map(Document::taskId).toList());
+        List<Object[]> rows = new ArrayList<>();
+        for (Document document : documents) {
+            document.terms().forEach((term, weight) ->
+                    rows.add(new Object[] {document.taskId(), document.userId(), term, weight}));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO task_search_terms (task_id, user_id, term, weight) VALUES (?, ?, ?, ?)",
+                rows);
+    }
+
+    public int remove(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        return namedJdbcTemplate.update("DELETE FROM task_search_terms WHERE task_id IN (:ids)",
+                Map.of("ids", taskIds));
+    }
+
+    /**
+     * Filas de tareas que ya no existen (por ejemplo, borradas en cascada con su categoría).
+     */
+    public int removeOrphans() {
+        return jdbcTemplate.update("DELETE FROM task_search_terms WHERE NOT EXISTS "
+                + "(SELECT 1 FROM tasks t WHERE t.id = task_search_terms.task_id)");
+    }
+
+    /**
+     * Tareas del usuario fuera de la papelera que contienen todos los términos (como prefijo),
+     * de más a menos puntuación. Un término que coincide entero cuenta el doble.
+     */
+    public List<Hit> search(Long userId, List<String> terms, int offset, int limit) {
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT s.task_id, SUM(CASE WHEN s.term IN (");
+        sql.append(placeholders(terms.size())).append(") THEN 2 * s.weight ELSE s.weight END) AS score ");
+        args.addAll(terms);
+        sql.append("FROM task_search_terms s JOIN tasks t ON t.id = s.task_id ")
+           .append("WHERE s.user_id = ? AND t.trashed = false AND (");
+        args.add(userId);
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(i == 0 ? "" : " OR ").append("s.term LIKE ?");
+            args.add(terms.get(i) + "%");
+        }
+        sql.append(") GROUP BY s.task_id ");
+        if (terms.size() > 1) {
+            // Cada término tiene que aparecer en la tarea
+            sql.append("HAVING ");
+            for (int i = 0; i < terms.size(); i++) {
+                sql.append(i == 0 ? "" : " AND ").append("MAX(CASE WHEN s.term LIKE ? THEN 1 ELSE 0 END) = 1");
+                args.add(terms.get(i) + "%");
+            }
+        }
+        sql.append(" ORDER BY score DESC, s.task_id DESC LIMIT ? OFFSET ?");
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> new Hit(rs.getLong(1), rs.getLong(2)), args.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.todus.search;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.todus.task.TaskRepository;
+import com.todus.util.Throttle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Reconstruye el índice de búsqueda recorriendo todas las tareas por id, un lote por
+ * transacción y con una pausa entre lotes, y borra las filas de tareas que ya no existen.
+ * Rellena el índice la primera vez y corrige lo que se haya podido escapar a los eventos
+ * (cambios hechos directamente en la base de datos, tareas borradas en cascada).
+ */
+@Component
+@ConditionalOnProperty(name = "todus.search.reindex.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskSearchReindexJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchReindexJob.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskSearchService taskSearchService;
+    private final TaskSearchIndex searchIndex;
+
+    private final int batchSize;
+    private final Duration pause;
+
+    private final Counter reindexed;
+    private final Counter orphans;
+    private final Timer runTimer;
+
+    public TaskSearchReindexJob(TaskRepository taskRepository,
+                                TaskSearchService taskSearchService,
+                                TaskSearchIndex searchIndex,
+                                MeterRegistry meterRegistry,
+                                @Value("${todus.search.reindex.batch-size:500}") int batchSize,
+                                @Value("${todus.search.reindex.pause-ms:50}") long pauseMs) {
+        this.taskRepository = taskRepository;
+        this.taskSearchService = taskSearchService;
+        this.searchIndex = searchIndex;
+        this.batchSize = batchSize;
+        this.pause = Duration.ofMillis(pauseMs);
+        this.reindexed = Counter.builder("todus.search.reindex.tasks").register(meterRegistry);
+        this.orphans = Counter.builder("todus.search.reindex.orphans").register(meterRegistry);
+        this.runTimer = Timer.builder("todus.search.reindex.run").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${todus.search.reindex.interval-ms:86400000}",
+               initialDelayString = "${todus.search.reindex.initial-delay-ms:60000}")
+    public void run() {
+        int tasks = runTimer.record(this::reindexAll);
+        log.info("Índice de búsqueda reconstruido: {} tareas", tasks);
+    }
+
+    /**
+     * Pasada completa. Devuelve cuántas tareas se han indexado.
+     */
+    public int reindexAll() {
+        int total = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> ids = taskRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            if (total > 0 && !Throttle.pause(pause)) {
+                break;
+            }
+            total += taskSearchService.reindex(ids);
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        reindexed.increment(total);
+        orphans.increment(searchIndex.removeOrphans());
+        return total;
+    }
+}
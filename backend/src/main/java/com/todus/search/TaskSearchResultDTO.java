@@ -0,0 +1,9 @@
+package com.todus.search;
+
+import java.util.List;
+
+/**
+ * Página de resultados de búsqueda, de más a menos relevante. Solo trae los ids (y su
+ * puntuación): el cliente ya tiene las tareas o las pide por id.
+ */
+public record TaskSearchResultDTO(List<TaskSearchIndex.Hit> hits, int page, int size, boolean hasMore) {}
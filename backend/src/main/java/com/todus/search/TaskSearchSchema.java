@@ -0,0 +1,49 @@
+package com.todus.search;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Deja la columna task_search_terms.term con collation binaria en MySQL. Con la de por
+ * defecto (utf8mb4_0900_ai_ci) términos distintos como "strasse" y "straße" cuentan como la
+ * misma clave y el INSERT del índice falla. ddl-auto=update no cambia columnas que ya
+ * existen, así que se comprueba al arrancar; en otras bases de datos no hace nada.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TaskSearchSchema {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchSchema.class);
+
+    static final String COLLATION = "utf8mb4_bin";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignCollation() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return;
+        }
+        List<String> current = jdbcTemplate.queryForList("SELECT COLLATION_NAME FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'task_search_terms' AND COLUMN_NAME = 'term'",
+                String.class);
+        if (current.isEmpty() || COLLATION.equalsIgnoreCase(current.get(0))) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE task_search_terms MODIFY term VARCHAR(" + SearchTerms.MAX_LENGTH
+                + ") CHARACTER SET utf8mb4 COLLATE " + COLLATION + " NOT NULL");
+        log.info("Collation de task_search_terms.term cambiada de {} a {}", current.get(0), COLLATION);
+    }
+}
@@ -0,0 +1,119 @@
+package com.todus.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import com.todus.subTask.SubTaskRepository;
+import com.todus.task.TaskChangedEvent;
+import com.todus.task.TaskRepository;
+import com.todus.user.User;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Búsqueda de tareas por nombre, descripción y nombre de sus subtareas. El índice se
+ * actualiza en su propia transacción en cuanto se confirma el cambio: un fallo al indexar
+ * no deshace el cambio de la tarea, y lo que quede sin indexar lo corrige
+ * {@link TaskSearchReindexJob}.
+ */
+@Service
+public class TaskSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchService.class);
+
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_QUERY_LENGTH = 100;
+
+    // Cambios que alteran el texto indexado (la papelera se filtra al buscar; categoría y
+    // prioridad no se indexan)
+    private static final Set<TaskChangedEvent.Change> TEXT_CHANGES = EnumSet.of(
+            TaskChangedEvent.Change.CREATED, TaskChangedEvent.Change.UPDATED, TaskChangedEvent.Change.SUBTASKS);
+
+    @Autowired
+    private TaskSearchIndex searchIndex;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private SubTaskRepository subTaskRepository;
+
+    // Se publica dentro de la transacción del cambio, tanto desde TaskService como desde SubTaskService
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.taskIds().isEmpty() || !TEXT_CHANGES.contains(event.change())) {
+            return;
+        }
+        try {
+            reindex(event.taskIds());
+        } catch (RuntimeException e) {
+            // Sin relanzar: el cambio ya está confirmado y quien lo hizo no debe recibir el error
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.warn("No se han podido indexar las tareas {}: {}", event.taskIds(), e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve a calcular los términos de las tareas indicadas. Las consultas son JPQL para que
+     * Hibernate vuelque antes los cambios aún pendientes si se llama dentro de otra transacción.
+     */
+    @Transactional
+    public int reindex(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<String>> subTaskNames = new HashMap<>();
+        for (Object[] row : subTaskRepository.findNamesByTaskIdIn(taskIds)) {
+            subTaskNames.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        List<TaskSearchIndex.Document> documents = new ArrayList<>();
+        for (Object[] row : taskRepository.findSearchTextByIdIn(taskIds)) {
+            Long taskId = (Long) row[0];
+            documents.add(new TaskSearchIndex.Document(taskId, (Long) row[1],
+                    SearchTerms.weigh((String) row[2], (String) row[3], subTaskNames.getOrDefault(taskId, List.of()))));
+        }
+        searchIndex.replace(documents);
+        return documents.size();
+    }
+
+    /**
+     * Tareas del usuario, fuera de la papelera, que contienen todas las palabras de {@code q}
+     * (como principio de palabra, sin distinguir mayúsculas ni tildes).
+     */
+    public TaskSearchResultDTO search(User user, String q, int page, int size) {
+        if (q == null || q.isBlank()) {
+            throw new IllegalArgumentException("Indica qué quieres buscar");
+        }
+        if (q.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("La búsqueda no puede superar " + MAX_QUERY_LENGTH + " caracteres");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("La página no puede ser negativa");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+
+        List<String> terms = SearchTerms.query(q);
+        if (terms.isEmpty()) {
+            return new TaskSearchResultDTO(List.of(), page, size, false);
+        }
+        // Uno más para saber si hay otra página
+        List<TaskSearchIndex.Hit> hits = searchIndex.search(user.getId(), terms, page * size, size + 1);
+        boolean hasMore = hits.size() > size;
+        return new TaskSearchResultDTO(hasMore ? hits.subList(0, size) : hits, page, size, hasMore);
+    }
+}
@@ -0,0 +1,45 @@
+package com.todus.search;
+
+import java.io.Serializable;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Índice invertido de búsqueda: una fila por término de cada tarea. Lo mantiene
+ * {@link TaskSearchIndex} con SQL directo; la entidad solo define la tabla.
+ */
+@Entity
+@Getter
+@Setter
+@IdClass(TaskSearchTerm.Key.class)
+@Table(name = "task_search_terms", indexes = {
+    @Index(name = "idx_task_search_terms_user_term", columnList = "user_id, term")
+})
+public class TaskSearchTerm {
+
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    // Ya normalizado con SearchTerms.normalize; en MySQL con collation binaria (ver TaskSearchSchema)
+    @Id
+    @Column(length = SearchTerms.MAX_LENGTH)
+    private String term;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int weight;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long taskId;
+        private String term;
+    }
+}
@@ -0,0 +1,121 @@
+package com.todus.stats;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todus.stats.dto.StatsDTO;
+import com.todus.task.TaskChangedEvent;
+import com.todus.util.ExpiringLruCache;
+
+/**
+ * Caché de estadísticas por usuario con su ETag. Se invalida al confirmarse cualquier
+ * cambio de tareas o subtareas del usuario; el TTL acota lo que depende de la hora
+ * (tareas vencidas, día actual del histograma).
+ */
+@Component
+public class StatsCache {
+
+    public record CachedStats(StatsDTO stats, String etag) {}
+
+    private final ExpiringLruCache<Long, CachedStats> cache;
+    private final Duration ttl;
+    // Solo para calcular el ETag: basta con que serialice siempre igual, y así la caché no
+    // depende del ObjectMapper de la capa web
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+
+    // Cada invalidación toma un número creciente y se apunta por usuario, para descartar los
+    // cálculos que empezaron antes. Se guardan como mucho max-size usuarios: al olvidar el
+    // más antiguo, su número pasa a "floor" y los cálculos anteriores a él no se guardan.
+    // Comprobar y guardar va bajo el mismo bloqueo que invalidar.
+    private final Object lock = new Object();
+    private final LinkedHashMap<Long, Long> invalidatedAt;
+    private long stamp;
+    private long floor;
+
+    public StatsCache(@Value("${todus.stats.cache.max-size:1000}") int maxSize,
+                      @Value("${todus.stats.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new ExpiringLruCache<>(maxSize);
+        this.invalidatedAt = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                floor = Math.max(floor, eldest.getValue());
+                return true;
+            }
+        };
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public CachedStats get(Long userId) {
+        return cache.get(userId);
+    }
+
+    /**
+     * Devuelve las estadísticas en caché o las calcula y las guarda. Si el usuario cambia
+     * algo mientras se calculan, el resultado se devuelve pero no se guarda.
+     */
+    public CachedStats getOrCompute(Long userId, Supplier<StatsDTO> loader) {
+        CachedStats cached = cache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long startedAt;
+        synchronized (lock) {
+            startedAt = stamp;
+        }
+        StatsDTO stats = loader.get();
+        cached = new CachedStats(stats, etagOf(stats));
+        synchronized (lock) {
+            Long invalidated = invalidatedAt.get(userId);
+            if (floor <= startedAt && (invalidated == null || invalidated <= startedAt)) {
+                cache.put(userId, cached, cache.getClock().instant().plus(ttl));
+            }
+        }
+        return cached;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (lock) {
+            stamp++;
+            // Se reinserta para que el orden siga siendo el de los números
+            invalidatedAt.remove(userId);
+            invalidatedAt.put(userId, stamp);
+            cache.invalidate(userId);
+        }
+    }
+
+    int trackedInvalidations() {
+        synchronized (lock) {
+            return invalidatedAt.size();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    private String etagOf(StatsDTO stats) {
+        try {
+            byte[] json = JSON.writeValueAsString(stats).getBytes(StandardCharsets.UTF_8);
+            return "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudieron serializar las estadísticas", e);
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.todus.stats;
 
 import com.todus.stats.dto.StatsDTO;
+import com.todus.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/users/stats")
@@ -14,9 +16,17 @@ public class StatsController {
     @Autowired
     private StatsService statsService;
 
+    @Autowired
+    private StatsCache statsCache;
+
     @GetMapping
-    public ResponseEntity<StatsDTO> getUserStats(@AuthenticationPrincipal(expression="nickname") String nickname) {
-        StatsDTO stats = statsService.getStatsForUser(nickname);
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<StatsDTO> getUserStats(@AuthenticationPrincipal User user, WebRequest request) {
+        StatsCache.CachedStats cached = statsCache.getOrCompute(user.getId(),
+            () -> statsService.getStatsForUser(user.getNickname()));
+        // Si coincide con If-None-Match se responde 304 sin cuerpo
+        if (request.checkNotModified(cached.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(cached.etag()).body(cached.stats());
     }
 }
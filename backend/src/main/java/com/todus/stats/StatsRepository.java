@@ -0,0 +1,41 @@
+package com.todus.stats;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.todus.enums.Status;
+import com.todus.task.Task;
+
+/**
+ * Consultas de estadísticas sobre las tablas de tareas. El panel lee los acumulados
+ * de user_stats/user_daily_stats; estas consultas sirven para lo que depende de la
+ * hora actual y para reconstruir los acumulados.
+ */
+@Repository
+public interface StatsRepository extends org.springframework.data.repository.Repository<Task, Long> {
+
+    /**
+     * Se resuelve solo con idx_tasks_user_trashed_status_due, sin leer las filas.
+     */
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.user.id = :userId AND t.trashed = false "
+            + "AND t.status IN :statuses AND t.dueDate < :now")
+    long countOverdue(@Param("userId") Long userId, @Param("statuses") Collection<Status> statuses,
+                      @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.todus.stats.TaskStatsSnapshot(t.user.id, c.id, p.id, t.status, t.trashed, "
+            + "t.rescheduled, t.dateCreated, t.completedAt, 0L, 0L) "
+            + "FROM Task t LEFT JOIN t.category c JOIN t.priority p WHERE t.user.id = :userId")
+    List<TaskStatsSnapshot> findSnapshotsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Una fila (total, completadas) con las subtareas del usuario.
+     */
+    @Query("SELECT COUNT(s), SUM(CASE WHEN s.status = com.todus.enums.Status.COMPLETED THEN 1 ELSE 0 END) "
+            + "FROM SubTask s WHERE s.task.user.id = :userId")
+    List<Object[]> countSubTasks(@Param("userId") Long userId);
+}
@@ -0,0 +1,52 @@
+package com.todus.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.todus.user.User;
+import com.todus.user.UserRepository;
+
+/**
+ * Reconstruye los acumulados de estadísticas al arrancar, para reparar desviaciones.
+ * Se activa con {@code --todus.stats.rebuild=true}; si además se indica
+ * {@code --todus.stats.rebuild-user=<id>} solo se reconstruye ese usuario (sin
+ * {@code rebuild=true} no hace nada).
+ */
+@Component
+@Order(2)
+@ConditionalOnProperty(name = "todus.stats.rebuild", havingValue = "true")
+public class StatsRollupRebuildRunner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsRollupRebuildRunner.class);
+
+    @Autowired
+    private StatsRollupService statsRollupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${todus.stats.rebuild-user:}")
+    private Long userId;
+
+    @Override
+    public void run(String... args) {
+        if (userId != null) {
+            statsRollupService.rebuild(userId);
+            log.info("Estadísticas reconstruidas para el usuario {}", userId);
+            return;
+        }
+        int count = 0;
+        for (User user : userRepository.findAll()) {
+            // Cada usuario en su propia transacción
+            statsRollupService.rebuild(user.getId());
+            count++;
+        }
+        log.info("Estadísticas reconstruidas para {} usuarios", count);
+    }
+}
@@ -0,0 +1,229 @@
+package com.todus.stats;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.todus.enums.Status;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Mantiene user_stats y user_daily_stats. Cada cambio de una tarea se aplica como
+ * "restar lo que aportaba antes y sumar lo que aporta ahora", dentro de la misma
+ * transacción que el cambio. La reconstrucción usa exactamente la misma suma.
+ */
+@Service
+public class StatsRollupService {
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private UserDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    private StatsRepository statsRepository;
+
+    /**
+     * Aplica el cambio de una tarea. {@code before} es null al crearla y {@code after} al borrarla.
+     */
+    @Transactional
+    public void apply(TaskStatsSnapshot before, TaskStatsSnapshot after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        Long userId = after != null ? after.userId() : before.userId();
+        applyAll(userId,
+                before != null ? List.of(before) : List.of(),
+                after != null ? List.of(after) : List.of());
+    }
+
+    /**
+     * Aplica de una vez los cambios de varias tareas de un mismo usuario
+     * (se bloquea su fila y se carga cada día afectado una sola vez).
+     */
+    @Transactional
+    public void applyAll(Long userId, List<TaskStatsSnapshot> before, List<TaskStatsSnapshot> after) {
+        if (before.isEmpty() && after.isEmpty()) {
+            return;
+        }
+        UserStats stats = lockOrCreate(userId);
+        if (stats == null) {
+            // Primer cambio del usuario desde que existen los acumulados: se calculan
+            // desde las tablas, que ya incluyen este cambio.
+            rebuild(userId);
+            return;
+        }
+
+        Map<LocalDate, UserDailyStats> days = new HashMap<>();
+        for (TaskStatsSnapshot task : before) {
+            add(stats, days, task, -1, true);
+        }
+        for (TaskStatsSnapshot task : after) {
+            add(stats, days, task, 1, true);
+        }
+        userStatsRepository.save(stats);
+        dailyStatsRepository.saveAll(days.values());
+    }
+
+    /**
+     * Aplica la creación, el borrado o el cambio de estado de subtareas de una tarea del usuario.
+     */
+    @Transactional
+    public void applySubTask(Long userId, long totalDelta, long completedDelta) {
+        if (userId == null || (totalDelta == 0 && completedDelta == 0)) {
+            return;
+        }
+        UserStats stats = lockOrCreate(userId);
+        if (stats == null) {
+            rebuild(userId);
+            return;
+        }
+        stats.setSubtaskTotal(stats.getSubtaskTotal() + totalDelta);
+        stats.setSubtaskCompleted(stats.getSubtaskCompleted() + completedDelta);
+        userStatsRepository.save(stats);
+    }
+
+    /**
+     * Bloquea y devuelve la fila del usuario. Si no existía la crea a cero con INSERT IGNORE
+     * (dos primeros cambios a la vez no chocan con la misma clave: el segundo espera al
+     * primero) y devuelve null si la ha creado esta transacción, que debe reconstruirla.
+     */
+    private UserStats lockOrCreate(Long userId) {
+        UserStats stats = userStatsRepository.findForUpdate(userId).orElse(null);
+        if (stats != null) {
+            return stats;
+        }
+        if (userStatsRepository.insertIfMissing(userId) > 0) {
+            return null;
+        }
+        // La creó otra transacción, que ya la ha confirmado reconstruida
+        return userStatsRepository.findForUpdate(userId).orElseThrow();
+    }
+
+    public static long completedDelta(Status before, Status after) {
+        return (after == Status.COMPLETED ? 1 : 0) - (before == Status.COMPLETED ? 1 : 0);
+    }
+
+    /**
+     * Devuelve los acumulados del usuario, reconstruyéndolos si todavía no existen.
+     */
+    @Transactional
+    public UserStats getOrRebuild(Long userId) {
+        return userStatsRepository.findById(userId).orElseGet(() -> rebuild(userId));
+    }
+
+    /**
+     * Recalcula desde cero los acumulados de un usuario a partir de tasks y subtasks.
+     */
+    @Transactional
+    public UserStats rebuild(Long userId) {
+        UserStats stats = lockOrCreate(userId);
+        if (stats == null) {
+            // Recién creada a cero por esta transacción
+            stats = userStatsRepository.findForUpdate(userId).orElseThrow();
+        }
+        stats.setActiveTasks(0);
+        stats.setActiveCompleted(0);
+        stats.setTrashedTasks(0);
+        stats.setRescheduledTasks(0);
+        stats.getCompletedByHour().clear();
+        stats.getTasksByCategory().clear();
+        stats.getTasksByPriority().clear();
+
+        // Se reutilizan las filas diarias que ya existían en vez de borrarlas en bloque: un DELETE
+        // masivo no toca las que esta transacción ya tenga cargadas y el guardado las reviviría
+        Map<LocalDate, UserDailyStats> days = new HashMap<>();
+        for (UserDailyStats day : dailyStatsRepository.findByUserId(userId)) {
+            day.setCreated(0);
+            day.setCompleted(0);
+            day.setCompletionSeconds(0);
+            days.put(day.getDay(), day);
+        }
+        for (TaskStatsSnapshot task : statsRepository.findSnapshotsByUserId(userId)) {
+            add(stats, days, task, 1, false);
+        }
+        List<UserDailyStats> empty = days.values().stream()
+                .filter(day -> day.getCreated() == 0 && day.getCompleted() == 0)
+                .toList();
+        dailyStatsRepository.deleteAll(empty);
+        days.values().removeAll(empty);
+
+        Object[] subTasks = statsRepository.countSubTasks(userId).get(0);
+        stats.setSubtaskTotal(subTasks[0] != null ? ((Number) subTasks[0]).longValue() : 0);
+        stats.setSubtaskCompleted(subTasks[1] != null ? ((Number) subTasks[1]).longValue() : 0);
+
+        dailyStatsRepository.saveAll(days.values());
+        return userStatsRepository.save(stats);
+    }
+
+    /**
+     * Suma (sign = 1) o resta (sign = -1) lo que aporta una tarea. Con {@code loadDays} a false
+     * los días no se buscan en la base de datos (reconstrucción, donde se acaban de borrar).
+     */
+    private void add(UserStats stats, Map<LocalDate, UserDailyStats> days, TaskStatsSnapshot task, int sign,
+                     boolean loadDays) {
+        if (task.isTrashed()) {
+            stats.setTrashedTasks(stats.getTrashedTasks() + sign);
+        } else {
+            stats.setActiveTasks(stats.getActiveTasks() + sign);
+            if (task.isCompleted()) {
+                stats.setActiveCompleted(stats.getActiveCompleted() + sign);
+            }
+        }
+        if (task.isRescheduled()) {
+            stats.setRescheduledTasks(stats.getRescheduledTasks() + sign);
+        }
+        if (task.categoryId() != null) {
+            increment(stats.getTasksByCategory(), task.categoryId(), sign);
+        }
+        if (task.priorityId() != null) {
+            increment(stats.getTasksByPriority(), task.priorityId(), sign);
+        }
+        if (task.subtaskTotal() != null) {
+            stats.setSubtaskTotal(stats.getSubtaskTotal() + sign * task.subtaskTotal());
+        }
+        if (task.subtaskCompleted() != null) {
+            stats.setSubtaskCompleted(stats.getSubtaskCompleted() + sign * task.subtaskCompleted());
+        }
+
+        if (task.dateCreated() != null) {
+            UserDailyStats day = day(days, stats.getUserId(), task.dateCreated().toLocalDate(), loadDays);
+            day.setCreated(day.getCreated() + sign);
+        }
+        if (task.isCompleted() && task.completedAt() != null) {
+            UserDailyStats day = day(days, stats.getUserId(), task.completedAt().toLocalDate(), loadDays);
+            day.setCompleted(day.getCompleted() + sign);
+            if (task.dateCreated() != null) {
+                long seconds = Duration.between(task.dateCreated(), task.completedAt()).getSeconds();
+                day.setCompletionSeconds(day.getCompletionSeconds() + sign * seconds);
+            }
+            increment(stats.getCompletedByHour(), task.completedAt().getHour(), sign);
+        }
+    }
+
+    private UserDailyStats day(Map<LocalDate, UserDailyStats> days, Long userId, LocalDate date, boolean load) {
+        return days.computeIfAbsent(date, d -> {
+            UserDailyStats existing = load
+                    ? dailyStatsRepository.findById(new UserDailyStats.Key(userId, d)).orElse(null)
+                    : null;
+            return existing != null ? existing : new UserDailyStats(userId, d);
+        });
+    }
+
+    private static <K> void increment(Map<K, Long> counts, K key, int sign) {
+        long value = counts.getOrDefault(key, 0L) + sign;
+        if (value == 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, value);
+        }
+    }
+}
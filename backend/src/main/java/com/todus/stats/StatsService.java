@@ -1,86 +1,117 @@
 package com.todus.stats;
 
+import com.todus.category.Category;
+import com.todus.category.CategoryRepository;
+import com.todus.enums.Status;
+import com.todus.priority.Priority;
+import com.todus.priority.PriorityRepository;
 import com.todus.stats.dto.*;
-import com.todus.subTask.SubTaskRepository;
-import com.todus.task.Task;
-import com.todus.task.TaskRepository;
 import com.todus.user.User;
 import com.todus.user.UserRepository;
-import com.todus.enums.Status;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.transaction.Transactional;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class StatsService {
     @Autowired
-    private TaskRepository taskRepo;
+    private StatsRepository statsRepo;
+
+    @Autowired
+    private StatsRollupService statsRollup;
 
     @Autowired
-    private SubTaskRepository subTaskRepo;
+    private UserDailyStatsRepository dailyStatsRepo;
+
+    @Autowired
+    private CategoryRepository categoryRepo;
+
+    @Autowired
+    private PriorityRepository priorityRepo;
 
     @Autowired
     private UserRepository userService;
 
+    /**
+     * Lee los acumulados de user_stats/user_daily_stats: el coste no depende del historial de tareas.
+     */
+    @Transactional
     public StatsDTO getStatsForUser(String nickname) {
         User user = userService.findByNickname(nickname).orElse(null);
         Long userId = user.getId();
 
-        long total = taskRepo.countByUserIdAndTrashedFalse(userId);
-        long completed = taskRepo.countByUserIdAndStatusAndTrashedFalse(userId, Status.COMPLETED);
-        long pending = taskRepo.countByUserIdAndStatusNotAndTrashedFalse(userId, Status.COMPLETED);
-        long rescheduledCount = taskRepo.countByUserIdAndRescheduledTrue(userId);
-        long overdueCount = taskRepo.countByUserIdAndDueDateBeforeAndStatusNotAndTrashedFalse(userId, LocalDateTime.now(), Status.COMPLETED);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate thirtyAgo = today.minusDays(30);
+        LocalDate startThis = today.withDayOfMonth(1);
+        LocalDate startLast = startThis.minusMonths(1);
+
+        UserStats stats = statsRollup.getOrRebuild(userId);
+        long total = stats.getActiveTasks();
+        long completed = stats.getActiveCompleted();
+        long pending = total - completed;
+        long rescheduledCount = stats.getRescheduledTasks();
+        long deleted = stats.getTrashedTasks();
+        // Depende de la hora actual, así que no se acumula
+        long overdueCount = statsRepo.countOverdue(userId, Status.NOT_COMPLETED, now);
 
         double rate = total > 0 ? Math.round((completed * 100.0 / total) * 10) / 10.0 : 0;
 
-        LocalDateTime thirtyAgo = LocalDateTime.now().minusDays(30);
-        List<Task> recent = taskRepo.findByUserIdAndStatusAndCompletedAtAfter(userId, Status.COMPLETED, thirtyAgo);
-        Map<LocalDate, Long> map = recent.stream()
-            .collect(Collectors.groupingBy(t -> t.getCompletedAt().toLocalDate(), Collectors.counting()));
+        Map<LocalDate, UserDailyStats> map = new HashMap<>();
+        LocalDate from = startLast.isBefore(thirtyAgo) ? startLast : thirtyAgo;
+        for (UserDailyStats day : dailyStatsRepo.findByUserIdAndDayBetween(userId, from, today)) {
+            map.put(day.getDay(), day);
+        }
+
         List<DailyCountDTO> byDay = new ArrayList<>();
+        long recentCompleted = 0;
+        long recentSeconds = 0;
         for (int i = 30; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            byDay.add(new DailyCountDTO(date, map.getOrDefault(date, 0L)));
+            LocalDate date = today.minusDays(i);
+            UserDailyStats day = map.get(date);
+            byDay.add(new DailyCountDTO(date, day != null ? day.getCompleted() : 0L));
+            if (day != null) {
+                recentCompleted += day.getCompleted();
+                recentSeconds += day.getCompletionSeconds();
+            }
         }
 
-        double avgHours = recent.stream()
-            .mapToDouble(t -> ChronoUnit.SECONDS.between(t.getDateCreated(), t.getCompletedAt()) / 3600.0)
-            .average().orElse(0);
+        double avgHours = recentCompleted > 0 ? recentSeconds / 3600.0 / recentCompleted : 0;
 
-        List<CategoryCountDTO> byCat = taskRepo.countGroupByCategory(userId).stream()
-            .map(o -> new CategoryCountDTO((String)o[0], (Long)o[1])).collect(Collectors.toList());
+        List<CategoryCountDTO> byCat = new ArrayList<>();
+        countByName(stats.getTasksByCategory(), categoryRepo.findAllById(stats.getTasksByCategory().keySet()),
+                Category::getId, Category::getName).forEach((name, count) -> byCat.add(new CategoryCountDTO(name, count)));
 
-        List<PriorityCountDTO> byPri = taskRepo.countGroupByPriority(userId).stream()
-            .map(o -> new PriorityCountDTO((String)o[0], (Long)o[1])).collect(Collectors.toList());
+        List<PriorityCountDTO> byPri = new ArrayList<>();
+        countByName(stats.getTasksByPriority(), priorityRepo.findAllById(stats.getTasksByPriority().keySet()),
+                Priority::getId, Priority::getName).forEach((name, count) -> byPri.add(new PriorityCountDTO(name, count)));
 
-        long deleted = taskRepo.countByUserIdAndTrashedTrue(userId);
         int streak = 0;
         for (int i = byDay.size()-1; i>=0; i--) {
             if (byDay.get(i).getCount() > 0) streak++; else break;
         }
 
-        LocalDate startThis = LocalDate.now().withDayOfMonth(1);
-        LocalDate startLast = startThis.minusMonths(1);
-        LocalDate endLast = startThis.minusDays(1);
-        long thisCount = taskRepo.countByUserIdAndDateCreatedBetween(userId, startThis.atStartOfDay(), LocalDateTime.now());
-        long lastCount = taskRepo.countByUserIdAndDateCreatedBetween(userId, startLast.atStartOfDay(), endLast.atTime(23,59,59));
+        long thisCount = 0;
+        long lastCount = 0;
+        for (UserDailyStats day : map.values()) {
+            if (!day.getDay().isBefore(startThis)) {
+                thisCount += day.getCreated();
+            } else if (!day.getDay().isBefore(startLast)) {
+                lastCount += day.getCreated();
+            }
+        }
 
-        long totalSub = subTaskRepo.countByTaskUserId(userId);
-        long subtaskCompletedCount = subTaskRepo.countByTaskUserIdAndStatus(userId, Status.COMPLETED);
+        long totalSub = stats.getSubtaskTotal();
+        long subtaskCompletedCount = stats.getSubtaskCompleted();
         double subtaskCompletionRate = totalSub>0 ? subtaskCompletedCount*100.0/totalSub : 0;
-        
-        List<Object[]> raw = taskRepo.countByCompletedHour(userId);
-        Map<Integer, Long> hourCounts = raw.stream()
-        .collect(Collectors.toMap(
-            row -> (Integer) row[0],
-            row -> (Long)    row[1]
-        ));
+
+        Map<Integer, Long> hourCounts = stats.getCompletedByHour();
 
         // Agrupa en franjas de 2h
         List<TimeSlotDTO> slots = new ArrayList<>();
@@ -95,5 +126,16 @@ public class StatsService {
         MonthComparisonDTO comp = new MonthComparisonDTO(thisCount, lastCount);
         return new StatsDTO(total, completed, pending, rate, byDay, avgHours, byCat, byPri, streak, comp, deleted, rescheduledCount, overdueCount, subtaskCompletionRate, totalSub, subtaskCompletedCount, slots);
     }
-}
 
+    /**
+     * Pasa los contadores por id a contadores por nombre, como se muestran en el panel.
+     */
+    private <T> Map<String, Long> countByName(Map<Long, Long> counts, List<T> entities,
+                                             Function<T, Long> id, Function<T, String> name) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (T entity : entities) {
+            result.merge(name.apply(entity), counts.getOrDefault(id.apply(entity), 0L), Long::sum);
+        }
+        return result;
+    }
+}
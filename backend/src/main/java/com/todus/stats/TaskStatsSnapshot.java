@@ -0,0 +1,52 @@
+package com.todus.stats;
+
+import java.time.LocalDateTime;
+
+import com.todus.enums.Status;
+import com.todus.task.Task;
+
+/**
+ * Lo que una tarea aporta a las estadísticas. Los servicios toman una foto antes
+ * y otra después de cada cambio y el rollup aplica la diferencia.
+ */
+public record TaskStatsSnapshot(
+        Long userId,
+        Long categoryId,
+        Long priorityId,
+        Status status,
+        Boolean trashed,
+        Boolean rescheduled,
+        LocalDateTime dateCreated,
+        LocalDateTime completedAt,
+        Long subtaskTotal,
+        Long subtaskCompleted) {
+
+    public static TaskStatsSnapshot of(Task task) {
+        // Contadores de la propia tarea: no hace falta cargar sus subtareas
+        long subtaskTotal = task.getSubtaskTotal() != null ? task.getSubtaskTotal() : 0;
+        long subtaskCompleted = task.getSubtaskCompleted() != null ? task.getSubtaskCompleted() : 0;
+        return new TaskStatsSnapshot(
+                task.getUser() != null ? task.getUser().getId() : null,
+                task.getCategory() != null ? task.getCategory().getId() : null,
+                task.getPriority() != null ? task.getPriority().getId() : null,
+                task.getStatus(),
+                task.getTrashed(),
+                task.getRescheduled(),
+                task.getDateCreated(),
+                task.getCompletedAt(),
+                subtaskTotal,
+                subtaskCompleted);
+    }
+
+    public boolean isTrashed() {
+        return Boolean.TRUE.equals(trashed);
+    }
+
+    public boolean isRescheduled() {
+        return Boolean.TRUE.equals(rescheduled);
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+}
@@ -0,0 +1,51 @@
+package com.todus.stats;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Acumulados diarios por usuario: tareas creadas y completadas ese día
+ * y la suma de sus tiempos de completado (para la media).
+ */
+@Entity
+@Getter
+@Setter
+@IdClass(UserDailyStats.Key.class)
+@Table(name = "user_daily_stats")
+public class UserDailyStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate day;
+
+    private long created;
+
+    private long completed;
+
+    private long completionSeconds;
+
+    public UserDailyStats() {
+    }
+
+    public UserDailyStats(Long userId, LocalDate day) {
+        this.userId = userId;
+        this.day = day;
+    }
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+    }
+}
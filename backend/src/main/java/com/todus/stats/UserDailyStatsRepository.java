@@ -0,0 +1,15 @@
+package com.todus.stats;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserDailyStatsRepository extends JpaRepository<UserDailyStats, UserDailyStats.Key> {
+
+    List<UserDailyStats> findByUserIdAndDayBetween(Long userId, LocalDate from, LocalDate to);
+
+    List<UserDailyStats> findByUserId(Long userId);
+}
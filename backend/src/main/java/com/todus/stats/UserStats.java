@@ -0,0 +1,61 @@
+package com.todus.stats;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Acumulados de estadísticas por usuario. Se mantienen de forma incremental
+ * desde los servicios de tareas y subtareas (ver {@link StatsRollupService}).
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Tareas fuera de la papelera
+    private long activeTasks;
+
+    private long activeCompleted;
+
+    private long trashedTasks;
+
+    private long rescheduledTasks;
+
+    private long subtaskTotal;
+
+    private long subtaskCompleted;
+
+    // Tareas completadas por hora del día (0-23)
+    @ElementCollection
+    @CollectionTable(name = "user_stats_hours", joinColumns = @JoinColumn(name = "user_id"))
+    @MapKeyColumn(name = "hour_of_day")
+    @Column(name = "total")
+    private Map<Integer, Long> completedByHour = new HashMap<>();
+
+    @ElementCollection
+    @CollectionTable(name = "user_stats_categories", joinColumns = @JoinColumn(name = "user_id"))
+    @MapKeyColumn(name = "category_id")
+    @Column(name = "total")
+    private Map<Long, Long> tasksByCategory = new HashMap<>();
+
+    @ElementCollection
+    @CollectionTable(name = "user_stats_priorities", joinColumns = @JoinColumn(name = "user_id"))
+    @MapKeyColumn(name = "priority_id")
+    @Column(name = "total")
+    private Map<Long, Long> tasksByPriority = new HashMap<>();
+
+    public UserStats() {
+    }
+
+    public UserStats(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.todus.stats;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Bloquea la fila para que dos cambios del mismo usuario no pisen sus incrementos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStats s WHERE s.userId = :userId")
+    Optional<UserStats> findForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Crea a cero la fila del usuario si no existe. Devuelve 1 si la ha creado esta transacción
+     * (y la tiene bloqueada hasta confirmar) y 0 si ya existía o la acaba de crear otra.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_stats (user_id, active_tasks, active_completed, trashed_tasks, "
+            + "rescheduled_tasks, subtask_total, subtask_completed) VALUES (:userId, 0, 0, 0, 0, 0, 0)",
+            nativeQuery = true)
+    int insertIfMissing(@Param("userId") Long userId);
+}
@@ -7,15 +7,27 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.todus.enums.Status;
 import javax.validation.constraints.NotNull;
 import com.todus.task.Task;
+import com.todus.util.IdGenerators;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Getter
 @Setter
-@Table(name = "subtasks")
+@Table(name = "subtasks", indexes = {
+    @Index(name = "idx_subtasks_task_position", columnList = "task_id, sort_order"),
+    @Index(name = "idx_subtasks_updated_at", columnList = "updated_at")
+})
 public class SubTask {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = IdGenerators.SUBTASKS)
+    @TableGenerator(name = IdGenerators.SUBTASKS, table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.SUBTASKS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -24,9 +36,23 @@ public class SubTask {
     @Enumerated(EnumType.STRING)
     private Status status;
 
-    @ManyToOne
+    // Orden dentro de la tarea
+    @Column(name = "sort_order", nullable = false)
+    @ColumnDefault("0")
+    private Integer position = 0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "task_id", referencedColumnName = "id")
     @NotNull
     @JsonBackReference
     private Task task;
+
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
@@ -2,11 +2,15 @@ package com.todus.subTask;
 
 import com.todus.task.Task;
 import com.todus.task.TaskService;
+import com.todus.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/subtasks")
@@ -19,9 +23,11 @@ public class SubTaskController {
     private TaskService taskService;
 
     @PostMapping("/create/{taskId}")
-    public ResponseEntity<?> createSubTask(@PathVariable Long taskId, @RequestBody SubTaskDTO subTaskRequest) {
+    public ResponseEntity<?> createSubTask(@RequestHeader("Authorization") String token, @PathVariable Long taskId,
+                                           @RequestBody SubTaskDTO subTaskRequest) {
         try {
-            Task task = taskService.getTaskById(taskId);
+            User user = taskService.getAuthenticatedUser(token);
+            Task task = taskService.getOwnedTask(user, taskId);
             SubTask subTask = subTaskService.createSubTask(subTaskRequest, task);
             return ResponseEntity.ok(subTask);
         } catch (Exception e) {
@@ -29,39 +35,69 @@ public class SubTaskController {
         }
     }
 
+    /**
+     * Crea, modifica y reordena en una petición las subtareas de una tarea.
+     */
+    @PutMapping("/task/{taskId}/bulk")
+    public ResponseEntity<?> saveSubTasks(@RequestHeader("Authorization") String token, @PathVariable Long taskId,
+                                          @RequestBody List<SubTaskDTO> subTasks) {
+        try {
+            User user = taskService.getAuthenticatedUser(token);
+            Task task = taskService.getOwnedTask(user, taskId);
+            return ResponseEntity.ok(subTaskService.saveAll(task, subTasks));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error al guardar las subtareas: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<?> deleteSubTask(@PathVariable Long id) {
+    public ResponseEntity<?> deleteSubTask(@RequestHeader("Authorization") String token, @PathVariable Long id) {
         try {
-            subTaskService.deleteSubTask(id);
+            User user = taskService.getAuthenticatedUser(token);
+            subTaskService.deleteSubTask(user.getId(), id);
             return ResponseEntity.ok("Subtarea eliminada exitosamente");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error al eliminar la subtarea: " + e.getMessage());
         }
     }
 
     @PutMapping("/update/{id}")
-    public ResponseEntity<?> updateSubTask(@PathVariable Long id, @RequestBody SubTaskDTO subTaskRequest) {
+    public ResponseEntity<?> updateSubTask(@RequestHeader("Authorization") String token, @PathVariable Long id,
+                                           @RequestBody SubTaskDTO subTaskRequest) {
         try {
-            SubTask updatedSubTask = subTaskService.updateSubTask(id, subTaskRequest);
+            User user = taskService.getAuthenticatedUser(token);
+            SubTask updatedSubTask = subTaskService.updateSubTask(user.getId(), id, subTaskRequest);
             return ResponseEntity.ok(updatedSubTask);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error al actualizar la subtarea: " + e.getMessage());
         }
     }
 
     @PutMapping("/complete/{id}")
-    public ResponseEntity<?> completeSubTask(@PathVariable Long id) {
+    public ResponseEntity<?> completeSubTask(@RequestHeader("Authorization") String token, @PathVariable Long id,
+                                             @RequestParam(required = false) Long version) {
         try {
-            SubTask updatedSubTask = subTaskService.completeSubTask(id);
+            User user = taskService.getAuthenticatedUser(token);
+            SubTask updatedSubTask = subTaskService.completeSubTask(user.getId(), id, version);
             return ResponseEntity.ok(updatedSubTask);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error al marcar la subtarea como completada: " + e.getMessage());
         }
     }
 
     @GetMapping("/task/{taskId}")
-    public ResponseEntity<List<SubTask>> getSubTasksByTask(@PathVariable Long taskId) {
-        List<SubTask> subTasks = subTaskService.getSubTasksByTask(taskId);
+    public ResponseEntity<List<SubTask>> getSubTasksByTask(@RequestHeader("Authorization") String token,
+                                                           @PathVariable Long taskId) {
+        User user = taskService.getAuthenticatedUser(token);
+        List<SubTask> subTasks = subTaskService.getSubTasksByTask(user.getId(), taskId);
         return ResponseEntity.ok(subTasks);
     }
 }
@@ -0,0 +1,36 @@
+package com.todus.subTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Rellena al arrancar los contadores de subtareas de las tareas que ya tenían subtareas
+ * antes de existir Task.subtaskTotal/subtaskCompleted.
+ *
+ * Es una migración de una sola vez: recorre toda la tabla de tareas, así que solo se
+ * registra con {@code todus.subtasks.backfill-counters=true}, que se activa en el primer
+ * arranque tras actualizar y se vuelve a quitar.
+ */
+@Component
+@ConditionalOnProperty(name = "todus.subtasks.backfill-counters", havingValue = "true")
+public class SubTaskCounterBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(SubTaskCounterBackfill.class);
+
+    @Autowired
+    private SubTaskRepository subTaskRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int updated = subTaskRepository.backfillTaskCounters();
+        log.info("Contadores de subtareas calculados para {} tareas", updated);
+    }
+}
@@ -13,6 +13,9 @@ import lombok.Setter;
 @Getter
 @Setter
 public class SubTaskDTO {
+
+    // Solo en la edición en bloque: null para crear una subtarea nueva
+    private Long id;
     
     @NotNull
     private String name;
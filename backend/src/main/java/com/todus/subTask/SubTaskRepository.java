@@ -1,16 +1,99 @@
 package com.todus.subTask;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import com.todus.enums.Status;
+import com.todus.sync.SyncSubTaskDTO;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SubTaskRepository extends JpaRepository<SubTask, Long> {
     List<SubTask> findByTaskId(Long taskId);  // Método para obtener las subtareas de una tarea específica
 
-    long countByTaskUserId(Long userId);
-    long countByTaskUserIdAndStatus(Long userId, Status status);
+    List<SubTask> findByTaskIdOrderByPositionAscIdAsc(Long taskId);
+
+    @Query("SELECT COALESCE(MAX(s.position) + 1, 0) FROM SubTask s WHERE s.task.id = :taskId")
+    int nextPosition(@Param("taskId") Long taskId);
+
+    /**
+     * La subtarea si su tarea es del usuario; la tarea no se carga.
+     */
+    @Query("SELECT s FROM SubTask s WHERE s.id = :id AND s.task.user.id = :userId")
+    Optional<SubTask> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT s FROM SubTask s WHERE s.task.id = :taskId AND s.task.user.id = :userId ORDER BY s.position, s.id")
+    List<SubTask> findByTaskIdAndUserId(@Param("taskId") Long taskId, @Param("userId") Long userId);
+
+    String SUMMARY_SELECT = "SELECT new com.todus.subTask.SubTaskSummaryDTO(s.task.id, s.id, s.name, s.status) "
+            + "FROM SubTask s ";
+
+    @Query(SUMMARY_SELECT + "WHERE s.task.user.id = :userId ORDER BY s.position, s.id")
+    List<SubTaskSummaryDTO> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "WHERE s.task.user.id = :userId AND s.task.trashed = :trashed ORDER BY s.position, s.id")
+    List<SubTaskSummaryDTO> findSummariesByUserIdAndTaskTrashed(@Param("userId") Long userId,
+                                                                @Param("trashed") boolean trashed);
+
+    @Query(SUMMARY_SELECT + "WHERE s.task.user.id = :userId AND s.task.category.id = :categoryId "
+            + "AND s.task.trashed = false ORDER BY s.position, s.id")
+    List<SubTaskSummaryDTO> findSummariesByUserIdAndCategoryId(@Param("userId") Long userId,
+                                                               @Param("categoryId") Long categoryId);
+
+    @Query(SUMMARY_SELECT + "WHERE s.task.id IN :taskIds ORDER BY s.position, s.id")
+    List<SubTaskSummaryDTO> findSummariesByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    String SYNC_SELECT = "SELECT new com.todus.sync.SyncSubTaskDTO(s.id, s.task.id, s.name, s.status, s.position) "
+            + "FROM SubTask s ";
+
+    @Query(SYNC_SELECT + "WHERE s.task.user.id = :userId ORDER BY s.id")
+    List<SyncSubTaskDTO> findSyncRowsByUserId(@Param("userId") Long userId);
+
+    @Query(SYNC_SELECT + "WHERE s.task.user.id = :userId AND s.updatedAt >= :since ORDER BY s.id")
+    List<SyncSubTaskDTO> findSyncRowsChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    /**
+     * Filas (taskId, total, completadas) con las subtareas de las tareas indicadas.
+     */
+    @Query("SELECT s.task.id, COUNT(s), SUM(CASE WHEN s.status = com.todus.enums.Status.COMPLETED THEN 1 ELSE 0 END) "
+            + "FROM SubTask s WHERE s.task.id IN :taskIds GROUP BY s.task.id")
+    List<Object[]> countByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * Filas (taskId, nombre) de las subtareas de las tareas indicadas.
+     */
+    @Query("SELECT s.task.id, s.name FROM SubTask s WHERE s.task.id IN :taskIds")
+    List<Object[]> findNamesByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * Suma los deltas a los contadores de subtareas de la tarea con un UPDATE relativo, atómico
+     * frente a otras peticiones. No toca la versión: no es un cambio de la tarea en sí, pero
+     * sí updatedAt, porque los contadores van en el resumen que se sincroniza.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.subtaskTotal = t.subtaskTotal + :total, "
+            + "t.subtaskCompleted = t.subtaskCompleted + :completed, t.updatedAt = :now WHERE t.id = :taskId")
+    int adjustTaskCounters(@Param("taskId") Long taskId, @Param("total") long total,
+                           @Param("completed") long completed, @Param("now") LocalDateTime now);
+
+    /**
+     * Calcula los contadores de las tareas que tienen subtareas pero aún no los tienen
+     * (creadas antes de existir las columnas).
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.subtaskTotal = (SELECT COUNT(s) FROM SubTask s WHERE s.task.id = t.id), "
+            + "t.subtaskCompleted = (SELECT COUNT(s) FROM SubTask s WHERE s.task.id = t.id "
+            + "AND s.status = com.todus.enums.Status.COMPLETED) "
+            + "WHERE t.subtaskTotal = 0 AND EXISTS (SELECT s.id FROM SubTask s WHERE s.task.id = t.id)")
+    int backfillTaskCounters();
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM SubTask s WHERE s.task.id IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
 }
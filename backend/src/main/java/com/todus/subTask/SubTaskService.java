@@ -2,9 +2,24 @@ package com.todus.subTask;
 
 import com.todus.task.Task;
 import com.todus.enums.Status;
+import com.todus.stats.StatsRollupService;
+import com.todus.sync.SyncService;
+import com.todus.task.TaskChangedEvent;
+import com.todus.enums.SyncEntityType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class SubTaskService {
@@ -12,7 +27,17 @@ public class SubTaskService {
     @Autowired
     private SubTaskRepository subTaskRepository;
 
-    // Crear SubTask
+    @Autowired
+    private StatsRollupService statsRollup;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private SyncService syncService;
+
+    // Crear SubTask (la tarea ya viene comprobada como propia)
+    @Transactional
     public SubTask createSubTask(SubTaskDTO subTaskRequest, Task task) {
         // Convertir el DTO a la entidad SubTask
         SubTask subTask = new SubTask();
@@ -20,37 +45,137 @@ public class SubTaskService {
         // Asignamos el estado por defecto; si prefieres usar el enviado en el DTO, cámbialo
         subTask.setStatus(Status.PENDENT);
         subTask.setTask(task);
-        return subTaskRepository.save(subTask);
+        subTask.setPosition(subTaskRepository.nextPosition(task.getId()));
+        SubTask saved = subTaskRepository.save(subTask);
+        Long userId = task.getUser() != null ? task.getUser().getId() : null;
+        changed(userId, task.getId(), 1, 0);
+        return saved;
+    }
+
+    /**
+     * Subtarea del usuario, comprobada en la misma consulta (sin cargar su tarea).
+     */
+    private SubTask getOwnedSubTask(Long userId, Long id) {
+        return subTaskRepository.findByIdAndUserId(id, userId)
+            .orElseThrow(() -> new RuntimeException("Subtarea no encontrada"));
     }
 
     // Eliminar SubTask
-    public void deleteSubTask(Long id) {
-        subTaskRepository.deleteById(id);
+    @Transactional
+    public void deleteSubTask(Long userId, Long id) {
+        SubTask subTask = getOwnedSubTask(userId, id);
+        subTaskRepository.delete(subTask);
+        syncService.recordDeleted(userId, SyncEntityType.SUBTASK, List.of(id));
+        changed(userId, subTask.getTask().getId(), -1, StatsRollupService.completedDelta(subTask.getStatus(), null));
     }
 
     // Actualizar SubTask
-    public SubTask updateSubTask(Long id, SubTaskDTO subTaskRequest) {
-        SubTask subTask = subTaskRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Subtarea no encontrada"));
+    @Transactional
+    public SubTask updateSubTask(Long userId, Long id, SubTaskDTO subTaskRequest) {
+        SubTask subTask = getOwnedSubTask(userId, id);
+        Status previous = subTask.getStatus();
         subTask.setName(subTaskRequest.getName());
         subTask.setStatus(subTaskRequest.getStatus());
-        return subTaskRepository.save(subTask);
+        SubTask saved = subTaskRepository.save(subTask);
+        changed(userId, subTask.getTask().getId(), 0, StatsRollupService.completedDelta(previous, subTask.getStatus()));
+        return saved;
     }
 
-    // Marcar como completada o pendiente
-    public SubTask completeSubTask(Long id) {
-        SubTask subTask = subTaskRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Subtarea no encontrada"));
+    /**
+     * Marca como completada o pendiente, comprobando que la subtarea sigue en la versión
+     * que espera el cliente (si la indica). Un cambio concurrente lo detecta la columna
+     * @Version al guardar.
+     */
+    @Transactional
+    public SubTask completeSubTask(Long userId, Long id, Long expectedVersion) {
+        SubTask subTask = getOwnedSubTask(userId, id);
+        if (expectedVersion != null && !expectedVersion.equals(subTask.getVersion())) {
+            throw new OptimisticLockingFailureException("La subtarea ha cambiado mientras tanto, vuelve a cargarla");
+        }
+        Status previous = subTask.getStatus();
         if (subTask.getStatus() == Status.COMPLETED) {
             subTask.setStatus(Status.PENDENT);
         } else {
             subTask.setStatus(Status.COMPLETED);
         }
-        return subTaskRepository.save(subTask);
+        SubTask saved = subTaskRepository.save(subTask);
+        changed(userId, subTask.getTask().getId(), 0, StatsRollupService.completedDelta(previous, subTask.getStatus()));
+        return saved;
+    }
+
+    /**
+     * Crea, modifica y reordena las subtareas de una tarea en una sola operación. El orden de
+     * {@code items} es el nuevo orden; los que no traen id se crean. Las subtareas que no
+     * aparecen se mantienen, detrás de las enviadas. Los INSERT y UPDATE salen en lote JDBC.
+     */
+    @Transactional
+    public List<SubTask> saveAll(Task task, List<SubTaskDTO> items) {
+        Map<Long, SubTask> existing = new LinkedHashMap<>();
+        for (SubTask subTask : subTaskRepository.findByTaskIdOrderByPositionAscIdAsc(task.getId())) {
+            existing.put(subTask.getId(), subTask);
+        }
+
+        List<SubTask> ordered = new ArrayList<>(items.size());
+        Set<Long> seen = new HashSet<>();
+        long created = 0;
+        long completedDelta = 0;
+        for (SubTaskDTO item : items) {
+            if (item.getName() == null || item.getName().isBlank()) {
+                throw new IllegalArgumentException("Todas las subtareas necesitan un nombre");
+            }
+            SubTask subTask;
+            Status previous = null;
+            if (item.getId() == null) {
+                subTask = new SubTask();
+                subTask.setTask(task);
+                created++;
+            } else {
+                if (!seen.add(item.getId())) {
+                    throw new IllegalArgumentException("Subtarea repetida: " + item.getId());
+                }
+                subTask = existing.get(item.getId());
+                if (subTask == null) {
+                    throw new RuntimeException("Subtarea no encontrada");
+                }
+                previous = subTask.getStatus();
+            }
+            subTask.setName(item.getName());
+            subTask.setStatus(item.getStatus() != null ? item.getStatus()
+                    : (previous != null ? previous : Status.PENDENT));
+            completedDelta += StatsRollupService.completedDelta(previous, subTask.getStatus());
+            ordered.add(subTask);
+        }
+        existing.keySet().removeAll(seen);
+        ordered.addAll(existing.values());
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).setPosition(i);
+        }
+
+        List<SubTask> saved = subTaskRepository.saveAll(ordered);
+        Long userId = task.getUser() != null ? task.getUser().getId() : null;
+        changed(userId, task.getId(), created, completedDelta);
+        return saved;
+    }
+
+    /**
+     * Aplica un cambio de subtareas a los contadores de la tarea y a las estadísticas del usuario.
+     */
+    private void changed(Long userId, Long taskId, long totalDelta, long completedDelta) {
+        if (totalDelta != 0 || completedDelta != 0) {
+            subTaskRepository.adjustTaskCounters(taskId, totalDelta, completedDelta, LocalDateTime.now());
+        }
+        statsRollup.applySubTask(userId, totalDelta, completedDelta);
+        publishChange(userId, taskId);
+    }
+
+    private void publishChange(Long userId, Long taskId) {
+        if (userId != null) {
+            events.publishEvent(new TaskChangedEvent(userId, taskId, TaskChangedEvent.Change.SUBTASKS));
+        }
     }
 
-    // Obtener todas las subtareas asociadas a una tarea
-    public List<SubTask> getSubTasksByTask(Long taskId) {
-        return subTaskRepository.findByTaskId(taskId);
+    // Obtener todas las subtareas asociadas a una tarea del usuario
+    public List<SubTask> getSubTasksByTask(Long userId, Long taskId) {
+        return subTaskRepository.findByTaskIdAndUserId(taskId, userId);
     }
 }
@@ -0,0 +1,6 @@
+package com.todus.subTask;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.todus.enums.Status;
+
+public record SubTaskSummaryDTO(@JsonIgnore Long taskId, Long id, String name, Status status) {}
@@ -0,0 +1,9 @@
+package com.todus.sync;
+
+import com.todus.enums.SyncEntityType;
+
+/**
+ * Aviso del flujo en directo. Solo dice qué ha cambiado: el cliente trae los datos con
+ * /api/sync desde su cursor. {@code id} es null cuando el cambio afecta a varias tareas.
+ */
+public record ChangeFeedEvent(SyncEntityType entity, Long id, String change) {}
@@ -0,0 +1,343 @@
+package com.todus.sync;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.todus.category.CategoryChangedEvent;
+import com.todus.enums.SyncEntityType;
+import com.todus.priority.PriorityChangedEvent;
+import com.todus.task.TaskChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reparte los cambios confirmados de cada usuario entre sus conexiones SSE abiertas.
+ *
+ * Una conexión en espera no ocupa ningún hilo (es una petición asíncrona del servlet). Los
+ * envíos se hacen en hilos virtuales: cada conexión tiene su cola y un solo hilo la vacía
+ * mientras hay algo que mandar, así que los avisos llegan en orden y un cliente lento no
+ * frena a los demás ni a la petición que hizo el cambio. Si su cola se llena se cierra y el
+ * cliente se vuelve a conectar.
+ *
+ * Por usuario se guardan los últimos {@code replay-size} avisos: al reconectar con
+ * Last-Event-ID se reenvían los que faltan o, si ya no están, un aviso "reset" para que
+ * sincronice desde /api/sync. Los avisos solo llegan a las conexiones de esta instancia.
+ */
+@Component
+public class ChangeFeedHub {
+
+    static final String CHANGE = "change";
+    static final String RESET = "reset";
+
+    private final int replaySize;
+    private final long timeoutMs;
+    private final int maxConnectionsPerUser;
+    private final int maxQueued;
+    private final long idleFeedMs;
+    private final Executor senders;
+
+    // Los ids empiezan en la hora actual: los de una ejecución anterior quedan por debajo y
+    // se tratan como desconocidos
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final Map<Long, UserFeed> feeds = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final Counter published;
+    private final Counter dropped;
+
+    // El registro de métricas lo da Actuator; sin él (tests de repositorio) se usa uno en memoria
+    @Autowired
+    public ChangeFeedHub(ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${todus.live.replay-size:256}") int replaySize,
+                         @Value("${todus.live.timeout-ms:1800000}") long timeoutMs,
+                         @Value("${todus.live.max-connections-per-user:10}") int maxConnectionsPerUser,
+                         @Value("${todus.live.max-queued:500}") int maxQueued,
+                         @Value("${todus.live.idle-feed-minutes:15}") long idleFeedMinutes) {
+        this(meterRegistry.getIfAvailable(SimpleMeterRegistry::new), replaySize, timeoutMs, maxConnectionsPerUser,
+                maxQueued, idleFeedMinutes, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    ChangeFeedHub(MeterRegistry meterRegistry, int replaySize, long timeoutMs, int maxConnectionsPerUser,
+                  int maxQueued, long idleFeedMinutes, Executor senders) {
+        this.replaySize = replaySize;
+        this.timeoutMs = timeoutMs;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.maxQueued = maxQueued;
+        this.idleFeedMs = idleFeedMinutes * 60_000;
+        this.senders = senders;
+        this.published = Counter.builder("todus.live.events").register(meterRegistry);
+        this.dropped = Counter.builder("todus.live.dropped").register(meterRegistry);
+        Gauge.builder("todus.live.connections", connections, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (senders instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    // Tras el commit: un cambio que se deshace no se anuncia
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.taskIds().size() <= 1) {
+            publish(event.userId(), new ChangeFeedEvent(SyncEntityType.TASK, event.taskId(), event.change().name()));
+            return;
+        }
+        // Los clientes reciben cada tarea de un lote por separado, como con los cambios sueltos
+        for (Long taskId : event.taskIds()) {
+            publish(event.userId(), new ChangeFeedEvent(SyncEntityType.TASK, taskId, event.change().name()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        publish(event.userId(), new ChangeFeedEvent(SyncEntityType.CATEGORY, event.categoryId(), event.change().name()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriorityChanged(PriorityChangedEvent event) {
+        publish(event.userId(), new ChangeFeedEvent(SyncEntityType.PRIORITY, event.priorityId(), event.change().name()));
+    }
+
+    public void publish(Long userId, ChangeFeedEvent event) {
+        if (userId == null) {
+            return;
+        }
+        while (true) {
+            UserFeed feed = feeds.computeIfAbsent(userId, id -> new UserFeed());
+            synchronized (feed) {
+                if (feed.removed) {
+                    continue;
+                }
+                Message message = new Message(sequence.incrementAndGet(), CHANGE, event);
+                feed.append(message);
+                // Copia: un suscriptor con la cola llena se quita a sí mismo de la lista
+                for (Subscriber subscriber : List.copyOf(feed.subscribers)) {
+                    subscriber.enqueue(message);
+                }
+                break;
+            }
+        }
+        published.increment();
+    }
+
+    /**
+     * Abre una conexión del usuario. Con {@code lastEventId} primero se reenvía lo que se perdió.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return subscribe(userId, lastEventId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(Long userId, String lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        Subscriber evicted = null;
+        while (true) {
+            UserFeed feed = feeds.computeIfAbsent(userId, id -> new UserFeed());
+            synchronized (feed) {
+                if (feed.removed) {
+                    continue;
+                }
+                feed.subscribers.add(subscriber);
+                connections.incrementAndGet();
+                // Lo reenviado y lo nuevo se encolan bajo el mismo bloqueo: no se pierde ni se repite nada
+                if (lastEventId == null || lastEventId.isBlank()) {
+                    subscriber.enqueue(Message.comment("conectado"));
+                } else {
+                    List<Message> missed = feed.since(lastEventId);
+                    if (missed == null) {
+                        subscriber.enqueue(new Message(feed.floor, RESET, "Vuelve a sincronizar con /api/sync"));
+                    } else {
+                        missed.forEach(subscriber::enqueue);
+                    }
+                }
+                if (feed.subscribers.size() > maxConnectionsPerUser) {
+                    evicted = feed.subscribers.get(0);
+                }
+                break;
+            }
+        }
+        if (evicted != null) {
+            // La conexión más antigua del usuario, probablemente abandonada
+            evicted.close();
+        }
+        return emitter;
+    }
+
+    /**
+     * Mantiene vivas las conexiones a través de proxies, detecta las cortadas y olvida los
+     * avisos de usuarios sin conexiones desde hace {@code idle-feed-minutes}.
+     */
+    @Scheduled(fixedDelayString = "${todus.live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        Message ping = Message.comment("ping");
+        feeds.forEach((userId, feed) -> {
+            synchronized (feed) {
+                if (feed.subscribers.isEmpty()) {
+                    if (now - feed.lastActivity > idleFeedMs) {
+                        feed.removed = true;
+                        feeds.remove(userId, feed);
+                    }
+                    return;
+                }
+                feed.lastActivity = now;
+                for (Subscriber subscriber : List.copyOf(feed.subscribers)) {
+                    subscriber.enqueue(ping);
+                }
+            }
+        });
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    /**
+     * Un aviso con su id o, si {@code name} es null, un comentario SSE (no llega al cliente).
+     */
+    private record Message(long id, String name, Object data) {
+
+        static Message comment(String text) {
+            return new Message(0, null, text);
+        }
+
+        // Cada envío necesita su propio builder: build() lo modifica
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment((String) data);
+            }
+            return SseEmitter.event().id(Long.toString(id)).name(name).data(data);
+        }
+    }
+
+    private final class UserFeed {
+        private final Deque<Message> recent = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        // Se conocen todos los avisos posteriores a este id
+        private long floor = sequence.get();
+        private long lastActivity = System.currentTimeMillis();
+        // Ya no está en el mapa: quien lo tenga debe volver a pedirlo
+        private boolean removed;
+
+        private void append(Message message) {
+            recent.addLast(message);
+            if (recent.size() > replaySize) {
+                floor = recent.removeFirst().id();
+            }
+            lastActivity = System.currentTimeMillis();
+        }
+
+        /**
+         * Avisos posteriores a {@code lastEventId}, o null si no se pueden reconstruir.
+         */
+        private List<Message> since(String lastEventId) {
+            long last;
+            try {
+                last = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (last < floor || last > sequence.get()) {
+                return null;
+            }
+            return recent.stream().filter(message -> message.id() > last).toList();
+        }
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<Message> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(Message message) {
+            if (closed.get()) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                dropped.increment();
+                close();
+                return;
+            }
+            queue.add(message);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Message message;
+                while ((message = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    if (closed.get()) {
+                        continue;
+                    }
+                    try {
+                        emitter.send(message.toEvent());
+                    } catch (IOException | IllegalStateException e) {
+                        // El cliente ya no está
+                        close();
+                    }
+                }
+                draining.set(false);
+                // Algo pudo encolarse justo después de vaciar la cola
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            UserFeed feed = feeds.get(userId);
+            if (feed != null) {
+                synchronized (feed) {
+                    feed.subscribers.remove(this);
+                }
+            }
+            connections.decrementAndGet();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Ya estaba cerrado
+            }
+        }
+    }
+}
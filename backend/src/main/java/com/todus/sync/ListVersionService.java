@@ -0,0 +1,124 @@
+package com.todus.sync;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.todus.task.TaskChangedEvent;
+
+/**
+ * Versiones por usuario de sus listas de tareas, categorías y prioridades. Cada cambio las
+ * incrementa dentro de su transacción; los listados las usan como ETag y, si el cliente ya
+ * tiene esa versión, responden 304 con una lectura por clave primaria, sin cargar la lista.
+ *
+ * Dentro de una transacción cada lista de cada usuario se incrementa una sola vez, por
+ * muchos cambios que publique: basta con que la versión confirmada sea distinta.
+ */
+@Service
+public class ListVersionService {
+
+    private enum Kind { TASKS, CATEGORIES, PRIORITIES }
+
+    private record Bump(Long userId, Kind kind) {}
+
+    private record Versions(long tasks, long categories, long priorities) {
+        static final Versions NONE = new Versions(0, 0, 0);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Cualquier cambio de tareas o subtareas publica este evento (en su transacción)
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        bump(event.userId(), Kind.TASKS);
+    }
+
+    public void bumpCategories(Long userId) {
+        bump(userId, Kind.CATEGORIES);
+    }
+
+    public void bumpPriorities(Long userId) {
+        bump(userId, Kind.PRIORITIES);
+    }
+
+    /**
+     * La lista de tareas lleva el nombre de la categoría y de la prioridad de cada tarea,
+     * así que su etiqueta cambia también con ellas.
+     */
+    public String taskListTag(Long userId) {
+        Versions versions = versions(userId);
+        return "\"t" + versions.tasks() + "-c" + versions.categories() + "-p" + versions.priorities() + "\"";
+    }
+
+    public String categoryListTag(Long userId) {
+        return "\"c" + versions(userId).categories() + "\"";
+    }
+
+    public String priorityListTag(Long userId) {
+        return "\"p" + versions(userId).priorities() + "\"";
+    }
+
+    private Versions versions(Long userId) {
+        List<Versions> rows = jdbcTemplate.query(
+                "SELECT tasks, categories, priorities FROM user_list_versions WHERE user_id = ?",
+                (rs, i) -> new Versions(rs.getLong(1), rs.getLong(2), rs.getLong(3)), userId);
+        return rows.isEmpty() ? Versions.NONE : rows.get(0);
+    }
+
+    private void bump(Long userId, Kind kind) {
+        if (userId == null) {
+            return;
+        }
+        if (!firstInTransaction(new Bump(userId, kind))) {
+            return;
+        }
+        String column = kind.name().toLowerCase();
+        String update = "UPDATE user_list_versions SET " + column + " = " + column + " + 1 WHERE user_id = ?";
+        if (jdbcTemplate.update(update, userId) > 0) {
+            return;
+        }
+        // La fila empieza en la hora actual y no en 0: si se pierde y se vuelve a crear,
+        // sus etiquetas no coinciden con las que guardaban los clientes
+        long start = System.currentTimeMillis();
+        try {
+            jdbcTemplate.update("INSERT INTO user_list_versions (user_id, tasks, categories, priorities) "
+                    + "VALUES (?, ?, ?, ?)", userId, start, start, start);
+        } catch (DuplicateKeyException e) {
+            // Otra petición la creó entretanto
+            jdbcTemplate.update(update, userId);
+        }
+    }
+
+    /**
+     * Anota el incremento en la transacción actual y dice si es el primero. Sin transacción
+     * todos lo son.
+     */
+    private boolean firstInTransaction(Bump bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Bump> done = (Set<Bump>) TransactionSynchronizationManager.getResource(this);
+        if (done == null) {
+            Set<Bump> bumps = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, bumps);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ListVersionService.this);
+                }
+            });
+            done = bumps;
+        }
+        return done.add(bump);
+    }
+}
@@ -0,0 +1,12 @@
+package com.todus.sync;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class MutationBatchRequest {
+    private List<MutationDTO> mutations; // en el orden en que se hicieron
+}
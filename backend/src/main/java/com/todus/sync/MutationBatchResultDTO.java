@@ -0,0 +1,20 @@
+package com.todus.sync;
+
+import java.util.List;
+
+/**
+ * Resultado de reproducir una cola: una entrada por operación, en el orden de la petición.
+ * Si {@code committed} es false no se ha guardado nada del lote.
+ */
+public record MutationBatchResultDTO(List<Item> results, boolean committed) {
+
+    public enum Outcome {
+        APPLIED,
+        DUPLICATE, // ya aplicada en un envío anterior
+        CONFLICT, // el elemento cambió entretanto
+        FAILED,
+        NOT_APPLIED // deshecha o no intentada porque otra operación del lote falló
+    }
+
+    public record Item(String idempotencyKey, Outcome outcome, Long entityId, String error) {}
+}
@@ -0,0 +1,23 @@
+package com.todus.sync;
+
+import com.todus.enums.MutationType;
+import com.todus.subTask.SubTaskDTO;
+import com.todus.task.TaskDTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Una operación de la cola sin conexión del cliente.
+ */
+@Getter
+@Setter
+public class MutationDTO {
+    private String idempotencyKey; // generada por el cliente, única por usuario
+    private MutationType type;
+    private Long targetId; // tarea o subtarea sobre la que se opera (en CREATE_SUBTASK, la tarea)
+    private String targetKey; // en lugar de targetId: clave de la operación que creó el elemento
+    private Long expectedVersion; // COMPLETE_TASK y COMPLETE_SUBTASK (opcional)
+    private TaskDTO task; // CREATE_TASK y UPDATE_TASK
+    private SubTaskDTO subtask; // CREATE_SUBTASK y UPDATE_SUBTASK
+}
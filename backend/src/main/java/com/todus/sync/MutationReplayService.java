@@ -0,0 +1,230 @@
+package com.todus.sync;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import com.todus.enums.MutationType;
+import com.todus.enums.SyncEntityType;
+import com.todus.subTask.SubTaskService;
+import com.todus.sync.MutationBatchResultDTO.Item;
+import com.todus.sync.MutationBatchResultDTO.Outcome;
+import com.todus.task.TaskService;
+import com.todus.user.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+
+/**
+ * Reproduce la cola de operaciones que el cliente móvil acumula sin conexión: una petición
+ * y una autenticación para todo el lote en lugar de una por operación.
+ */
+@Service
+public class MutationReplayService {
+
+    public static final int MAX_MUTATIONS = 500;
+    public static final int MAX_KEY_LENGTH = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private SubTaskService subTaskService;
+
+    @Autowired
+    private ProcessedMutationRepository processedMutationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Elemento que afectó una operación. Los ids de tareas y subtareas se solapan, así que
+     * una {@code targetKey} solo vale si apunta a una operación del tipo esperado.
+     */
+    private record EntityRef(SyncEntityType type, Long id) {
+    }
+
+    /**
+     * Aplica las operaciones en orden y en una sola transacción. Las que ya se aplicaron en un
+     * envío anterior (misma clave) se saltan. Si una falla se deshace el lote entero y las
+     * siguientes no se intentan: dependen de ella y el cliente debe decidir qué hacer.
+     */
+    @Transactional
+    public MutationBatchResultDTO replay(User user, List<MutationDTO> mutations) {
+        validate(mutations);
+
+        // Claves del lote y las que referencian, en una sola consulta
+        Set<String> keys = new HashSet<>();
+        for (MutationDTO mutation : mutations) {
+            keys.add(mutation.getIdempotencyKey());
+            if (mutation.getTargetKey() != null) {
+                keys.add(mutation.getTargetKey());
+            }
+        }
+        Map<String, ProcessedMutation> processed = new HashMap<>();
+        Map<String, EntityRef> entityIds = new HashMap<>();
+        for (ProcessedMutation mutation : processedMutationRepository.findByUserIdAndIdempotencyKeyIn(user.getId(), keys)) {
+            processed.put(mutation.getIdempotencyKey(), mutation);
+            entityIds.put(mutation.getIdempotencyKey(),
+                    new EntityRef(entityType(mutation.getType()), mutation.getEntityId()));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Item> results = new ArrayList<>(mutations.size());
+        List<Object[]> applied = new ArrayList<>();
+        for (MutationDTO mutation : mutations) {
+            String key = mutation.getIdempotencyKey();
+            ProcessedMutation previous = processed.get(key);
+            if (previous != null) {
+                results.add(new Item(key, Outcome.DUPLICATE, previous.getEntityId(), null));
+                continue;
+            }
+
+            Long entityId;
+            try {
+                entityId = apply(user, mutation, entityIds);
+                // Los errores de cada operación salen aquí y no al confirmar; y las siguientes
+                // leen el estado actual aunque esta se haya hecho con un UPDATE directo
+                entityManager.flush();
+                entityManager.clear();
+            } catch (RuntimeException e) {
+                Outcome outcome = e instanceof OptimisticLockingFailureException || e instanceof OptimisticLockException
+                        ? Outcome.CONFLICT : Outcome.FAILED;
+                return rollBack(mutations, results, new Item(key, outcome, null, e.getMessage()));
+            }
+            entityIds.put(key, new EntityRef(entityType(mutation.getType()), entityId));
+            results.add(new Item(key, Outcome.APPLIED, entityId, null));
+            applied.add(new Object[] {user.getId(), key, mutation.getType().name(), entityId, now});
+        }
+
+        // Si otro envío del mismo lote se adelanta, la clave única hace fallar este
+        jdbcTemplate.batchUpdate("INSERT INTO sync_mutations (user_id, idempotency_key, type, entity_id, processed_at) "
+                + "VALUES (?, ?, ?, ?, ?)", applied);
+        return new MutationBatchResultDTO(results, true);
+    }
+
+    private Long apply(User user, MutationDTO mutation, Map<String, EntityRef> entityIds) {
+        return switch (mutation.getType()) {
+            case CREATE_TASK -> taskService.createTask(user, payload(mutation.getTask(), mutation)).getId();
+            case UPDATE_TASK -> taskService.updateTask(user, target(mutation, entityIds, SyncEntityType.TASK),
+                    payload(mutation.getTask(), mutation)).getId();
+            case COMPLETE_TASK -> {
+                Long taskId = target(mutation, entityIds, SyncEntityType.TASK);
+                taskService.markTaskAsCompleted(user, taskId, mutation.getExpectedVersion());
+                yield taskId;
+            }
+            case TRASH_TASK -> {
+                Long taskId = target(mutation, entityIds, SyncEntityType.TASK);
+                taskService.trashTask(user, taskId);
+                yield taskId;
+            }
+            case CREATE_SUBTASK -> subTaskService.createSubTask(payload(mutation.getSubtask(), mutation),
+                    taskService.getOwnedTask(user, target(mutation, entityIds, SyncEntityType.TASK))).getId();
+            case UPDATE_SUBTASK -> subTaskService.updateSubTask(user.getId(),
+                    target(mutation, entityIds, SyncEntityType.SUBTASK), payload(mutation.getSubtask(), mutation)).getId();
+            case COMPLETE_SUBTASK -> subTaskService.completeSubTask(user.getId(),
+                    target(mutation, entityIds, SyncEntityType.SUBTASK), mutation.getExpectedVersion()).getId();
+            case DELETE_SUBTASK -> {
+                Long subTaskId = target(mutation, entityIds, SyncEntityType.SUBTASK);
+                subTaskService.deleteSubTask(user.getId(), subTaskId);
+                yield subTaskId;
+            }
+        };
+    }
+
+    /**
+     * Id del elemento sobre el que se opera: el enviado o el que creó la operación
+     * {@code targetKey}, que tiene que ser del tipo {@code expected}.
+     */
+    private Long target(MutationDTO mutation, Map<String, EntityRef> entityIds, SyncEntityType expected) {
+        if (mutation.getTargetId() != null) {
+            return mutation.getTargetId();
+        }
+        if (mutation.getTargetKey() == null) {
+            throw new IllegalArgumentException("Falta el elemento de la operación " + mutation.getIdempotencyKey());
+        }
+        EntityRef ref = entityIds.get(mutation.getTargetKey());
+        if (ref == null) {
+            throw new IllegalArgumentException("Operación desconocida: " + mutation.getTargetKey());
+        }
+        if (ref.type() != expected) {
+            throw new IllegalArgumentException("La operación " + mutation.getTargetKey() + " no es sobre una "
+                    + (expected == SyncEntityType.TASK ? "tarea" : "subtarea"));
+        }
+        return ref.id();
+    }
+
+    /**
+     * Tipo del elemento que crea o modifica cada operación.
+     */
+    static SyncEntityType entityType(MutationType type) {
+        return switch (type) {
+            case CREATE_TASK, UPDATE_TASK, COMPLETE_TASK, TRASH_TASK -> SyncEntityType.TASK;
+            case CREATE_SUBTASK, UPDATE_SUBTASK, COMPLETE_SUBTASK, DELETE_SUBTASK -> SyncEntityType.SUBTASK;
+        };
+    }
+
+    private static <T> T payload(T payload, MutationDTO mutation) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Faltan los datos de la operación " + mutation.getIdempotencyKey());
+        }
+        return payload;
+    }
+
+    private void validate(List<MutationDTO> mutations) {
+        if (mutations == null || mutations.isEmpty()) {
+            throw new IllegalArgumentException("No hay operaciones");
+        }
+        if (mutations.size() > MAX_MUTATIONS) {
+            throw new IllegalArgumentException("Como mucho " + MAX_MUTATIONS + " operaciones por lote");
+        }
+        Set<String> keys = new HashSet<>();
+        for (MutationDTO mutation : mutations) {
+            String key = mutation.getIdempotencyKey();
+            if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+                throw new IllegalArgumentException(
+                        "Cada operación necesita una clave de hasta " + MAX_KEY_LENGTH + " caracteres");
+            }
+            if (mutation.getType() == null) {
+                throw new IllegalArgumentException("Falta el tipo de la operación " + key);
+            }
+            if (!keys.add(key)) {
+                throw new IllegalArgumentException("Clave repetida en el lote: " + key);
+            }
+        }
+    }
+
+    /**
+     * Marca la transacción para deshacerse (sin excepción al salir) y rellena los resultados:
+     * lo aplicado hasta ahora y lo que falta quedan como no aplicado.
+     */
+    private MutationBatchResultDTO rollBack(List<MutationDTO> mutations, List<Item> done, Item failed) {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        List<Item> results = new ArrayList<>(mutations.size());
+        for (Item item : done) {
+            results.add(item.outcome() == Outcome.APPLIED
+                    ? new Item(item.idempotencyKey(), Outcome.NOT_APPLIED, null, null) : item);
+        }
+        results.add(failed);
+        for (int i = results.size(); i < mutations.size(); i++) {
+            results.add(new Item(mutations.get(i).getIdempotencyKey(), Outcome.NOT_APPLIED, null, null));
+        }
+        return new MutationBatchResultDTO(results, false);
+    }
+}
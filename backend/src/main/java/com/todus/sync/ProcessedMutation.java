@@ -0,0 +1,43 @@
+package com.todus.sync;
+
+import java.time.LocalDateTime;
+
+import com.todus.enums.MutationType;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Operación de la cola sin conexión ya aplicada, para no repetirla si el cliente la reenvía.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "sync_mutations", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sync_mutations_user_key", columnNames = {"user_id", "idempotency_key"})
+}, indexes = {
+    @Index(name = "idx_sync_mutations_processed", columnList = "processed_at")
+})
+public class ProcessedMutation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = MutationReplayService.MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MutationType type;
+
+    // Tarea o subtarea afectada (la creada, en las altas)
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
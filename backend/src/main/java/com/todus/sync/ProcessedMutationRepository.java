@@ -0,0 +1,19 @@
+package com.todus.sync;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ProcessedMutationRepository extends JpaRepository<ProcessedMutation, Long> {
+
+    List<ProcessedMutation> findByUserIdAndIdempotencyKeyIn(Long userId, Collection<String> idempotencyKeys);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedMutation m WHERE m.processedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,24 @@
+package com.todus.sync;
+
+import java.util.List;
+import java.util.Map;
+
+import com.todus.category.Category;
+import com.todus.enums.SyncEntityType;
+import com.todus.priority.Priority;
+import com.todus.task.TaskSummaryDTO;
+
+/**
+ * Cambios desde el cursor del cliente. Con {@code full} a true es una copia completa y el
+ * cliente debe descartar lo que tenga. Los elementos se aplican por id y los borrados al final;
+ * las subtareas van en su propia lista, no dentro de cada tarea. {@code cursor} es lo que hay
+ * que enviar la próxima vez.
+ */
+public record SyncChangesDTO(
+        String cursor,
+        boolean full,
+        List<TaskSummaryDTO> tasks,
+        List<SyncSubTaskDTO> subtasks,
+        List<Category> categories,
+        List<Priority> priorities,
+        Map<SyncEntityType, List<Long>> deleted) {}
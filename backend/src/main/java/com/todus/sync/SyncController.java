@@ -0,0 +1,81 @@
+package com.todus.sync;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.todus.user.AuthService;
+import com.todus.user.User;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private MutationReplayService mutationReplayService;
+
+    @Autowired
+    private ChangeFeedHub changeFeedHub;
+
+    @Autowired
+    private AuthService userService;
+
+    /**
+     * Cambios desde {@code cursor} (sin él, todo). La respuesta trae el cursor para la siguiente llamada.
+     */
+    @GetMapping
+    public ResponseEntity<?> getChanges(@RequestHeader("Authorization") String token,
+                                        @RequestParam(required = false) String cursor) {
+        try {
+            User user = userService.getAuthenticatedUser(token);
+            return ResponseEntity.ok(syncService.getChanges(user, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Avisos en directo (SSE) de los cambios del usuario hechos desde cualquier dispositivo.
+     * Al reconectar, la cabecera Last-Event-ID recupera los avisos perdidos.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader("Authorization") String token,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        User user = userService.getAuthenticatedUser(token);
+        return changeFeedHub.subscribe(user.getId(), lastEventId);
+    }
+
+    /**
+     * Reproduce la cola de operaciones hechas sin conexión. Si alguna falla no se guarda
+     * nada y la respuesta indica cuál (409 si fue un conflicto de versión).
+     */
+    @PostMapping("/mutations")
+    public ResponseEntity<?> replay(@RequestHeader("Authorization") String token,
+                                    @RequestBody MutationBatchRequest request) {
+        try {
+            User user = userService.getAuthenticatedUser(token);
+            MutationBatchResultDTO result = mutationReplayService.replay(user, request.getMutations());
+            if (result.committed()) {
+                return ResponseEntity.ok(result);
+            }
+            boolean conflict = result.results().stream()
+                    .anyMatch(item -> item.outcome() == MutationBatchResultDTO.Outcome.CONFLICT);
+            return conflict ? ResponseEntity.status(HttpStatus.CONFLICT).body(result)
+                    : ResponseEntity.badRequest().body(result);
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Este lote ya se está procesando; vuelve a enviarlo más tarde"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.todus.sync;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición de la sincronización: el instante del servidor en que se tomaron los cambios.
+ */
+public record SyncCursor(LocalDateTime since) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(since.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncCursor decode(String encoded) {
+        try {
+            return new SyncCursor(LocalDateTime.parse(
+                    new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.todus.sync;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.todus.category.CategoryRepository;
+import com.todus.enums.SyncEntityType;
+import com.todus.priority.PriorityRepository;
+import com.todus.subTask.SubTaskRepository;
+import com.todus.task.TaskRepository;
+import com.todus.user.User;
+
+/**
+ * Sincronización incremental para el cliente móvil: devuelve lo creado o modificado
+ * (según updatedAt) y lo borrado (según sync_tombstones) desde el cursor recibido.
+ */
+@Service
+public class SyncService {
+
+    // Los cambios se leen desde un poco antes del cursor: una transacción que se confirma
+    // después de tomarlo puede llevar una hora anterior. El cliente aplica por id, así que
+    // recibir dos veces un cambio no tiene efecto.
+    static final Duration OVERLAP = Duration.ofSeconds(30);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private SubTaskRepository subTaskRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PriorityRepository priorityRepository;
+
+    @Autowired
+    private SyncTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${todus.sync.tombstone-retention-days:30}")
+    private int retentionDays;
+
+    /**
+     * Cambios del usuario desde {@code cursor}. Sin cursor, o si es más antiguo que los
+     * rastros de borrado que se conservan, devuelve una copia completa.
+     */
+    public SyncChangesDTO getChanges(User user, String cursor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            since = SyncCursor.decode(cursor).since();
+            if (since.isBefore(now.minusDays(retentionDays))) {
+                since = null;
+            }
+        }
+        String next = new SyncCursor(now).encode();
+        Long userId = user.getId();
+
+        if (since == null) {
+            return new SyncChangesDTO(next, true,
+                    taskRepository.findSummariesByUserId(userId),
+                    subTaskRepository.findSyncRowsByUserId(userId),
+                    categoryRepository.findByUserIdOrderById(userId),
+                    priorityRepository.findByUserId(userId),
+                    Map.of());
+        }
+
+        LocalDateTime from = since.minus(OVERLAP);
+        Map<SyncEntityType, List<Long>> deleted = new EnumMap<>(SyncEntityType.class);
+        for (SyncTombstone tombstone : tombstoneRepository.findByUserIdAndDeletedAtGreaterThanEqualOrderById(userId, from)) {
+            deleted.computeIfAbsent(tombstone.getEntityType(), type -> new ArrayList<>()).add(tombstone.getEntityId());
+        }
+        return new SyncChangesDTO(next, false,
+                taskRepository.findSummariesChangedSince(userId, from),
+                subTaskRepository.findSyncRowsChangedSince(userId, from),
+                categoryRepository.findByUserIdAndUpdatedAtGreaterThanEqualOrderById(userId, from),
+                priorityRepository.findByUserIdAndUpdatedAtGreaterThanEqualOrderById(userId, from),
+                deleted);
+    }
+
+    /**
+     * Guarda el rastro de los elementos borrados, en un único lote JDBC dentro de la
+     * transacción de quien borra.
+     */
+    public void recordDeleted(Long userId, SyncEntityType type, Collection<Long> ids) {
+        if (userId == null || ids.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[] {userId, type.name(), id, now});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO sync_tombstones (user_id, entity_type, entity_id, deleted_at) VALUES (?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,8 @@
+package com.todus.sync;
+
+import com.todus.enums.Status;
+
+/**
+ * Subtarea en la respuesta de sincronización; a diferencia de los listados lleva su taskId.
+ */
+public record SyncSubTaskDTO(Long id, Long taskId, String name, Status status, Integer position) {}
@@ -0,0 +1,39 @@
+package com.todus.sync;
+
+import java.time.LocalDateTime;
+
+import com.todus.enums.SyncEntityType;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Rastro de un borrado para la sincronización incremental. Las subtareas borradas junto
+ * con su tarea no dejan rastro propio: el cliente las quita con la tarea.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "sync_tombstones", indexes = {
+    @Index(name = "idx_sync_tombstones_user_deleted", columnList = "user_id, deleted_at"),
+    @Index(name = "idx_sync_tombstones_deleted", columnList = "deleted_at")
+})
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
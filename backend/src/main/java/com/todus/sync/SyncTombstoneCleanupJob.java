@@ -0,0 +1,62 @@
+package com.todus.sync;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+
+/**
+ * Borra los rastros de borrado y las claves de operaciones ya aplicadas más antiguos que la
+ * retención. Un cliente con un cursor anterior recibe una copia completa (ver
+ * {@link SyncService#getChanges}); una cola sin conexión más antigua ya no se deduplica.
+ */
+@Component
+@ConditionalOnProperty(name = "todus.sync.cleanup.enabled", havingValue = "true", matchIfMissing = true)
+public class SyncTombstoneCleanupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncTombstoneCleanupJob.class);
+
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final ProcessedMutationRepository processedMutationRepository;
+    private final int retentionDays;
+    private final Counter purged;
+    private final Counter mutationsPurged;
+
+    public SyncTombstoneCleanupJob(SyncTombstoneRepository tombstoneRepository,
+                                   ProcessedMutationRepository processedMutationRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${todus.sync.tombstone-retention-days:30}") int retentionDays) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.processedMutationRepository = processedMutationRepository;
+        this.retentionDays = retentionDays;
+        this.purged = Counter.builder("todus.sync.tombstones.purged").register(meterRegistry);
+        this.mutationsPurged = Counter.builder("todus.sync.mutations.purged").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${todus.sync.cleanup.interval-ms:86400000}",
+               initialDelayString = "${todus.sync.cleanup.initial-delay-ms:300000}")
+    @Transactional
+    public void run() {
+        int deleted = purge(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Rastros de sincronización caducados: {}", deleted);
+        }
+    }
+
+    public int purge(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusDays(retentionDays);
+        int deleted = tombstoneRepository.deleteOlderThan(cutoff);
+        purged.increment(deleted);
+        int mutations = processedMutationRepository.deleteOlderThan(cutoff);
+        mutationsPurged.increment(mutations);
+        return deleted + mutations;
+    }
+}
@@ -0,0 +1,18 @@
+package com.todus.sync;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    List<SyncTombstone> findByUserIdAndDeletedAtGreaterThanEqualOrderById(Long userId, LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM SyncTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,28 @@
+package com.todus.sync;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Versión de las listas de cada usuario, para los GET condicionales. Solo la lee y la
+ * incrementa {@link ListVersionService}, con SQL directo.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "user_list_versions")
+public class UserListVersions {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long tasks;
+
+    @Column(nullable = false)
+    private long categories;
+
+    @Column(nullable = false)
+    private long priorities;
+}
@@ -0,0 +1,113 @@
+package com.todus.util;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limita las peticiones que se atienden a la vez cuando Tomcat usa hilos virtuales
+ * (spring.threads.virtual.enabled). Con hilos de plataforma el límite lo pone el pool de
+ * Tomcat (200); con virtuales no hay límite y miles de peticiones acaban esperando en
+ * HikariCP, cada una hasta su connection-timeout. Va antes que el filtro JWT, que también
+ * puede consultar la base de datos.
+ *
+ * Aquí esperan como mucho {@code acquire-timeout-ms} y, si no hay hueco, se responde 503
+ * enseguida. El límite por defecto es {@code connections-factor} veces el tamaño del pool
+ * de conexiones, para que una petición que no está usando la base de datos no deje una
+ * conexión parada.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConnectionPoolGuard extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolGuard.class);
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+
+    public ConnectionPoolGuard(DataSource dataSource,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${todus.db.guard.max-concurrent:0}") int maxConcurrent,
+                               @Value("${todus.db.guard.connections-factor:2}") int connectionsFactor,
+                               @Value("${todus.db.guard.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource) * connectionsFactor;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.objectMapper = objectMapper;
+        this.rejected = Counter.builder("todus.db.guard.rejected").register(meterRegistry);
+        Gauge.builder("todus.db.guard.waiting", permits, Semaphore::getQueueLength).register(meterRegistry);
+        log.info("Hilos virtuales activos: como mucho {} peticiones a la vez", this.maxConcurrent);
+    }
+
+    /**
+     * Tamaño máximo del pool de HikariCP (10 si la fuente de datos no es Hikari).
+     */
+    static int poolSize(DataSource dataSource) {
+        HikariConfigMXBean hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+                HikariDataSource.class);
+        return hikari != null ? hikari.getMaximumPoolSize() : 10;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), Map.of("error", "Servidor ocupado, inténtalo de nuevo"));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // En una respuesta asíncrona (SSE) se suelta al volver del controlador: la
+            // conexión abierta no usa la base de datos
+            permits.release();
+        }
+    }
+}
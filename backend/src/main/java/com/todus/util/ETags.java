@@ -0,0 +1,46 @@
+package com.todus.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Respuestas de los GET condicionales de los listados (ver ListVersionService).
+ */
+public final class ETags {
+
+    // Solo la guarda el propio usuario, que debe revalidarla en cada uso
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private ETags() {}
+
+    /**
+     * Si {@code ifNoneMatch} (cabecera If-None-Match) incluye la etiqueta actual.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match compara sin tener en cuenta el prefijo de etiqueta débil
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.AUTHORIZATION).build();
+    }
+
+    public static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_CONTROL).varyBy(HttpHeaders.AUTHORIZATION).body(body);
+    }
+}
@@ -0,0 +1,81 @@
+package com.todus.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Caché LRU en memoria con tamaño máximo y caducidad por entrada.
+ * Las entradas caducadas se descartan al leerlas y las menos usadas
+ * se expulsan al superar el tamaño máximo.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public ExpiringLruCache(int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    public ExpiringLruCache(int maxSize, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser positivo");
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringLruCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.expiresAt().isAfter(clock.instant())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Guarda el valor hasta {@code expiresAt}. Si ya ha caducado no se guarda.
+     */
+    public synchronized void put(K key, V value, Instant expiresAt) {
+        if (!expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        entries.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value()));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    private record Entry<V>(V value, Instant expiresAt) {}
+}
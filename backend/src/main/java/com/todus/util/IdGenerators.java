@@ -0,0 +1,79 @@
+package com.todus.util;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Generadores de ids por tabla para tareas y subtareas. Con IDENTITY Hibernate tiene que
+ * insertar fila a fila para conocer el id; con un generador "pooled" reserva
+ * {@link #ALLOCATION_SIZE} ids de golpe y puede mandar los INSERT en lote.
+ *
+ * Al arrancar se deja cada contador por encima del mayor id existente, para que las
+ * filas creadas antes con IDENTITY no choquen con los ids reservados.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGenerators {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGenerators.class);
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String TASKS = "tasks";
+    public static final String SUBTASKS = "subtasks";
+
+    // Nombre del generador -> tabla cuyos ids reparte
+    private static final Map<String, String> TABLES = Map.of(TASKS, "tasks", SUBTASKS, "subtasks");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        TABLES.forEach(this::align);
+    }
+
+    /**
+     * El optimizador "pooled" reparte los ids {@code next_val - ALLOCATION_SIZE + 1 .. next_val},
+     * así que el contador tiene que ser al menos {@code MAX(id) + ALLOCATION_SIZE}.
+     *
+     * Varias instancias pueden arrancar a la vez: si otra crea la fila entre la consulta y el
+     * INSERT, se sigue con el UPDATE condicional, que solo sube el contador.
+     */
+    void align(String generator, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long minimum = maxId + ALLOCATION_SIZE;
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT " + VALUE_COLUMN + " FROM " + TABLE + " WHERE " + NAME_COLUMN + " = ?", Long.class, generator);
+
+        if (current.isEmpty()) {
+            try {
+                jdbcTemplate.update("INSERT INTO " + TABLE + " (" + NAME_COLUMN + ", " + VALUE_COLUMN
+                        + ") VALUES (?, ?)", generator, minimum);
+                return;
+            } catch (DuplicateKeyException e) {
+                log.debug("Generador de ids '{}' creado por otra instancia", generator);
+            }
+        } else if (current.get(0) >= minimum) {
+            return;
+        }
+        int updated = jdbcTemplate.update("UPDATE " + TABLE + " SET " + VALUE_COLUMN + " = ? WHERE " + NAME_COLUMN
+                + " = ? AND " + VALUE_COLUMN + " < ?", minimum, generator, minimum);
+        if (updated > 0) {
+            log.info("Generador de ids '{}' ajustado a {}", generator, minimum);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.todus.util;
 
 import com.todus.user.User;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import com.todus.user.UserRepository;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,10 +22,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserRepository userRepository, PrincipalCache principalCache) {
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -33,16 +36,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String header = request.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            if (jwtUtil.validateToken(token)) {
-                String email = jwtUtil.extractEmail(token);
-                User user = userRepository.findByEmail(email).orElse(null);
-                if (user != null) {
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            user, null, new ArrayList<>());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+            User user = principalCache.get(token);
+            if (user == null) {
+                Claims claims = jwtUtil.parseVerifiedClaims(token).orElse(null);
+                if (claims != null) {
+                    user = userRepository.findByEmail(claims.getSubject()).orElse(null);
+                    if (user != null) {
+                        principalCache.put(token, user, claims.getExpiration());
+                    }
                 }
             }
+            if (user != null) {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        user, null, new ArrayList<>());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
         }
         filterChain.doFilter(request, response);
     }
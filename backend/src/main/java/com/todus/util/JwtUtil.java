@@ -3,27 +3,36 @@ package com.todus.util;
 
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.util.Date;
+import java.util.Optional;
 
 import javax.crypto.SecretKey;
 
 @Component
 public class JwtUtil {
-    
+
     private final SecretKey key;
+    private final JwtParser parser;
+    private final ExpiringLruCache<String, Claims> verifiedTokens;
     private static final long EXPIRATION_TIME = 86400000; // 1 día
 
-    public JwtUtil(@Value("${jwt.secret}") String secret) {
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${todus.auth.verified-token-cache.max-size:1000}") int verifiedTokenCacheSize) {
         if (secret == null || secret.length() < 32) {
             throw new IllegalArgumentException("La clave secreta debe tener al menos 32 caracteres");
         }
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        // El parser es inmutable y seguro entre hilos: se construye una sola vez
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = verifiedTokenCacheSize > 0 ? new ExpiringLruCache<>(verifiedTokenCacheSize) : null;
     }
 
     public String generateToken(String email) {
@@ -36,20 +45,38 @@ public class JwtUtil {
         return newToken;
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verifica la firma y la caducidad del token una sola vez y devuelve sus claims.
+     * Los tokens ya verificados se guardan hasta su fecha de expiración.
+     */
+    public Optional<Claims> parseVerifiedClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        if (verifiedTokens != null) {
+            Claims cached = verifiedTokens.get(token);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
         try {
-            Jwts.parser().setSigningKey(key).parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (verifiedTokens != null && claims.getExpiration() != null) {
+                verifiedTokens.put(token, claims, claims.getExpiration().toInstant());
+            }
+            return Optional.of(claims);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 
+    public boolean validateToken(String token) {
+        return parseVerifiedClaims(token).isPresent();
+    }
+
     public String extractEmail(String token) {
-        return Jwts.parser()
-                .setSigningKey(key)
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseVerifiedClaims(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Token no válido"));
     }
 }
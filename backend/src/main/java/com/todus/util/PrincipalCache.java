@@ -0,0 +1,80 @@
+package com.todus.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.todus.user.User;
+
+/**
+ * Caché de usuarios autenticados indexada por token JWT, para no
+ * verificar la firma ni consultar la base de datos en cada petición.
+ */
+@Component
+public class PrincipalCache {
+
+    private final ExpiringLruCache<String, User> cache;
+    private final Duration ttl;
+
+    public PrincipalCache(@Value("${todus.auth.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${todus.auth.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new ExpiringLruCache<>(maxSize);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public User get(String token) {
+        return cache.get(token);
+    }
+
+    /**
+     * Guarda el usuario sin superar nunca la expiración del propio token. Un token sin
+     * expiración no se guarda.
+     */
+    public void put(String token, User user, Date tokenExpiration) {
+        if (tokenExpiration == null) {
+            return;
+        }
+        Instant expiresAt = cache.getClock().instant().plus(ttl);
+        if (tokenExpiration.toInstant().isBefore(expiresAt)) {
+            expiresAt = tokenExpiration.toInstant();
+        }
+        cache.put(token, user, expiresAt);
+    }
+
+    /**
+     * Descarta todas las entradas de un usuario. Se llama cuando cambian
+     * sus datos o su contraseña.
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.invalidateIf((token, user) -> userId.equals(user.getId()));
+    }
+
+    /**
+     * Como {@link #invalidateUser}, pero dentro de una transacción espera a que se confirme:
+     * si se descartara antes, una petición simultánea volvería a guardar el usuario antiguo.
+     */
+    public void invalidateUserAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateUser(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateUser(userId);
+            }
+        });
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
@@ -1,5 +1,6 @@
 package com.todus.util;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -25,6 +26,8 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // Reenvío interno al cerrar una respuesta asíncrona (SSE): la petición ya se autorizó
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/register").permitAll()
                 .requestMatchers("/api/auth/login").permitAll()
                 .requestMatchers("/api/auth/change-password").authenticated()
@@ -35,6 +38,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/user/update").authenticated()
                 .requestMatchers("/api/tasks/create").authenticated()
                 .requestMatchers("/api/tasks/list").authenticated()
+                .requestMatchers("/api/tasks/page").authenticated()
+                .requestMatchers("/api/tasks/category/**").authenticated()
+                .requestMatchers("/api/tasks/bulk").authenticated()
                 .requestMatchers("/api/tasks/update/**").authenticated()
                 .requestMatchers("/api/tasks/delete/**").authenticated()
                 .requestMatchers("/api/categories/create").authenticated()
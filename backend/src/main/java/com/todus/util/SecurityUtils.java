@@ -0,0 +1,25 @@
+package com.todus.util;
+
+import java.util.Optional;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.todus.user.User;
+
+public final class SecurityUtils {
+
+    private SecurityUtils() {
+    }
+
+    /**
+     * Devuelve el usuario que JwtAuthenticationFilter dejó en el SecurityContext, si lo hay.
+     */
+    public static Optional<User> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+}
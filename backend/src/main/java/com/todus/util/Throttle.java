@@ -0,0 +1,28 @@
+package com.todus.util;
+
+import java.time.Duration;
+
+/**
+ * Pausa entre lotes de los trabajos programados, para no ocupar la base de datos de seguido.
+ */
+public final class Throttle {
+
+    private Throttle() {}
+
+    /**
+     * Espera {@code pause}. Devuelve false si el hilo se interrumpe (se está parando la
+     * aplicación): el trabajo debe dejar de procesar lotes.
+     */
+    public static boolean pause(Duration pause) {
+        if (pause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
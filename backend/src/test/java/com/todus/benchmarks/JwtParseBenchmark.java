@@ -0,0 +1,68 @@
+package com.todus.benchmarks;
+
+import com.todus.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la validación antigua (validateToken + extractEmail, dos parsers y
+ * dos HMAC por petición) con JwtUtil.parseVerifiedClaims, con y sin caché.
+ *
+ * Ejecutar con:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.todus.benchmarks.JwtParseBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "EstaEsUnaClaveSuperSeguraDe32Caracteres123456";
+
+    private SecretKey key;
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        uncached = new JwtUtil(SECRET, 0);
+        cached = new JwtUtil(SECRET, 1000);
+        token = uncached.generateToken("benchmark@todus.com");
+    }
+
+    @Benchmark
+    public String legacyValidateThenExtract() {
+        // Ruta anterior: un parser nuevo y una verificación de firma en cada llamada
+        Jwts.parser().setSigningKey(key).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public Optional<Claims> singleParse() {
+        return uncached.parseVerifiedClaims(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> singleParseCached() {
+        return cached.parseVerifiedClaims(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtParseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.todus.benchmarks;
+
+import com.todus.search.SearchTerms;
+import com.todus.search.TaskSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la búsqueda con el índice de términos (task_search_terms) con la alternativa
+ * sin índice (LIKE '%texto%' sobre nombre y descripción de las tareas del usuario), sobre
+ * una base H2 en memoria con {@code tasks} tareas repartidas entre {@code users} usuarios.
+ * Preparar el millón de tareas lleva unos minutos y necesita unos 4 GB de memoria.
+ *
+ * Ejecutar con:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.todus.benchmarks.TaskSearchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "informe", "reunión", "comprar", "llamar", "revisar", "enviar", "preparar", "presupuesto", "médico",
+        "factura", "examen", "proyecto", "cliente", "viaje", "canción", "gimnasio", "pagar", "alquiler",
+        "entregar", "trimestral", "correo", "lavadora", "cumpleaños", "matemáticas", "historia", "código",
+        "despliegue", "pasaporte", "seguro", "coche", "jardín", "regalo", "billete", "dentista", "contrato"
+    };
+    private static final int BATCH = 5_000;
+
+    @Param("1000000")
+    public int tasks;
+
+    @Param("100")
+    public int users;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TaskSearchIndex searchIndex;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:search;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE tasks (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                + "name VARCHAR(255), description TEXT, trashed BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_tasks_user_trashed ON tasks (user_id, trashed)");
+        jdbcTemplate.execute("CREATE TABLE task_search_terms (task_id BIGINT NOT NULL, term VARCHAR(40) NOT NULL, "
+                + "user_id BIGINT NOT NULL, weight INT NOT NULL, PRIMARY KEY (task_id, term))");
+        jdbcTemplate.execute("CREATE INDEX idx_task_search_terms_user_term ON task_search_terms (user_id, term)");
+        searchIndex = new TaskSearchIndex(jdbcTemplate);
+
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>();
+        List<TaskSearchIndex.Document> documents = new ArrayList<>();
+        for (long id = 1; id <= tasks; id++) {
+            long owner = 1 + id % users;
+            String name = words(random, 3);
+            String description = random.nextBoolean() ? words(random, 12) : null;
+            rows.add(new Object[] {id, owner, name, description, random.nextInt(10) == 0});
+            documents.add(new TaskSearchIndex.Document(id, owner, SearchTerms.weigh(name, description, List.of())));
+            if (rows.size() == BATCH) {
+                flush(rows, documents);
+            }
+        }
+        flush(rows, documents);
+        userId = 1L + users / 2;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private void flush(List<Object[]> rows, List<TaskSearchIndex.Document> documents) {
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, user_id, name, description, trashed) VALUES (?, ?, ?, ?, ?)",
+                rows);
+        searchIndex.replace(documents);
+        rows.clear();
+        documents.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<TaskSearchIndex.Hit> indexedPrefixSearch() {
+        return searchIndex.search(userId, SearchTerms.query("inform trimes"), 0, 20);
+    }
+
+    @Benchmark
+    public List<Long> likeScan() {
+        // Sin índice: recorre todas las tareas del usuario, no ignora tildes y no ordena por relevancia
+        return jdbcTemplate.queryForList("SELECT id FROM tasks WHERE user_id = ? AND trashed = false "
+                + "AND (LOWER(name) LIKE ? OR LOWER(description) LIKE ?) "
+                + "AND (LOWER(name) LIKE ? OR LOWER(description) LIKE ?) ORDER BY id DESC LIMIT 20",
+                Long.class, userId, "%inform%", "%inform%", "%trimes%", "%trimes%");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TaskSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,293 @@
+package com.todus.benchmarks;
+
+import com.todus.TodusApplication;
+import com.todus.category.Category;
+import com.todus.category.CategoryRepository;
+import com.todus.enums.ImageType;
+import com.todus.enums.Status;
+import com.todus.image.Image;
+import com.todus.image.ImageRepository;
+import com.todus.priority.Priority;
+import com.todus.priority.PriorityRepository;
+import com.todus.task.Task;
+import com.todus.task.TaskRepository;
+import com.todus.user.User;
+import com.todus.user.UserRepository;
+import com.todus.util.JwtUtil;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga de la aplicación completa con Tomcat sobre hilos de plataforma y sobre
+ * hilos virtuales (spring.threads.virtual.enabled). Arranca la aplicación dos veces contra
+ * una base H2 en memoria, crea {@code users} usuarios con {@code tasks} tareas cada uno y
+ * lanza {@code concurrency} clientes que piden sin pausa {@code path} durante
+ * {@code seconds} segundos. Muestra peticiones por segundo, latencias (p50/p95/p99/máx.)
+ * y respuestas con error (p. ej. 503 de ConnectionPoolGuard).
+ *
+ * H2 en memoria no espera nunca a la red: cada sentencia se retrasa {@code dbLatencyMs}
+ * para que las peticiones se bloqueen como lo harían contra MySQL.
+ *
+ * Ejecutar con (los valores son los de por defecto):
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.todus.benchmarks.VirtualThreadLoadBenchmark
+ *     -Dconcurrency=1000 -Dseconds=20 -Dwarmup=5 -DdbLatencyMs=2 -DpoolSize=50 -Dusers=100 -Dtasks=200
+ *     -Dpath=/api/tasks/page?size=20
+ */
+public class VirtualThreadLoadBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("concurrency", 1000);
+    private static final int SECONDS = Integer.getInteger("seconds", 20);
+    private static final int WARMUP = Integer.getInteger("warmup", 5);
+    private static final long DB_LATENCY_MS = Long.getLong("dbLatencyMs", 2);
+    private static final int POOL_SIZE = Integer.getInteger("poolSize", 50);
+    private static final int USERS = Integer.getInteger("users", 100);
+    private static final int TASKS = Integer.getInteger("tasks", 200);
+    private static final String PATH = System.getProperty("path", "/api/tasks/page?size=20");
+
+    record Result(String mode, long requests, long errors, double seconds, List<Long> latenciesNanos) {
+
+        double throughput() {
+            return requests / seconds;
+        }
+
+        double percentileMs(double p) {
+            if (latenciesNanos.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100 * latenciesNanos.size()) - 1;
+            return latenciesNanos.get(Math.max(index, 0)) / 1_000_000.0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(run(false));
+        results.add(run(true));
+
+        System.out.printf("%nConcurrencia %d, %d s, latencia de BD %d ms, pool %d, %s%n",
+                CONCURRENCY, SECONDS, DB_LATENCY_MS, POOL_SIZE, PATH);
+        System.out.printf("%-10s %10s %8s %10s %10s %10s %10s%n", "modo", "pet./s", "errores", "p50 ms", "p95 ms",
+                "p99 ms", "máx. ms");
+        for (Result result : results) {
+            System.out.printf("%-10s %10.1f %8d %10.1f %10.1f %10.1f %10.1f%n", result.mode(), result.throughput(),
+                    result.errors(), result.percentileMs(50), result.percentileMs(95), result.percentileMs(99),
+                    result.percentileMs(100));
+        }
+        System.exit(0);
+    }
+
+    private static Result run(boolean virtual) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        AtomicLong latency = new AtomicLong();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TodusApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SlowDatabase(latency)))
+                .run();
+        try {
+            List<String> tokens = seed(context);
+            latency.set(DB_LATENCY_MS);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + PATH);
+
+            System.out.println("🔥 " + mode + ": calentando " + WARMUP + " s");
+            load(uri, tokens, WARMUP, mode);
+            System.out.println("📊 " + mode + ": midiendo " + SECONDS + " s");
+            return load(uri, tokens, SECONDS, mode);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<String> seed(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ImageRepository imageRepository = context.getBean(ImageRepository.class);
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        PriorityRepository priorityRepository = context.getBean(PriorityRepository.class);
+        TaskRepository taskRepository = context.getBean(TaskRepository.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+
+        Image image = new Image();
+        image.setImageUrl("carga.png");
+        image.setImageType(ImageType.CATEGORY);
+        image = imageRepository.save(image);
+
+        List<String> tokens = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setName("carga" + u);
+            user.setSurname("Prueba");
+            user.setNickname("carga" + u);
+            user.setEmail("carga" + u + "@todus.test");
+            user.setPassword("pwd");
+            user = userRepository.save(user);
+
+            Category category = new Category();
+            category.setName("General");
+            category.setImage(image);
+            category.setUser(user);
+            category = categoryRepository.save(category);
+
+            Priority priority = new Priority();
+            priority.setName("Media");
+            priority.setLevel(2);
+            priority.setUser(user);
+            priority = priorityRepository.save(priority);
+
+            List<Task> tasks = new ArrayList<>();
+            for (int t = 0; t < TASKS; t++) {
+                Task task = new Task();
+                task.setName("Tarea " + t);
+                task.setDateCreated(LocalDateTime.now().minusMinutes(t));
+                task.setDueDate(LocalDateTime.now().plusDays(t % 30));
+                if (t % 4 == 0) {
+                    task.setStatus(Status.COMPLETED);
+                    task.setCompletedAt(LocalDateTime.now());
+                } else {
+                    task.setStatus(Status.PENDENT);
+                }
+                task.setTrashed(false);
+                task.setUser(user);
+                task.setCategory(category);
+                task.setPriority(priority);
+                tasks.add(task);
+            }
+            taskRepository.saveAll(tasks);
+            tokens.add("Bearer " + jwtUtil.generateToken(user.getEmail()));
+        }
+        return tokens;
+    }
+
+    /**
+     * Cada cliente es un hilo virtual que repite la petición, con su propio usuario, hasta
+     * que se acaba el tiempo.
+     */
+    private static Result load(URI uri, List<String> tokens, int seconds, String mode) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long start = System.nanoTime();
+        long end = start + Duration.ofSeconds(seconds).toNanos();
+        List<List<Long>> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                String token = tokens.get(c % tokens.size());
+                clients.submit(() -> {
+                    List<Long> mine = new ArrayList<>();
+                    HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", token)
+                            .timeout(Duration.ofSeconds(60)).GET().build();
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        mine.add(System.nanoTime() - sent);
+                    }
+                    latencies.add(mine);
+                    return null;
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        List<Long> all = new ArrayList<>();
+        latencies.forEach(all::addAll);
+        Collections.sort(all);
+        return new Result(mode, all.size(), errors.get(), elapsed, all);
+    }
+
+    /**
+     * Envuelve la fuente de datos para que cada sentencia espere {@code latency} ms antes
+     * de ejecutarse, con la conexión tomada, como una ida y vuelta por la red.
+     */
+    static class SlowDatabase implements BeanPostProcessor {
+
+        private final AtomicLong latency;
+
+        SlowDatabase(AtomicLong latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        return proxy(Connection.class, super.getConnection());
+                    }
+
+                    @Override
+                    public Connection getConnection(String username, String password) throws SQLException {
+                        return proxy(Connection.class, super.getConnection(username, password));
+                    }
+                };
+            }
+            return bean;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (proxy, method, args) -> intercept(target, method, args));
+        }
+
+        private Object intercept(Object target, Method method, Object[] args) throws Throwable {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                Thread.sleep(latency.get());
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement);
+            }
+            if (method.getName().equals("createStatement") && result instanceof Statement statement) {
+                return proxy(Statement.class, statement);
+            }
+            return result;
+        }
+    }
+}
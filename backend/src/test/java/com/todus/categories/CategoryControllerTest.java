@@ -3,6 +3,9 @@ package com.todus.categories;
 import com.todus.category.Category;
 import com.todus.category.CategoryDTO;
 import com.todus.category.CategoryService;
+import com.todus.sync.ListVersionService;
+import com.todus.user.AuthService;
+import com.todus.user.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -15,7 +18,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +33,12 @@ public class CategoryControllerTest {
     @MockBean
     private CategoryService categoryService;
 
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private ListVersionService listVersions;
+
     @Test
     void testGetAllCategories() throws Exception {
         Category c1 = new Category();
@@ -54,14 +63,26 @@ public class CategoryControllerTest {
         c1.setId(10L);
         c1.setName("Estudio");
 
+        User user = new User();
+        user.setId(1L);
+        when(authService.getAuthenticatedUser("dummy-token")).thenReturn(user);
+        when(listVersions.categoryListTag(1L)).thenReturn("\"c4\"");
         when(categoryService.getAllUserCategories("dummy-token"))
                 .thenReturn(List.of(c1));
 
         mockMvc.perform(get("/api/categories/all")
                 .header("Authorization", "dummy-token"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"c4\""))
                 .andExpect(jsonPath("$[0].id").value(10))
                 .andExpect(jsonPath("$[0].name").value("Estudio"));
+
+        // Con la misma versión: 304 sin cargar las categorías
+        mockMvc.perform(get("/api/categories/all")
+                .header("Authorization", "dummy-token")
+                .header("If-None-Match", "\"c4\""))
+                .andExpect(status().isNotModified());
+        verify(categoryService, times(1)).getAllUserCategories("dummy-token");
     }
 
     @Test
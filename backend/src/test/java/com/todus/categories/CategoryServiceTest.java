@@ -1,14 +1,21 @@
 package com.todus.categories;
 
 import com.todus.category.Category;
+import com.todus.category.CategoryChangedEvent;
 import com.todus.category.CategoryDTO;
 import com.todus.category.CategoryRepository;
 import com.todus.category.CategoryService;
 import com.todus.enums.OrderTask;
 import com.todus.image.Image;
 import com.todus.image.ImageRepository;
+import com.todus.search.TaskSearchIndex;
+import com.todus.enums.SyncEntityType;
 import com.todus.studyMethod.StudyMethod;
 import com.todus.studyMethod.StudyMethodRepository;
+import com.todus.stats.StatsRollupService;
+import com.todus.sync.ListVersionService;
+import com.todus.sync.SyncService;
+import com.todus.task.Task;
 import com.todus.user.User;
 import com.todus.user.UserRepository;
 import com.todus.util.JwtUtil;
@@ -17,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 
@@ -32,6 +40,11 @@ class CategoryServiceTest {
     @Mock private ImageRepository imageRepository;
     @Mock private StudyMethodRepository studyMethodRepository;
     @Mock private JwtUtil jwtUtil;
+    @Mock private StatsRollupService statsRollup;
+    @Mock private ApplicationEventPublisher events;
+    @Mock private SyncService syncService;
+    @Mock private ListVersionService listVersions;
+    @Mock private TaskSearchIndex searchIndex;
 
     @InjectMocks private CategoryService categoryService;
 
@@ -158,7 +171,7 @@ class CategoryServiceTest {
         existing.setUser(user);
         existing.setImage(new Image());  // initial image
 
-        when(categoryRepository.findById(20L)).thenReturn(Optional.of(existing));
+        when(categoryRepository.findByIdAndUserId(20L, user.getId())).thenReturn(Optional.of(existing));
 
         CategoryDTO dto = new CategoryDTO();
         dto.setName("NewName");
@@ -189,7 +202,8 @@ class CategoryServiceTest {
 
     @Test
     void updateCategory_notFound_throws() {
-        when(categoryRepository.findById(30L)).thenReturn(Optional.empty());
+        when(categoryRepository.findByIdAndUserId(30L, user.getId())).thenReturn(Optional.empty());
+        when(categoryRepository.existsById(30L)).thenReturn(false);
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> categoryService.updateCategory(token, 30L, new CategoryDTO()));
         assertEquals("Categoría no encontrada", ex.getMessage());
@@ -202,7 +216,8 @@ class CategoryServiceTest {
         Category existing = new Category();
         existing.setId(40L);
         existing.setUser(other);
-        when(categoryRepository.findById(40L)).thenReturn(Optional.of(existing));
+        when(categoryRepository.findByIdAndUserId(40L, user.getId())).thenReturn(Optional.empty());
+        when(categoryRepository.existsById(40L)).thenReturn(true);
 
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> categoryService.updateCategory(token, 40L, new CategoryDTO()));
@@ -214,16 +229,26 @@ class CategoryServiceTest {
         Category existing = new Category();
         existing.setId(50L);
         existing.setUser(user);
-        when(categoryRepository.findById(50L)).thenReturn(Optional.of(existing));
+        Task task = new Task();
+        task.setId(51L);
+        existing.setTasks(List.of(task));
+        when(categoryRepository.findByIdAndUserId(50L, user.getId())).thenReturn(Optional.of(existing));
 
         Map<String,String> resp = categoryService.deleteCategory(token, 50L);
         assertEquals("Categoría eliminada correctamente", resp.get("message"));
         verify(categoryRepository).delete(existing);
+        verify(statsRollup).rebuild(user.getId());
+        verify(syncService).recordDeleted(user.getId(), SyncEntityType.CATEGORY, List.of(50L));
+        verify(syncService).recordDeleted(user.getId(), SyncEntityType.TASK, List.of(51L));
+        verify(searchIndex).remove(List.of(51L));
+        verify(events).publishEvent(new CategoryChangedEvent(user.getId(), 50L, CategoryChangedEvent.Change.DELETED));
+        verify(listVersions).bumpCategories(user.getId());
     }
 
     @Test
     void deleteCategory_notFound_throws() {
-        when(categoryRepository.findById(60L)).thenReturn(Optional.empty());
+        when(categoryRepository.findByIdAndUserId(60L, user.getId())).thenReturn(Optional.empty());
+        when(categoryRepository.existsById(60L)).thenReturn(false);
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> categoryService.deleteCategory(token, 60L));
         assertEquals("Categoría no encontrada", ex.getMessage());
@@ -235,7 +260,8 @@ class CategoryServiceTest {
         Category existing = new Category();
         existing.setId(70L);
         existing.setUser(other);
-        when(categoryRepository.findById(70L)).thenReturn(Optional.of(existing));
+        when(categoryRepository.findByIdAndUserId(70L, user.getId())).thenReturn(Optional.empty());
+        when(categoryRepository.existsById(70L)).thenReturn(true);
 
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> categoryService.deleteCategory(token, 70L));
@@ -1,14 +1,17 @@
 package com.todus.priorities;
 
 import com.todus.priority.Priority;
+import com.todus.priority.PriorityChangedEvent;
 import com.todus.priority.PriorityRepository;
 import com.todus.priority.PriorityService;
-import com.todus.task.Task;
+import com.todus.sync.ListVersionService;
+import com.todus.user.User;
 import com.todus.task.TaskRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 
@@ -24,6 +27,12 @@ class PriorityServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private ListVersionService listVersions;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private PriorityService priorityService;
 
@@ -67,8 +76,11 @@ class PriorityServiceTest {
 
     @Test
     void save_delegatesToRepository() {
+        User owner = new User();
+        owner.setId(3L);
         Priority toSave = new Priority();
         toSave.setName("Urgente");
+        toSave.setUser(owner);
 
         Priority saved = new Priority();
         saved.setId(10L);
@@ -79,25 +91,36 @@ class PriorityServiceTest {
         Priority result = priorityService.save(toSave);
         assertSame(saved, result);
         verify(priorityRepository).save(toSave);
+        verify(listVersions).bumpPriorities(3L);
+        verify(events).publishEvent(new PriorityChangedEvent(3L, 10L, PriorityChangedEvent.Change.CREATED));
     }
 
     @Test
     void hasTasksWithPriority_whenTasksExist_returnsTrue() {
-        List<Task> tasks = List.of(new Task(), new Task());
-        when(taskRepository.findByPriorityId(7L)).thenReturn(tasks);
+        when(taskRepository.existsByPriorityId(7L)).thenReturn(true);
 
         boolean has = priorityService.hasTasksWithPriority(7L);
         assertTrue(has);
-        verify(taskRepository).findByPriorityId(7L);
+        verify(taskRepository).existsByPriorityId(7L);
     }
 
     @Test
     void hasTasksWithPriority_whenNoTasks_returnsFalse() {
-        when(taskRepository.findByPriorityId(8L)).thenReturn(Collections.emptyList());
+        when(taskRepository.existsByPriorityId(8L)).thenReturn(false);
 
         boolean has = priorityService.hasTasksWithPriority(8L);
         assertFalse(has);
-        verify(taskRepository).findByPriorityId(8L);
+        verify(taskRepository).existsByPriorityId(8L);
     }
-}
 
+    @Test
+    void getOwnedPriority_ofAnotherUser_throws() {
+        User user = new User();
+        user.setId(1L);
+        when(priorityRepository.findByIdAndUserId(9L, 1L)).thenReturn(Optional.empty());
+        when(priorityRepository.existsById(9L)).thenReturn(true);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> priorityService.getOwnedPriority(user, 9L));
+        assertEquals("No tienes permisos para modificar esta prioridad", ex.getMessage());
+    }
+}
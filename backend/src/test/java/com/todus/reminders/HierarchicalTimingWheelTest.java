@@ -0,0 +1,66 @@
+package com.todus.reminders;
+
+import com.todus.reminder.HierarchicalTimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static List<String> values(List<HierarchicalTimingWheel.Entry<String>> entries) {
+        return entries.stream().map(HierarchicalTimingWheel.Entry::getValue).toList();
+    }
+
+    @Test
+    void advance_firesEachEntryInItsTick_cascadingFromHigherLevels() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 10, 0);
+
+        assertNull(wheel.schedule(500, "ya vencida"));
+        wheel.schedule(1_500, "segundo");
+        wheel.schedule(25_000, "decenas");
+        wheel.schedule(350_000, "centenas");
+        assertEquals(3, wheel.size());
+
+        assertEquals(List.of(), values(wheel.advance(999)));
+        assertEquals(List.of("segundo"), values(wheel.advance(1_000)));
+        assertEquals(List.of(), values(wheel.advance(24_999)));
+        assertEquals(List.of("decenas"), values(wheel.advance(25_000)));
+        assertEquals(List.of(), values(wheel.advance(349_999)));
+        assertEquals(List.of("centenas"), values(wheel.advance(350_000)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_dropsTheEntryOnce() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 10, 0);
+        HierarchicalTimingWheel.Entry<String> entry = wheel.schedule(5_000, "anulada");
+
+        assertTrue(wheel.cancel(entry));
+        assertFalse(wheel.cancel(entry));
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), values(wheel.advance(10_000)));
+    }
+
+    @Test
+    void advance_manyEntries_eachFiresExactlyOnceInItsTick() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1000, 60, 0);
+        Random random = new Random(7);
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            wheel.schedule(1_000 + random.nextLong(3_599_000), (long) i);
+        }
+
+        int fired = 0;
+        for (long now = 1_000; now <= 3_600_000; now += 1_000) {
+            for (HierarchicalTimingWheel.Entry<Long> entry : wheel.advance(now)) {
+                assertEquals(now, entry.getExpiration() - entry.getExpiration() % 1_000);
+                fired++;
+            }
+        }
+        assertEquals(count, fired);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,153 @@
+package com.todus.reminders;
+
+import com.todus.enums.Status;
+import com.todus.priority.Priority;
+import com.todus.reminder.Reminder;
+import com.todus.reminder.ReminderScheduler;
+import com.todus.task.Task;
+import com.todus.task.TaskChangedEvent;
+import com.todus.task.TaskRepository;
+import com.todus.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ReminderSchedulerTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private TaskRepository taskRepository;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 20, 10, 0);
+    // Destino en memoria
+    private final List<Reminder> sent = new ArrayList<>();
+
+    private User user;
+    private Priority priority;
+    private Task report;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Ana"); user.setSurname("Ruiz"); user.setNickname("ana");
+        user.setEmail("ana@x.com"); user.setPassword("pwd");
+        em.persist(user);
+
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+
+        report = task("informe", now.plusMinutes(30), Status.PENDENT);
+        task("lejana", now.plusHours(5), Status.PENDENT);
+        task("hecha", now.plusMinutes(10), Status.COMPLETED);
+        task("vencida", now.minusHours(1), Status.PENDENT);
+        task("sin fecha", null, Status.PENDENT);
+        em.flush();
+    }
+
+    private Task task(String name, LocalDateTime dueDate, Status status) {
+        Task t = new Task();
+        t.setName(name); t.setPriority(priority); t.setUser(user); t.setStatus(status);
+        t.setTrashed(false); t.setDueDate(dueDate);
+        return em.persist(t);
+    }
+
+    private ReminderScheduler scheduler() {
+        // Lotes de 2 para recorrer la ventana en varias consultas
+        return new ReminderScheduler(taskRepository, sent::add, new SimpleMeterRegistry(), 1000, 120, 2);
+    }
+
+    @Test
+    void tick_loadsPendingTasksInTheWindow_andFiresThemAtDueTime() {
+        ReminderScheduler scheduler = scheduler();
+
+        assertEquals(0, scheduler.tick(now));
+        assertEquals(1, scheduler.pending());
+        assertEquals(0, scheduler.tick(now.plusMinutes(29).plusSeconds(59)));
+        assertEquals(1, scheduler.tick(now.plusMinutes(30)));
+
+        assertEquals(List.of("informe"), sent.stream().map(Reminder::taskName).toList());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void tick_slidesTheWindowForward() {
+        ReminderScheduler scheduler = scheduler();
+        scheduler.tick(now);
+
+        // Con retraso: el informe se avisa tarde y la tarea lejana entra en la ventana
+        assertEquals(1, scheduler.tick(now.plusHours(4)));
+        assertEquals(1, scheduler.pending());
+        assertEquals(1, scheduler.tick(now.plusHours(5)));
+        assertEquals(List.of("informe", "lejana"), sent.stream().map(Reminder::taskName).toList());
+    }
+
+    @Test
+    void reload_movesOrCancelsTheReminder() {
+        ReminderScheduler scheduler = scheduler();
+        scheduler.tick(now);
+
+        report.setDueDate(now.plusMinutes(45));
+        em.flush();
+        assertEquals(List.of(), scheduler.reload(List.of(report.getId()), now));
+        assertEquals(0, scheduler.tick(now.plusMinutes(30)));
+        assertEquals(1, scheduler.pending());
+
+        report.setStatus(Status.COMPLETED);
+        em.flush();
+        scheduler.reload(List.of(report.getId()), now.plusMinutes(31));
+        assertEquals(0, scheduler.pending());
+        assertEquals(0, scheduler.tick(now.plusMinutes(45)));
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    void onTaskChanged_reloadsTheTransactionsTasksOnceCommitted() {
+        ReminderScheduler scheduler = scheduler();
+        scheduler.tick(now);
+
+        report.setStatus(Status.COMPLETED);
+        em.flush();
+        scheduler.onTaskChanged(new TaskChangedEvent(user.getId(), report.getId(), TaskChangedEvent.Change.COMPLETED));
+        scheduler.onTaskChanged(new TaskChangedEvent(user.getId(), report.getId(), TaskChangedEvent.Change.UPDATED));
+        // Aún sin confirmar: sigue programado
+        assertEquals(1, scheduler.pending());
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void tick_skipsTasksChangedWithoutEvent_andSurvivesAFailingSink() {
+        ReminderScheduler scheduler = scheduler();
+        scheduler.tick(now);
+        // Un cambio por lotes que no avisa de qué tareas tocó
+        report.setTrashed(true);
+        em.flush();
+        assertEquals(0, scheduler.tick(now.plusMinutes(30)));
+        assertTrue(sent.isEmpty());
+
+        task("otra", now.plusMinutes(40), Status.PENDENT);
+        em.flush();
+        ReminderScheduler failing = new ReminderScheduler(taskRepository, reminder -> {
+            throw new IllegalStateException("sin conexión");
+        }, new SimpleMeterRegistry(), 1000, 120, 2);
+        failing.tick(now);
+        assertEquals(0, failing.tick(now.plusMinutes(40)));
+        assertEquals(0, failing.pending());
+    }
+}
@@ -0,0 +1,207 @@
+package com.todus.search;
+
+import com.todus.enums.Status;
+import com.todus.priority.Priority;
+import com.todus.priority.PriorityRepository;
+import com.todus.stats.StatsRollupService;
+import com.todus.subTask.SubTaskDTO;
+import com.todus.subTask.SubTaskService;
+import com.todus.sync.SyncService;
+import com.todus.task.Task;
+import com.todus.task.TaskChangedEvent;
+import com.todus.task.TaskDTO;
+import com.todus.task.TaskPurgeService;
+import com.todus.task.TaskRepository;
+import com.todus.task.TaskService;
+import com.todus.user.User;
+import com.todus.user.UserRepository;
+import com.todus.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sin transacción de test: el índice se actualiza al confirmar cada cambio, así que cada
+ * llamada al servicio tiene que confirmarse de verdad. Las tablas se vacían al terminar.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TaskSearchService.class, TaskSearchIndex.class, TaskService.class, SubTaskService.class, SyncService.class})
+class TaskSearchServiceTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private PriorityRepository priorityRepository;
+    @Autowired private TaskSearchService searchService;
+    @Autowired private TaskSearchIndex searchIndex;
+    @Autowired private TaskService taskService;
+    @Autowired private SubTaskService subTaskService;
+    @Autowired private TaskRepository taskRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @MockBean private JwtUtil jwtUtil;
+    @MockBean private StatsRollupService statsRollup;
+    @MockBean private TaskPurgeService taskPurgeService;
+
+    private User user;
+    private User other;
+    private Priority priority;
+
+    @BeforeEach
+    void setUp() {
+        user = user("ana");
+        other = user("luis");
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        priority = priorityRepository.save(priority);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("task_search_terms", "subtasks", "sync_tombstones", "user_list_versions",
+                "tasks", "priorities", "users")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    private User user(String nickname) {
+        User u = new User();
+        u.setName(nickname); u.setSurname("Ruiz"); u.setNickname(nickname);
+        u.setEmail(nickname + "@x.com"); u.setPassword("pwd");
+        return userRepository.save(u);
+    }
+
+    private Task create(String name, String description) {
+        TaskDTO dto = new TaskDTO();
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setPriorityId(priority.getId());
+        return taskService.createTask(user, dto);
+    }
+
+    private List<Long> ids(String q) {
+        return searchService.search(user, q, 0, 20).hits().stream().map(TaskSearchIndex.Hit::taskId).toList();
+    }
+
+    @Test
+    void search_ignoresCaseAndAccents_andMatchesPrefixes() {
+        Task task = create("Ensayar la CANCIÓN", "Para la fiesta de cumpleaños");
+
+        assertEquals(List.of(task.getId()), ids("cancion"));
+        assertEquals(List.of(task.getId()), ids("Canción"));
+        assertEquals(List.of(task.getId()), ids("ensa"));
+        assertEquals(List.of(task.getId()), ids("cumpleanos fiesta"));
+        // Todas las palabras tienen que aparecer
+        assertEquals(List.of(), ids("fiesta sorpresa"));
+        // "la" es una palabra vacía, pero "de" al final puede ser el principio de otra
+        assertEquals(List.of(), ids("de"));
+    }
+
+    @Test
+    void search_foldsLettersWithoutDecomposition_soSpellingsShareOneTerm() {
+        // "straße" y "strasse" chocaban como clave en MySQL con la collation por defecto
+        Task task = create("Straße Strasse", "Ærø, œuvre, ﬁcha");
+
+        assertEquals(List.of(task.getId()), ids("strasse"));
+        assertEquals(List.of(task.getId()), ids("STRASSE"));
+        assertEquals(List.of(task.getId()), ids("aero oeuvre ficha"));
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM task_search_terms WHERE task_id = ? AND term = 'strasse'", Integer.class, task.getId()));
+    }
+
+    @Test
+    void search_ranksNameAboveSubTasksAboveDescription() {
+        Task inDescription = create("Revisar correo", "Preparar el informe");
+        Task inSubTask = create("Reunión", null);
+        SubTaskDTO subTask = new SubTaskDTO();
+        subTask.setName("Enviar informe");
+        subTaskService.createSubTask(subTask, inSubTask);
+        Task inName = create("Informe trimestral", null);
+        Task prefixOnly = create("Informes antiguos", null);
+
+        assertEquals(List.of(inName.getId(), prefixOnly.getId(), inSubTask.getId(), inDescription.getId()),
+            ids("informe"));
+    }
+
+    @Test
+    void search_followsUpdates_andSkipsTrashAndOtherUsers() {
+        Task task = create("Pintar la valla", null);
+        Task trashed = create("Pintar el salón", null);
+        taskService.trashTask(user, trashed.getId());
+
+        TaskDTO rename = new TaskDTO();
+        rename.setName("Arreglar la valla");
+        rename.setPriorityId(priority.getId());
+        taskService.updateTask(user, task.getId(), rename);
+
+        assertEquals(List.of(), ids("pintar"));
+        assertEquals(List.of(task.getId()), ids("arreglar valla"));
+        assertEquals(List.of(), searchService.search(other, "valla", 0, 20).hits());
+    }
+
+    @Test
+    void onTaskChanged_reindexesTheWholeBatch_andSkipsChangesWithoutText() {
+        Task first = create("Regar las plantas", null);
+        Task second = create("Regar el huerto", null);
+        jdbcTemplate.update("DELETE FROM task_search_terms");
+
+        searchService.onTaskChanged(TaskChangedEvent.ofTasks(user.getId(),
+            List.of(first.getId(), second.getId()), TaskChangedEvent.Change.MOVED));
+        assertEquals(List.of(), ids("regar"));
+
+        searchService.onTaskChanged(TaskChangedEvent.ofTasks(user.getId(),
+            List.of(first.getId(), second.getId()), TaskChangedEvent.Change.UPDATED));
+        assertEquals(2, ids("regar").size());
+    }
+
+    @Test
+    void search_paginatesInRankOrder() {
+        for (int i = 0; i < 5; i++) {
+            create("Lectura " + i, null);
+        }
+
+        TaskSearchResultDTO first = searchService.search(user, "lectura", 0, 2);
+        TaskSearchResultDTO last = searchService.search(user, "lectura", 2, 2);
+
+        assertEquals(2, first.hits().size());
+        assertTrue(first.hasMore());
+        assertEquals(1, last.hits().size());
+        assertFalse(last.hasMore());
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(user, "lectura", 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(user, " ", 0, 20));
+    }
+
+    @Test
+    void reindexJob_indexesExistingTasks_andDropsOrphans() {
+        // Tareas guardadas sin pasar por el servicio (anteriores al índice)
+        Task old = new Task();
+        old.setName("Renovar pasaporte"); old.setPriority(priority); old.setUser(user);
+        old.setStatus(Status.PENDENT); old.setTrashed(false);
+        old = taskRepository.save(old);
+        Task gone = create("Renovar seguro", null);
+        jdbcTemplate.update("DELETE FROM tasks WHERE id = ?", gone.getId());
+
+        TaskSearchReindexJob job = new TaskSearchReindexJob(taskRepository, searchService, searchIndex,
+            new SimpleMeterRegistry(), 1, 0);
+
+        assertEquals(1, job.reindexAll());
+        assertEquals(List.of(old.getId()), ids("renovar"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM task_search_terms WHERE task_id = ?", Integer.class, gone.getId()));
+    }
+}
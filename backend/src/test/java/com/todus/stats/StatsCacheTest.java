@@ -0,0 +1,85 @@
+package com.todus.stats;
+
+import com.todus.stats.dto.MonthComparisonDTO;
+import com.todus.stats.dto.StatsDTO;
+import com.todus.task.TaskChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsCacheTest {
+
+    private final StatsCache cache = new StatsCache(10, 300);
+
+    private StatsDTO stats(long total) {
+        return new StatsDTO(total, 0, total, 0, List.of(), 0, List.of(), List.of(), 0,
+            new MonthComparisonDTO(0, 0), 0, 0, 0, 0, 0, 0, List.of());
+    }
+
+    @Test
+    void getOrCompute_computesOncePerUser() {
+        AtomicInteger calls = new AtomicInteger();
+        StatsCache.CachedStats first = cache.getOrCompute(1L, () -> { calls.incrementAndGet(); return stats(3); });
+        StatsCache.CachedStats second = cache.getOrCompute(1L, () -> { calls.incrementAndGet(); return stats(3); });
+
+        assertEquals(1, calls.get());
+        assertSame(first, second);
+        assertTrue(first.etag().startsWith("\""));
+    }
+
+    @Test
+    void taskChangedEvent_invalidatesOnlyThatUser() {
+        cache.getOrCompute(1L, () -> stats(3));
+        cache.getOrCompute(2L, () -> stats(5));
+
+        cache.onTaskChanged(new TaskChangedEvent(1L, 9L, TaskChangedEvent.Change.COMPLETED));
+
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+    }
+
+    @Test
+    void etag_dependsOnContentOnly() {
+        String etag = cache.getOrCompute(1L, () -> stats(3)).etag();
+        cache.invalidate(1L);
+        assertEquals(etag, cache.getOrCompute(1L, () -> stats(3)).etag());
+        cache.invalidate(1L);
+        assertNotEquals(etag, cache.getOrCompute(1L, () -> stats(4)).etag());
+    }
+
+    @Test
+    void resultComputedDuringInvalidation_isNotCached() {
+        StatsCache.CachedStats stale = cache.getOrCompute(1L, () -> {
+            cache.invalidate(1L);
+            return stats(3);
+        });
+
+        assertNotNull(stale);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void invalidationRecords_areBounded_andForgettingOneStillRejectsOlderResults() {
+        StatsCache small = new StatsCache(2, 300);
+        StatsCache.CachedStats stale = small.getOrCompute(1L, () -> {
+            // Invalidaciones de más usuarios de los que se recuerdan, incluido el 1
+            small.invalidate(1L);
+            small.invalidate(2L);
+            small.invalidate(3L);
+            small.invalidate(4L);
+            return stats(3);
+        });
+
+        assertNotNull(stale);
+        assertNull(small.get(1L));
+        assertEquals(2, small.trackedInvalidations());
+
+        // Lo que empieza después sí se guarda
+        small.getOrCompute(1L, () -> stats(3));
+        assertNotNull(small.get(1L));
+    }
+}
+
@@ -0,0 +1,196 @@
+package com.todus.stats;
+
+import com.todus.category.Category;
+import com.todus.enums.ImageType;
+import com.todus.enums.Status;
+import com.todus.image.Image;
+import com.todus.priority.Priority;
+import com.todus.stats.dto.StatsDTO;
+import com.todus.stats.dto.TimeSlotDTO;
+import com.todus.subTask.SubTask;
+import com.todus.task.Task;
+import com.todus.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StatsService.class, StatsRollupService.class})
+class StatsServiceTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private StatsService statsService;
+    @Autowired private StatsRollupService statsRollup;
+    @Autowired private UserStatsRepository userStatsRepository;
+
+    private User user;
+    private Category category;
+    private Priority priority;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Ana"); user.setSurname("Ruiz"); user.setNickname("ana");
+        user.setEmail("ana@x.com"); user.setPassword("pwd");
+        em.persist(user);
+
+        Image image = new Image();
+        image.setImageUrl("prueba.png"); image.setImageType(ImageType.CATEGORY);
+        em.persist(image);
+
+        category = new Category();
+        category.setName("Trabajo"); category.setImage(image); category.setUser(user);
+        em.persist(category);
+
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+    }
+
+    private Task task(Status status, boolean trashed, LocalDateTime created, LocalDateTime completedAt) {
+        Task t = new Task();
+        t.setName("t");
+        t.setDateCreated(created);
+        t.setCompletedAt(completedAt);
+        t.setPriority(priority);
+        t.setUser(user);
+        t.setCategory(category);
+        t.setStatus(status);
+        t.setTrashed(trashed);
+        return em.persist(t);
+    }
+
+    @Test
+    void getStatsForUser_buildsRollupOnFirstRead() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime today = now.toLocalDate().atTime(10, 15);
+        Task done = task(Status.COMPLETED, false, today.minusHours(4), today);
+        task(Status.COMPLETED, false, today.minusDays(1).minusHours(2), today.minusDays(1));
+        Task late = task(Status.PENDENT, false, now.minusDays(2), null);
+        late.setDueDate(now.minusDays(1));
+        task(Status.PENDENT, true, now.minusDays(3), null);
+
+        SubTask sub = new SubTask();
+        sub.setName("s"); sub.setStatus(Status.COMPLETED); sub.setTask(done);
+        em.persist(sub);
+        SubTask open = new SubTask();
+        open.setName("s2"); open.setStatus(Status.PENDENT); open.setTask(done);
+        em.persist(open);
+        em.flush();
+        em.clear();
+        assertTrue(userStatsRepository.findById(user.getId()).isEmpty());
+
+        StatsDTO stats = statsService.getStatsForUser("ana");
+
+        assertTrue(userStatsRepository.findById(user.getId()).isPresent());
+        assertEquals(3, stats.getTotalTasks());
+        assertEquals(2, stats.getCompletedTasks());
+        assertEquals(1, stats.getPendingTasks());
+        assertEquals(66.7, stats.getCompletionRate());
+        assertEquals(1, stats.getOverdueCount());
+        assertEquals(1, stats.getDeletedCount());
+        assertEquals(3.0, stats.getAvgCompletionTime(), 0.001);
+        assertEquals(2, stats.getTotalSub());
+        assertEquals(1, stats.getSubtaskCompletedCount());
+        assertEquals(50.0, stats.getSubtaskCompletionRate());
+        assertEquals(2, stats.getCurrentStreak());
+
+        assertEquals(31, stats.getTasksByDay().size());
+        assertEquals(LocalDate.now(), stats.getTasksByDay().get(30).getDate());
+        assertEquals(1, stats.getTasksByDay().get(30).getCount());
+        assertEquals(4, stats.getTasksByCategory().get(0).getCount());
+        assertEquals("Alta", stats.getTasksByPriority().get(0).getPriority());
+        TimeSlotDTO slot = stats.getTasksByTimeSlot().get(5);
+        assertEquals("10-12", slot.getSlot());
+        assertEquals(2, slot.getCount());
+    }
+
+    @Test
+    void apply_incrementalChangesMatchRebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        Task old = task(Status.PENDENT, false, now.minusDays(5), null);
+        em.flush();
+        statsRollup.rebuild(user.getId());
+
+        // Crear, completar, reprogramar y enviar a la papelera aplicando solo deltas
+        Task created = task(Status.PENDENT, false, now.minusHours(2), null);
+        statsRollup.apply(null, TaskStatsSnapshot.of(created));
+
+        TaskStatsSnapshot before = TaskStatsSnapshot.of(old);
+        old.setStatus(Status.COMPLETED);
+        old.setCompletedAt(now);
+        statsRollup.apply(before, TaskStatsSnapshot.of(old));
+
+        before = TaskStatsSnapshot.of(created);
+        created.setRescheduled(true);
+        created.setTrashed(true);
+        statsRollup.apply(before, TaskStatsSnapshot.of(created));
+        em.flush();
+        em.clear();
+
+        StatsDTO incremental = statsService.getStatsForUser("ana");
+        statsRollup.rebuild(user.getId());
+        em.flush();
+        em.clear();
+        StatsDTO rebuilt = statsService.getStatsForUser("ana");
+
+        assertEquals(1, incremental.getTotalTasks());
+        assertEquals(1, incremental.getCompletedTasks());
+        assertEquals(1, incremental.getDeletedCount());
+        assertEquals(1, incremental.getRescheduledCount());
+        assertEquals(2, incremental.getMonthComparison().getThisMonth()
+            + incremental.getMonthComparison().getLastMonth());
+        assertEquals(rebuilt.getTotalTasks(), incremental.getTotalTasks());
+        assertEquals(rebuilt.getCompletedTasks(), incremental.getCompletedTasks());
+        assertEquals(rebuilt.getDeletedCount(), incremental.getDeletedCount());
+        assertEquals(rebuilt.getRescheduledCount(), incremental.getRescheduledCount());
+        assertEquals(rebuilt.getAvgCompletionTime(), incremental.getAvgCompletionTime(), 0.001);
+        assertEquals(rebuilt.getTasksByCategory().get(0).getCount(), incremental.getTasksByCategory().get(0).getCount());
+        assertEquals(rebuilt.getCurrentStreak(), incremental.getCurrentStreak());
+    }
+
+    @Test
+    void getStatsForUser_withoutTasksReturnsZeros() {
+        em.flush();
+        StatsDTO stats = statsService.getStatsForUser("ana");
+        assertEquals(0, stats.getTotalTasks());
+        assertEquals(0, stats.getCompletionRate());
+        assertEquals(0, stats.getAvgCompletionTime());
+        assertEquals(0, stats.getCurrentStreak());
+        assertTrue(stats.getTasksByCategory().isEmpty());
+    }
+
+    @Test
+    void insertIfMissing_createsTheRowOnlyOnce() {
+        assertEquals(1, userStatsRepository.insertIfMissing(user.getId()));
+        assertEquals(0, userStatsRepository.insertIfMissing(user.getId()));
+        em.clear();
+        assertEquals(0, userStatsRepository.findById(user.getId()).orElseThrow().getActiveTasks());
+    }
+
+    @Test
+    void firstChangeWithoutRollup_rebuildsIntoTheCreatedRow() {
+        task(Status.PENDENT, false, LocalDateTime.now(), null);
+        em.flush();
+
+        statsRollup.applySubTask(user.getId(), 0, 1);
+        em.flush();
+        em.clear();
+
+        UserStats stats = userStatsRepository.findById(user.getId()).orElseThrow();
+        assertEquals(1, stats.getActiveTasks());
+        assertEquals(0, stats.getSubtaskCompleted());
+    }
+}
@@ -2,16 +2,19 @@ package com.todus.subtasks;
 
 import com.todus.task.Task;
 import com.todus.task.TaskService;
+import com.todus.user.User;
 import com.todus.enums.Status;
 import com.todus.subTask.SubTask;
 import com.todus.subTask.SubTaskDTO;
 import com.todus.subTask.SubTaskService;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -35,6 +38,15 @@ class SubTaskControllerTest {
     @MockBean
     private TaskService taskService;
 
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        when(taskService.getAuthenticatedUser("TK")).thenReturn(user);
+    }
+
     @Test
     void testCreateSubTask() throws Exception {
         long taskId = 123L;
@@ -50,7 +62,7 @@ class SubTaskControllerTest {
         Task task = new Task();
         task.setId(taskId);
         task.setName("Tarea principal");
-        when(taskService.getTaskById(taskId)).thenReturn(task);
+        when(taskService.getOwnedTask(user, taskId)).thenReturn(task);
 
         // Simulación de la creación de la SubTask
         SubTask created = new SubTask();
@@ -61,6 +73,7 @@ class SubTaskControllerTest {
         when(subTaskService.createSubTask(any(SubTaskDTO.class), eq(task))).thenReturn(created);
 
         mockMvc.perform(post("/api/subtasks/create/{taskId}", taskId)
+                .header("Authorization", "TK")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(dtoJson))
                 .andExpect(status().isOk())
@@ -73,13 +86,31 @@ class SubTaskControllerTest {
     void testDeleteSubTask() throws Exception {
         long subTaskId = 55L;
         // No lanzamos excepción → OK
-        doNothing().when(subTaskService).deleteSubTask(subTaskId);
+        doNothing().when(subTaskService).deleteSubTask(1L, subTaskId);
 
-        mockMvc.perform(delete("/api/subtasks/delete/{id}", subTaskId))
+        mockMvc.perform(delete("/api/subtasks/delete/{id}", subTaskId).header("Authorization", "TK"))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Subtarea eliminada exitosamente"));
 
-        verify(subTaskService, times(1)).deleteSubTask(subTaskId);
+        verify(subTaskService, times(1)).deleteSubTask(1L, subTaskId);
+    }
+
+    @Test
+    void testDeleteAndUpdateSubTask_conflictReturns409() throws Exception {
+        doThrow(new OptimisticLockingFailureException("La subtarea ha cambiado"))
+                .when(subTaskService).deleteSubTask(1L, 55L);
+        when(subTaskService.updateSubTask(eq(1L), eq(77L), any(SubTaskDTO.class)))
+                .thenThrow(new OptimisticLockingFailureException("La subtarea ha cambiado"));
+
+        mockMvc.perform(delete("/api/subtasks/delete/{id}", 55L).header("Authorization", "TK"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("La subtarea ha cambiado"));
+        mockMvc.perform(put("/api/subtasks/update/{id}", 77L)
+                .header("Authorization", "TK")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Escribir tests\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("La subtarea ha cambiado"));
     }
 
     @Test
@@ -97,10 +128,11 @@ class SubTaskControllerTest {
         updated.setName("Escribir tests");
         updated.setStatus(Status.COMPLETED);
 
-        when(subTaskService.updateSubTask(eq(subTaskId), any(SubTaskDTO.class)))
+        when(subTaskService.updateSubTask(eq(1L), eq(subTaskId), any(SubTaskDTO.class)))
                 .thenReturn(updated);
 
         mockMvc.perform(put("/api/subtasks/update/{id}", subTaskId)
+                .header("Authorization", "TK")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(updateJson))
                 .andExpect(status().isOk())
@@ -118,9 +150,9 @@ class SubTaskControllerTest {
         completed.setName("Revisar PR");
         completed.setStatus(Status.COMPLETED);
 
-        when(subTaskService.completeSubTask(subTaskId)).thenReturn(completed);
+        when(subTaskService.completeSubTask(1L, subTaskId, null)).thenReturn(completed);
 
-        mockMvc.perform(put("/api/subtasks/complete/{id}", subTaskId))
+        mockMvc.perform(put("/api/subtasks/complete/{id}", subTaskId).header("Authorization", "TK"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(88))
                 .andExpect(jsonPath("$.name").value("Revisar PR"))
@@ -141,9 +173,9 @@ class SubTaskControllerTest {
         st2.setName("Sub 2");
         st2.setStatus(Status.COMPLETED);
 
-        when(subTaskService.getSubTasksByTask(taskId)).thenReturn(List.of(st1, st2));
+        when(subTaskService.getSubTasksByTask(1L, taskId)).thenReturn(List.of(st1, st2));
 
-        mockMvc.perform(get("/api/subtasks/task/{taskId}", taskId))
+        mockMvc.perform(get("/api/subtasks/task/{taskId}", taskId).header("Authorization", "TK"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Sub 1"))
@@ -151,5 +183,34 @@ class SubTaskControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].status").value("COMPLETED"));
     }
-}
 
+    @Test
+    void testSaveSubTasksInBulk() throws Exception {
+        long taskId = 300L;
+        Task task = new Task();
+        task.setId(taskId);
+        when(taskService.getOwnedTask(user, taskId)).thenReturn(task);
+
+        SubTask first = new SubTask();
+        first.setId(4L);
+        first.setName("Primera");
+        first.setPosition(0);
+        SubTask second = new SubTask();
+        second.setId(3L);
+        second.setName("Segunda");
+        second.setPosition(1);
+        when(subTaskService.saveAll(eq(task), anyList())).thenReturn(List.of(first, second));
+
+        mockMvc.perform(put("/api/subtasks/task/{taskId}/bulk", taskId)
+                .header("Authorization", "TK")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    [{"id": 4, "name": "Primera"}, {"id": 3, "name": "Segunda"}]
+                    """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(4))
+                .andExpect(jsonPath("$[1].position").value(1));
+
+        verify(subTaskService).saveAll(eq(task), argThat(items -> items.size() == 2 && items.get(0).getId() == 4L));
+    }
+}
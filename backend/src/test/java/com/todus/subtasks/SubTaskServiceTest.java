@@ -1,16 +1,22 @@
 package com.todus.subtasks;
 
 import com.todus.enums.Status;
+import com.todus.enums.SyncEntityType;
+import com.todus.stats.StatsRollupService;
 import com.todus.subTask.SubTask;
 import com.todus.subTask.SubTaskDTO;
 import com.todus.subTask.SubTaskRepository;
 import com.todus.subTask.SubTaskService;
+import com.todus.sync.SyncService;
 import com.todus.task.Task;
+import com.todus.user.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,17 +31,31 @@ class SubTaskServiceTest {
     @Mock
     private SubTaskRepository subTaskRepository;
 
+    @Mock
+    private StatsRollupService statsRollup;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private SyncService syncService;
+
     @InjectMocks
     private SubTaskService subTaskService;
 
+    private static final Long USER_ID = 1L;
+
     private Task parentTask;
     private SubTaskDTO dto;
 
     @BeforeEach
     void setUp() {
+        User owner = new User();
+        owner.setId(USER_ID);
         parentTask = new Task();
         parentTask.setId(100L);
         parentTask.setName("Parent Task");
+        parentTask.setUser(owner);
 
         dto = new SubTaskDTO();
         dto.setName("Check tests");
@@ -60,41 +80,60 @@ class SubTaskServiceTest {
         assertSame(parentTask, toSave.getTask());
 
         assertEquals(1L, result.getId());
+        verify(statsRollup).applySubTask(USER_ID, 1, 0);
+        verify(subTaskRepository).adjustTaskCounters(eq(100L), eq(1L), eq(0L), notNull());
     }
 
     @Test
     void deleteSubTask_delegatesToRepository() {
-        // Should not throw
-        doNothing().when(subTaskRepository).deleteById(200L);
-        subTaskService.deleteSubTask(200L);
-        verify(subTaskRepository).deleteById(200L);
+        SubTask existing = new SubTask();
+        existing.setId(200L);
+        existing.setStatus(Status.COMPLETED);
+        existing.setTask(parentTask);
+        when(subTaskRepository.findByIdAndUserId(200L, USER_ID)).thenReturn(Optional.of(existing));
+
+        subTaskService.deleteSubTask(USER_ID, 200L);
+        verify(subTaskRepository).delete(existing);
+        verify(statsRollup).applySubTask(USER_ID, -1, -1);
+        verify(subTaskRepository).adjustTaskCounters(eq(100L), eq(-1L), eq(-1L), notNull());
+        verify(syncService).recordDeleted(USER_ID, SyncEntityType.SUBTASK, List.of(200L));
+    }
+
+    @Test
+    void deleteSubTask_ofAnotherUser_throws() {
+        when(subTaskRepository.findByIdAndUserId(210L, USER_ID)).thenReturn(Optional.empty());
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> subTaskService.deleteSubTask(USER_ID, 210L));
+        assertEquals("Subtarea no encontrada", ex.getMessage());
+        verify(subTaskRepository, never()).delete(any());
     }
 
     @Test
     void updateSubTask_whenExists_updatesAndReturns() {
         SubTask existing = new SubTask();
         existing.setId(10L);
+        existing.setTask(parentTask);
         existing.setName("Old name");
         existing.setStatus(Status.PENDENT);
 
-        when(subTaskRepository.findById(10L)).thenReturn(Optional.of(existing));
+        when(subTaskRepository.findByIdAndUserId(10L, USER_ID)).thenReturn(Optional.of(existing));
         when(subTaskRepository.save(existing)).thenReturn(existing);
 
         dto.setName("New name");
         dto.setStatus(Status.COMPLETED);
-        SubTask result = subTaskService.updateSubTask(10L, dto);
+        SubTask result = subTaskService.updateSubTask(USER_ID, 10L, dto);
 
         assertEquals("New name", result.getName());
         assertEquals(Status.COMPLETED, result.getStatus());
-        verify(subTaskRepository).findById(10L);
+        verify(subTaskRepository).findByIdAndUserId(10L, USER_ID);
         verify(subTaskRepository).save(existing);
     }
 
     @Test
     void updateSubTask_whenNotFound_throws() {
-        when(subTaskRepository.findById(30L)).thenReturn(Optional.empty());
+        when(subTaskRepository.findByIdAndUserId(30L, USER_ID)).thenReturn(Optional.empty());
         RuntimeException ex = assertThrows(RuntimeException.class,
-                () -> subTaskService.updateSubTask(30L, dto));
+                () -> subTaskService.updateSubTask(USER_ID, 30L, dto));
         assertEquals("Subtarea no encontrada", ex.getMessage());
     }
 
@@ -102,35 +141,53 @@ class SubTaskServiceTest {
     void completeSubTask_toggleFromPendentToCompleted() {
         SubTask existing = new SubTask();
         existing.setId(50L);
+        existing.setTask(parentTask);
         existing.setStatus(Status.PENDENT);
 
-        when(subTaskRepository.findById(50L)).thenReturn(Optional.of(existing));
+        when(subTaskRepository.findByIdAndUserId(50L, USER_ID)).thenReturn(Optional.of(existing));
         when(subTaskRepository.save(existing)).thenReturn(existing);
 
-        SubTask result = subTaskService.completeSubTask(50L);
+        SubTask result = subTaskService.completeSubTask(USER_ID, 50L, null);
         assertEquals(Status.COMPLETED, result.getStatus());
-        verify(subTaskRepository).findById(50L);
+        verify(subTaskRepository).findByIdAndUserId(50L, USER_ID);
         verify(subTaskRepository).save(existing);
+        verify(statsRollup).applySubTask(USER_ID, 0, 1);
+        verify(subTaskRepository).adjustTaskCounters(eq(100L), eq(0L), eq(1L), notNull());
     }
 
     @Test
     void completeSubTask_toggleFromCompletedToPendent() {
         SubTask existing = new SubTask();
         existing.setId(60L);
+        existing.setTask(parentTask);
         existing.setStatus(Status.COMPLETED);
 
-        when(subTaskRepository.findById(60L)).thenReturn(Optional.of(existing));
+        when(subTaskRepository.findByIdAndUserId(60L, USER_ID)).thenReturn(Optional.of(existing));
         when(subTaskRepository.save(existing)).thenReturn(existing);
 
-        SubTask result = subTaskService.completeSubTask(60L);
+        SubTask result = subTaskService.completeSubTask(USER_ID, 60L, null);
         assertEquals(Status.PENDENT, result.getStatus());
     }
 
+    @Test
+    void completeSubTask_staleVersion_throwsConflict() {
+        SubTask existing = new SubTask();
+        existing.setId(65L);
+        existing.setStatus(Status.PENDENT);
+        existing.setVersion(2L);
+
+        when(subTaskRepository.findByIdAndUserId(65L, USER_ID)).thenReturn(Optional.of(existing));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> subTaskService.completeSubTask(USER_ID, 65L, 1L));
+        assertEquals(Status.PENDENT, existing.getStatus());
+        verify(subTaskRepository, never()).save(any());
+    }
+
     @Test
     void completeSubTask_whenNotFound_throws() {
-        when(subTaskRepository.findById(70L)).thenReturn(Optional.empty());
+        when(subTaskRepository.findByIdAndUserId(70L, USER_ID)).thenReturn(Optional.empty());
         RuntimeException ex = assertThrows(RuntimeException.class,
-                () -> subTaskService.completeSubTask(70L));
+                () -> subTaskService.completeSubTask(USER_ID, 70L, null));
         assertEquals("Subtarea no encontrada", ex.getMessage());
     }
 
@@ -139,10 +196,59 @@ class SubTaskServiceTest {
         SubTask st1 = new SubTask();
         SubTask st2 = new SubTask();
         List<SubTask> list = List.of(st1, st2);
-        when(subTaskRepository.findByTaskId(999L)).thenReturn(list);
+        when(subTaskRepository.findByTaskIdAndUserId(999L, USER_ID)).thenReturn(list);
 
-        List<SubTask> result = subTaskService.getSubTasksByTask(999L);
+        List<SubTask> result = subTaskService.getSubTasksByTask(USER_ID, 999L);
         assertSame(list, result);
     }
-}
 
+    @Test
+    void saveAll_createsUpdatesAndReordersInOneSave() {
+        SubTask first = new SubTask();
+        first.setId(1L); first.setName("a"); first.setStatus(Status.PENDENT); first.setPosition(0); first.setTask(parentTask);
+        SubTask second = new SubTask();
+        second.setId(2L); second.setName("b"); second.setStatus(Status.COMPLETED); second.setPosition(1); second.setTask(parentTask);
+        SubTask untouched = new SubTask();
+        untouched.setId(3L); untouched.setName("c"); untouched.setStatus(Status.PENDENT); untouched.setPosition(2); untouched.setTask(parentTask);
+        when(subTaskRepository.findByTaskIdOrderByPositionAscIdAsc(100L)).thenReturn(List.of(first, second, untouched));
+        when(subTaskRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        SubTaskDTO moved = new SubTaskDTO();
+        moved.setId(2L); moved.setName("b2"); moved.setStatus(Status.PENDENT);
+        SubTaskDTO created = new SubTaskDTO();
+        created.setName("nueva"); created.setStatus(Status.COMPLETED);
+        SubTaskDTO kept = new SubTaskDTO();
+        kept.setId(1L); kept.setName("a");
+
+        List<SubTask> result = subTaskService.saveAll(parentTask, List.of(moved, created, kept));
+
+        assertEquals(List.of("b2", "nueva", "a", "c"), result.stream().map(SubTask::getName).toList());
+        assertEquals(List.of(0, 1, 2, 3), result.stream().map(SubTask::getPosition).toList());
+        assertSame(parentTask, result.get(1).getTask());
+        assertEquals(Status.PENDENT, result.get(2).getStatus());
+        verify(subTaskRepository, times(1)).saveAll(anyList());
+        verify(subTaskRepository, never()).save(any());
+        // Una subtarea nueva completada y otra que deja de estarlo
+        verify(statsRollup).applySubTask(USER_ID, 1, 0);
+    }
+
+    @Test
+    void saveAll_unknownOrRepeatedId_throws() {
+        SubTask own = new SubTask();
+        own.setId(5L); own.setName("propia"); own.setStatus(Status.PENDENT); own.setTask(parentTask);
+        when(subTaskRepository.findByTaskIdOrderByPositionAscIdAsc(100L)).thenReturn(List.of(own));
+        SubTaskDTO foreign = new SubTaskDTO();
+        foreign.setId(99L); foreign.setName("x");
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> subTaskService.saveAll(parentTask, List.of(foreign)));
+        assertEquals("Subtarea no encontrada", ex.getMessage());
+
+        SubTaskDTO repeated = new SubTaskDTO();
+        repeated.setId(5L); repeated.setName("propia");
+        assertThrows(IllegalArgumentException.class,
+                () -> subTaskService.saveAll(parentTask, List.of(repeated, repeated)));
+        verify(subTaskRepository, never()).saveAll(anyList());
+        verifyNoInteractions(statsRollup);
+    }
+}
@@ -0,0 +1,162 @@
+package com.todus.sync;
+
+import com.todus.enums.SyncEntityType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedHubTest {
+
+    private static final Pattern ID = Pattern.compile("id:(\\d+)");
+
+    /**
+     * Guarda lo que se envía en lugar de escribirlo en una respuesta.
+     */
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new ArrayList<>();
+        boolean completed;
+        boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("conexión cortada");
+            }
+            sent.add(builder.build().stream().map(d -> d.getData().toString()).collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        List<String> events() {
+            return sent.stream().filter(text -> !text.startsWith(":")).toList();
+        }
+    }
+
+    // Envíos en el mismo hilo para poder comprobarlos al momento
+    private ChangeFeedHub hub(int replaySize, int maxConnections, int maxQueued, Executor executor) {
+        return new ChangeFeedHub(new SimpleMeterRegistry(), replaySize, 60_000, maxConnections, maxQueued, 15, executor);
+    }
+
+    private ChangeFeedHub hub() {
+        return hub(3, 2, 10, Runnable::run);
+    }
+
+    private static ChangeFeedEvent task(long id) {
+        return new ChangeFeedEvent(SyncEntityType.TASK, id, "UPDATED");
+    }
+
+    private static String idOf(String event) {
+        Matcher matcher = ID.matcher(event);
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+
+    @Test
+    void publish_reachesOnlyTheUsersConnections_inOrder() {
+        ChangeFeedHub hub = hub();
+        RecordingEmitter mine = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        hub.subscribe(1L, null, mine);
+        hub.subscribe(2L, null, other);
+
+        hub.publish(1L, task(5));
+        hub.publish(1L, new ChangeFeedEvent(SyncEntityType.CATEGORY, 2L, "CREATED"));
+
+        assertEquals(2, mine.events().size());
+        assertTrue(mine.events().get(0).contains("event:change"));
+        assertTrue(mine.events().get(0).contains("entity=TASK, id=5"));
+        assertTrue(mine.events().get(1).contains("entity=CATEGORY, id=2"));
+        assertTrue(Long.parseLong(idOf(mine.events().get(0))) < Long.parseLong(idOf(mine.events().get(1))));
+        assertEquals(List.of(), other.events());
+    }
+
+    @Test
+    void subscribe_withLastEventId_replaysWhatWasMissed() {
+        ChangeFeedHub hub = hub();
+        RecordingEmitter first = new RecordingEmitter();
+        hub.subscribe(1L, null, first);
+        hub.publish(1L, task(1));
+        first.complete();
+        hub.publish(1L, task(2));
+        hub.publish(1L, task(3));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        hub.subscribe(1L, idOf(first.events().get(0)), resumed);
+
+        assertEquals(2, resumed.events().size());
+        assertTrue(resumed.events().get(0).contains("id=2"));
+        assertTrue(resumed.events().get(1).contains("id=3"));
+    }
+
+    @Test
+    void subscribe_withUnknownLastEventId_asksForResync() {
+        ChangeFeedHub hub = hub();
+        RecordingEmitter first = new RecordingEmitter();
+        hub.subscribe(1L, null, first);
+        for (long i = 1; i <= 5; i++) {
+            hub.publish(1L, task(i));
+        }
+
+        // Solo se guardan los 3 últimos
+        RecordingEmitter tooOld = new RecordingEmitter();
+        hub.subscribe(1L, idOf(first.events().get(0)), tooOld);
+        RecordingEmitter invalid = new RecordingEmitter();
+        hub.subscribe(1L, "abc", invalid);
+
+        assertEquals(1, tooOld.events().size());
+        assertTrue(tooOld.events().get(0).contains("event:reset"));
+        assertTrue(invalid.events().get(0).contains("event:reset"));
+    }
+
+    @Test
+    void subscribe_overTheLimit_closesTheOldestConnection() {
+        ChangeFeedHub hub = hub();
+        RecordingEmitter oldest = new RecordingEmitter();
+        hub.subscribe(1L, null, oldest);
+        hub.subscribe(1L, null, new RecordingEmitter());
+        hub.subscribe(1L, null, new RecordingEmitter());
+
+        assertTrue(oldest.completed);
+        assertEquals(2, hub.connections());
+    }
+
+    @Test
+    void brokenOrSlowConnections_areDropped_withoutAffectingTheRest() {
+        ChangeFeedHub hub = hub();
+        RecordingEmitter broken = new RecordingEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        hub.subscribe(1L, null, broken);
+        hub.subscribe(1L, null, healthy);
+        broken.broken = true;
+
+        hub.publish(1L, task(1));
+
+        assertTrue(broken.completed);
+        assertEquals(1, healthy.events().size());
+        assertEquals(1, hub.connections());
+
+        // Un cliente que no consume: su cola se llena y se cierra
+        List<Runnable> neverRun = new ArrayList<>();
+        ChangeFeedHub stalled = hub(3, 2, 3, neverRun::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        stalled.subscribe(1L, null, slow);
+        for (long i = 1; i <= 3; i++) {
+            stalled.publish(1L, task(i));
+        }
+        assertTrue(slow.completed);
+        assertEquals(0, stalled.connections());
+    }
+}
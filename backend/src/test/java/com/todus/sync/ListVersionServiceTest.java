@@ -0,0 +1,55 @@
+package com.todus.sync;
+
+import com.todus.task.TaskChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ListVersionService.class)
+class ListVersionServiceTest {
+
+    @Autowired private ListVersionService listVersions;
+    @Autowired private ApplicationEventPublisher events;
+
+    @Test
+    void tags_changeOnlyWithTheirLists() {
+        String tasks = listVersions.taskListTag(1L);
+        // Primer cambio del usuario: crea su fila
+        events.publishEvent(new TaskChangedEvent(1L, 4L, TaskChangedEvent.Change.CREATED));
+        String afterTaskChange = listVersions.taskListTag(1L);
+        String categories = listVersions.categoryListTag(1L);
+        String priorities = listVersions.priorityListTag(1L);
+        assertNotEquals(tasks, afterTaskChange);
+
+        // Misma transacción (la del test): no vuelve a incrementar
+        events.publishEvent(new TaskChangedEvent(1L, 5L, TaskChangedEvent.Change.UPDATED));
+        assertEquals(afterTaskChange, listVersions.taskListTag(1L));
+        assertEquals(priorities, listVersions.priorityListTag(1L));
+
+        listVersions.bumpPriorities(1L);
+        assertNotEquals(priorities, listVersions.priorityListTag(1L));
+        // La lista de tareas incluye los datos de la prioridad
+        assertNotEquals(afterTaskChange, listVersions.taskListTag(1L));
+        assertEquals(listVersions.categoryListTag(1L), listVersions.categoryListTag(1L));
+
+        listVersions.bumpCategories(1L);
+        assertNotEquals(categories, listVersions.categoryListTag(1L));
+    }
+
+    @Test
+    void tags_arePerUser() {
+        listVersions.bumpCategories(1L);
+        listVersions.bumpCategories(1L);
+        assertEquals("\"c0\"", listVersions.categoryListTag(2L));
+        assertNotEquals(listVersions.categoryListTag(1L), listVersions.categoryListTag(2L));
+    }
+}
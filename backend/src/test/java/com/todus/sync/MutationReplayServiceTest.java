@@ -0,0 +1,164 @@
+package com.todus.sync;
+
+import com.todus.enums.MutationType;
+import com.todus.enums.Status;
+import com.todus.priority.Priority;
+import com.todus.stats.StatsRollupService;
+import com.todus.subTask.SubTaskDTO;
+import com.todus.subTask.SubTaskRepository;
+import com.todus.subTask.SubTaskService;
+import com.todus.sync.MutationBatchResultDTO.Item;
+import com.todus.sync.MutationBatchResultDTO.Outcome;
+import com.todus.task.Task;
+import com.todus.task.TaskDTO;
+import com.todus.task.TaskPurgeService;
+import com.todus.task.TaskRepository;
+import com.todus.task.TaskService;
+import com.todus.user.User;
+import com.todus.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MutationReplayService.class, TaskService.class, SubTaskService.class, SyncService.class})
+class MutationReplayServiceTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private MutationReplayService replayService;
+    @Autowired private TaskRepository taskRepository;
+    @Autowired private SubTaskRepository subTaskRepository;
+    @Autowired private ProcessedMutationRepository processedMutationRepository;
+
+    @MockBean private JwtUtil jwtUtil;
+    @MockBean private StatsRollupService statsRollup;
+    @MockBean private TaskPurgeService taskPurgeService;
+
+    private User user;
+    private Priority priority;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Ana"); user.setSurname("Ruiz"); user.setNickname("ana");
+        user.setEmail("ana@x.com"); user.setPassword("pwd");
+        em.persist(user);
+
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+        em.flush();
+    }
+
+    private MutationDTO mutation(String key, MutationType type, String targetKey) {
+        MutationDTO mutation = new MutationDTO();
+        mutation.setIdempotencyKey(key);
+        mutation.setType(type);
+        mutation.setTargetKey(targetKey);
+        return mutation;
+    }
+
+    private TaskDTO task(String name) {
+        TaskDTO dto = new TaskDTO();
+        dto.setName(name);
+        dto.setPriorityId(priority.getId());
+        return dto;
+    }
+
+    private List<MutationDTO> offlineQueue() {
+        MutationDTO create = mutation("k1", MutationType.CREATE_TASK, null);
+        create.setTask(task("sin conexión"));
+        MutationDTO subTask = mutation("k2", MutationType.CREATE_SUBTASK, "k1");
+        SubTaskDTO subTaskDto = new SubTaskDTO();
+        subTaskDto.setName("paso");
+        subTask.setSubtask(subTaskDto);
+        MutationDTO complete = mutation("k3", MutationType.COMPLETE_TASK, "k1");
+        // Se edita después de completarla con un UPDATE directo: debe leer la versión nueva
+        MutationDTO rename = mutation("k4", MutationType.UPDATE_TASK, "k1");
+        rename.setTask(task("renombrada"));
+        return List.of(create, subTask, complete, rename);
+    }
+
+    @Test
+    void replay_appliesInOrderResolvingKeys_andSkipsThemWhenResent() {
+        MutationBatchResultDTO first = replayService.replay(user, offlineQueue());
+
+        assertTrue(first.committed());
+        assertEquals(List.of(Outcome.APPLIED, Outcome.APPLIED, Outcome.APPLIED, Outcome.APPLIED),
+            first.results().stream().map(Item::outcome).toList());
+        Long taskId = first.results().get(0).entityId();
+        Task task = taskRepository.findById(taskId).orElseThrow();
+        assertEquals("renombrada", task.getName());
+        assertEquals(Status.COMPLETED, task.getStatus());
+        assertEquals(1, subTaskRepository.findByTaskId(taskId).size());
+
+        MutationBatchResultDTO resent = replayService.replay(user, offlineQueue());
+
+        assertTrue(resent.committed());
+        assertTrue(resent.results().stream().allMatch(item -> item.outcome() == Outcome.DUPLICATE));
+        assertEquals(taskId, resent.results().get(0).entityId());
+        assertEquals(1, taskRepository.findByUserId(user.getId()).size());
+        assertEquals(Status.COMPLETED, taskRepository.findById(taskId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void replay_failingMutation_reportsItAndAppliesNothing() {
+        MutationDTO create = mutation("k1", MutationType.CREATE_TASK, null);
+        create.setTask(task("buena"));
+        MutationDTO foreign = mutation("k2", MutationType.TRASH_TASK, null);
+        foreign.setTargetId(-1L);
+        MutationDTO after = mutation("k3", MutationType.COMPLETE_TASK, "k1");
+
+        MutationBatchResultDTO result = replayService.replay(user, List.of(create, foreign, after));
+
+        assertFalse(result.committed());
+        assertEquals(List.of(Outcome.NOT_APPLIED, Outcome.FAILED, Outcome.NOT_APPLIED),
+            result.results().stream().map(Item::outcome).toList());
+        assertNotNull(result.results().get(1).error());
+        assertEquals(0, processedMutationRepository.count());
+    }
+
+    @Test
+    void replay_repeatedKeyOrMissingPayload_isRejected() {
+        MutationDTO create = mutation("k1", MutationType.CREATE_TASK, null);
+        create.setTask(task("x"));
+
+        assertThrows(IllegalArgumentException.class, () -> replayService.replay(user, List.of(create, create)));
+
+        MutationBatchResultDTO noTarget = replayService.replay(user, List.of(mutation("k9", MutationType.UPDATE_TASK, null)));
+        assertFalse(noTarget.committed());
+        assertEquals(Outcome.FAILED, noTarget.results().get(0).outcome());
+    }
+
+    @Test
+    void replay_targetKeyOfTheWrongType_isRejected() {
+        MutationDTO create = mutation("k1", MutationType.CREATE_TASK, null);
+        create.setTask(task("tarea"));
+        MutationDTO subTask = mutation("k2", MutationType.CREATE_SUBTASK, "k1");
+        SubTaskDTO subTaskDto = new SubTaskDTO();
+        subTaskDto.setName("paso");
+        subTask.setSubtask(subTaskDto);
+        // k2 creó una subtarea: su id no se puede usar como id de tarea
+        MutationDTO trash = mutation("k3", MutationType.TRASH_TASK, "k2");
+
+        MutationBatchResultDTO result = replayService.replay(user, List.of(create, subTask, trash));
+
+        assertFalse(result.committed());
+        assertEquals(List.of(Outcome.NOT_APPLIED, Outcome.NOT_APPLIED, Outcome.FAILED),
+            result.results().stream().map(Item::outcome).toList());
+        assertEquals("La operación k2 no es sobre una tarea", result.results().get(2).error());
+        assertEquals(0, processedMutationRepository.count());
+    }
+}
@@ -0,0 +1,134 @@
+package com.todus.sync;
+
+import com.todus.category.Category;
+import com.todus.enums.ImageType;
+import com.todus.enums.Status;
+import com.todus.enums.SyncEntityType;
+import com.todus.image.Image;
+import com.todus.priority.Priority;
+import com.todus.subTask.SubTask;
+import com.todus.task.Task;
+import com.todus.task.TaskSummaryDTO;
+import com.todus.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SyncService.class)
+class SyncServiceTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private SyncService syncService;
+
+    private User user;
+    private Task kept;
+    private Task edited;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Ana"); user.setSurname("Ruiz"); user.setNickname("ana");
+        user.setEmail("ana@x.com"); user.setPassword("pwd");
+        em.persist(user);
+
+        Image image = new Image();
+        image.setImageUrl("prueba.png"); image.setImageType(ImageType.CATEGORY);
+        em.persist(image);
+
+        Category category = new Category();
+        category.setName("Trabajo"); category.setImage(image); category.setUser(user);
+        em.persist(category);
+
+        Priority priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+
+        kept = task("sin cambios", category, priority);
+        edited = task("cambiará", category, priority);
+        SubTask subTask = new SubTask();
+        subTask.setName("sub"); subTask.setStatus(Status.PENDENT); subTask.setTask(kept);
+        em.persist(subTask);
+        em.flush();
+
+        // Todo lo anterior queda como modificado hace una hora
+        Timestamp hourAgo = Timestamp.valueOf(LocalDateTime.now().minusHours(1));
+        for (String table : List.of("tasks", "subtasks", "categories", "priorities")) {
+            jdbcTemplate.update("UPDATE " + table + " SET updated_at = ?", hourAgo);
+        }
+        em.clear();
+    }
+
+    private Task task(String name, Category category, Priority priority) {
+        Task t = new Task();
+        t.setName(name);
+        t.setDateCreated(LocalDateTime.now());
+        t.setPriority(priority);
+        t.setCategory(category);
+        t.setUser(user);
+        t.setStatus(Status.PENDENT);
+        t.setTrashed(false);
+        return em.persist(t);
+    }
+
+    @Test
+    void withoutCursor_returnsEverything() {
+        SyncChangesDTO changes = syncService.getChanges(user, null);
+
+        assertTrue(changes.full());
+        assertEquals(2, changes.tasks().size());
+        assertEquals(1, changes.subtasks().size());
+        assertEquals(1, changes.categories().size());
+        assertEquals(1, changes.priorities().size());
+        assertNotNull(SyncCursor.decode(changes.cursor()).since());
+    }
+
+    @Test
+    void withCursor_returnsOnlyChangesAndDeletions() {
+        String cursor = new SyncCursor(LocalDateTime.now().minusMinutes(10)).encode();
+        Task task = em.find(Task.class, edited.getId());
+        task.setName("cambiada");
+        em.flush();
+        syncService.recordDeleted(user.getId(), SyncEntityType.TASK, List.of(999L));
+
+        SyncChangesDTO changes = syncService.getChanges(user, cursor);
+
+        assertFalse(changes.full());
+        assertEquals(List.of("cambiada"), changes.tasks().stream().map(TaskSummaryDTO::name).toList());
+        assertTrue(changes.subtasks().isEmpty());
+        assertTrue(changes.categories().isEmpty());
+        assertTrue(changes.priorities().isEmpty());
+        assertEquals(Map.of(SyncEntityType.TASK, List.of(999L)), changes.deleted());
+    }
+
+    @Test
+    void cursorOlderThanTombstoneRetention_fallsBackToFullCopy() {
+        String cursor = new SyncCursor(LocalDateTime.now().minusDays(60)).encode();
+
+        SyncChangesDTO changes = syncService.getChanges(user, cursor);
+
+        assertTrue(changes.full());
+        assertEquals(2, changes.tasks().size());
+    }
+
+    @Test
+    void invalidCursor_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> syncService.getChanges(user, "no-es-un-cursor"));
+    }
+}
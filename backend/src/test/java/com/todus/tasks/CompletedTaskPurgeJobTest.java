@@ -0,0 +1,140 @@
+package com.todus.tasks;
+
+import com.todus.category.Category;
+import com.todus.category.CategoryRepository;
+import com.todus.enums.ImageType;
+import com.todus.enums.PurgeAction;
+import com.todus.enums.Status;
+import com.todus.image.Image;
+import com.todus.priority.Priority;
+import com.todus.search.TaskSearchIndex;
+import com.todus.stats.StatsRollupService;
+import com.todus.subTask.SubTask;
+import com.todus.task.CompletedTaskPurgeJob;
+import com.todus.task.Task;
+import com.todus.sync.SyncService;
+import com.todus.task.TaskPurgeService;
+import com.todus.task.TaskRepository;
+import com.todus.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TaskPurgeService.class, StatsRollupService.class, SyncService.class, TaskSearchIndex.class})
+class CompletedTaskPurgeJobTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private TaskRepository taskRepository;
+    @Autowired private TaskPurgeService taskPurgeService;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 20, 10, 0);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private User user;
+    private Image image;
+    private Priority priority;
+    private Category autoDelete;
+    private Category keep;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Ana"); user.setSurname("Ruiz"); user.setNickname("ana");
+        user.setEmail("ana@x.com"); user.setPassword("pwd");
+        em.persist(user);
+
+        image = new Image();
+        image.setImageUrl("prueba.png"); image.setImageType(ImageType.CATEGORY);
+        em.persist(image);
+
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+
+        autoDelete = category("Trabajo", true, 7);
+        keep = category("Casa", false, 7);
+
+        task("vieja 1", autoDelete, Status.COMPLETED, now.minusDays(10), false);
+        task("vieja 2", autoDelete, Status.COMPLETED, now.minusDays(9), false);
+        task("vieja 3", autoDelete, Status.COMPLETED, now.minusDays(8), false);
+        task("reciente", autoDelete, Status.COMPLETED, now.minusDays(2), false);
+        task("pendiente", autoDelete, Status.PENDENT, null, false);
+        task("en papelera", autoDelete, Status.COMPLETED, now.minusDays(30), true);
+        task("sin auto-borrado", keep, Status.COMPLETED, now.minusDays(30), false);
+        em.flush();
+        em.clear();
+    }
+
+    private Category category(String name, boolean autoDeleteComplete, Integer days) {
+        Category c = new Category();
+        c.setName(name); c.setImage(image); c.setUser(user);
+        c.setAutoDeleteComplete(autoDeleteComplete); c.setDeleteCompleteDays(days);
+        return em.persist(c);
+    }
+
+    private Task task(String name, Category category, Status status, LocalDateTime completedAt, boolean trashed) {
+        Task t = new Task();
+        t.setName(name); t.setPriority(priority); t.setUser(user); t.setCategory(category);
+        t.setStatus(status); t.setCompletedAt(completedAt); t.setTrashed(trashed);
+        t.setDateCreated(now.minusDays(40));
+        em.persist(t);
+        SubTask s = new SubTask();
+        s.setName("paso"); s.setStatus(Status.PENDENT); s.setTask(t);
+        em.persist(s);
+        return t;
+    }
+
+    private CompletedTaskPurgeJob job(PurgeAction action, int batchSize, int maxBatches) {
+        return new CompletedTaskPurgeJob(categoryRepository, taskRepository, taskPurgeService, registry,
+            action, batchSize, maxBatches, 0);
+    }
+
+    private long trashed() {
+        return taskRepository.findAll().stream().filter(Task::getTrashed).count();
+    }
+
+    @Test
+    void trash_movesOnlyExpiredCompletedTasksOfAutoDeleteCategories() {
+        TaskPurgeService.PurgeResult result = job(PurgeAction.TRASH, 2, 10).purge(now);
+        em.clear();
+
+        assertEquals(3, result.tasks());
+        assertEquals(4, trashed());
+        assertEquals(7, taskRepository.count());
+        assertTrue(taskRepository.findCompletedBefore(autoDelete.getId(), Status.COMPLETED, now.minusDays(7),
+            PageRequest.of(0, 10)).isEmpty());
+        assertEquals(3.0, registry.get("todus.purge.completed.tasks").tag("action", "trash").counter().count());
+    }
+
+    @Test
+    void delete_respectsBatchLimitPerRun() {
+        CompletedTaskPurgeJob job = job(PurgeAction.DELETE, 2, 1);
+
+        TaskPurgeService.PurgeResult first = job.purge(now);
+        TaskPurgeService.PurgeResult second = job.purge(now);
+        TaskPurgeService.PurgeResult third = job.purge(now);
+        em.clear();
+
+        assertEquals(2, first.tasks());
+        assertEquals(2, first.subtasks());
+        assertEquals(1, second.tasks());
+        assertEquals(0, third.tasks());
+        assertEquals(4, taskRepository.count());
+        assertEquals(3, registry.get("todus.purge.completed.tasks.per.run").summary().count());
+    }
+}
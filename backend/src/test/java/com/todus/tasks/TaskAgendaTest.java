@@ -0,0 +1,124 @@
+package com.todus.tasks;
+
+import com.todus.enums.Status;
+import com.todus.priority.Priority;
+import com.todus.stats.StatsRepository;
+import com.todus.stats.StatsRollupService;
+import com.todus.task.Task;
+import com.todus.task.TaskAgendaDTO;
+import com.todus.task.TaskPurgeService;
+import com.todus.task.TaskService;
+import com.todus.task.TaskSummaryDTO;
+import com.todus.user.User;
+import com.todus.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TaskService.class)
+class TaskAgendaTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private TaskService taskService;
+    @Autowired private StatsRepository statsRepository;
+
+    @MockBean private JwtUtil jwtUtil;
+    @MockBean private StatsRollupService statsRollup;
+    @MockBean private TaskPurgeService taskPurgeService;
+
+    // Viernes
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 20, 10, 0);
+    private final LocalDate today = now.toLocalDate();
+
+    private User user;
+    private Priority priority;
+
+    @BeforeEach
+    void setUp() {
+        user = user("ana");
+        User other = user("luis");
+
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+
+        task(user, "ayer", now.minusHours(16), Status.PENDENT, false);
+        task(user, "esta mañana", now.minusHours(2), Status.PENDENT, false);
+        task(user, "completada", now.minusDays(1), Status.COMPLETED, false);
+        task(user, "en la papelera", now.plusHours(2), Status.PENDENT, true);
+        task(user, "esta tarde", now.plusHours(7), Status.PENDENT, false);
+        task(user, "pasado mañana", now.plusDays(2), Status.PENDENT, false);
+        task(user, "la semana que viene", now.plusDays(8), Status.PENDENT, false);
+        task(user, "sin fecha", null, Status.PENDENT, false);
+        task(other, "de otro usuario", now.minusDays(1), Status.PENDENT, false);
+        em.flush();
+        em.clear();
+    }
+
+    private User user(String nickname) {
+        User u = new User();
+        u.setName(nickname); u.setSurname("Ruiz"); u.setNickname(nickname);
+        u.setEmail(nickname + "@x.com"); u.setPassword("pwd");
+        return em.persist(u);
+    }
+
+    private void task(User owner, String name, LocalDateTime dueDate, Status status, boolean trashed) {
+        Task t = new Task();
+        t.setName(name); t.setPriority(priority); t.setUser(owner); t.setStatus(status);
+        t.setTrashed(trashed); t.setDueDate(dueDate);
+        em.persist(t);
+    }
+
+    private static List<String> names(TaskAgendaDTO.Day day) {
+        return day.tasks().stream().map(TaskSummaryDTO::name).toList();
+    }
+
+    @Test
+    void agenda_groupsOverdueAndUpcomingByDay() {
+        TaskAgendaDTO agenda = taskService.getAgenda(user, 7, now);
+
+        assertEquals(today, agenda.today());
+        assertEquals(2, agenda.overdueCount());
+        assertEquals(List.of(today.minusDays(1), today),
+            agenda.overdue().stream().map(TaskAgendaDTO.Day::date).toList());
+        assertEquals(List.of("ayer"), names(agenda.overdue().get(0)));
+        assertEquals(List.of("esta mañana"), names(agenda.overdue().get(1)));
+
+        // Un grupo por día de la semana, también los vacíos
+        assertEquals(7, agenda.upcoming().size());
+        assertEquals(today, agenda.upcoming().get(0).date());
+        assertEquals(List.of("esta tarde"), names(agenda.upcoming().get(0)));
+        assertEquals(List.of(), names(agenda.upcoming().get(1)));
+        assertEquals(List.of("pasado mañana"), names(agenda.upcoming().get(2)));
+    }
+
+    @Test
+    void overdue_onlyReturnsPastDueTasks_andMatchesTheStatsCount() {
+        TaskAgendaDTO overdue = taskService.getAgenda(user, 0, now);
+
+        assertEquals(2, overdue.overdueCount());
+        assertEquals(List.of(), overdue.upcoming());
+        assertEquals(2, statsRepository.countOverdue(user.getId(), Status.NOT_COMPLETED, now));
+    }
+
+    @Test
+    void agenda_rejectsDaysOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.getAgenda(user, 32, now));
+        assertThrows(IllegalArgumentException.class, () -> taskService.getAgenda(user, -1, now));
+    }
+}
@@ -5,19 +5,25 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todus.sync.ListVersionService;
 import com.todus.user.AuthService;
 import com.todus.user.User;
 import com.todus.util.JwtUtil;
 import com.todus.task.TaskService;
 import com.todus.task.TaskController;
-import com.todus.task.Task;
 import com.todus.task.TaskDTO;
+import com.todus.task.BulkTaskRequest;
+import com.todus.task.BulkTaskResultDTO;
+import com.todus.task.TaskPageDTO;
+import com.todus.task.TaskSummaryDTO;
+import com.todus.enums.Status;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -44,6 +50,9 @@ public class TaskControllerTest {
     @MockBean
     private JwtUtil jwtUtil;
 
+    @MockBean
+    private ListVersionService listVersions;
+
     @Test
     void testCreateTaskSuccess() throws Exception {
         TaskDTO taskDTO = new TaskDTO();
@@ -84,23 +93,42 @@ public class TaskControllerTest {
         mockUser.setId(1L);
         mockUser.setEmail("test@example.com");
 
-        Task task = new Task();
-        task.setId(1L);
-        task.setName("Tarea prueba");
-        task.setDescription("Descripción");
+        TaskSummaryDTO task = new TaskSummaryDTO(1L, "Tarea prueba", "Descripción", null, null,
+                Status.PENDENT, false, null, null, false, 3L, 1L, 3L, "Trabajo", null, true, false, null,
+                2L, "Alta", 1, null);
 
         when(authService.getAuthenticatedUser(anyString())).thenReturn(mockUser);
-        when(taskService.getTasksByUser(any(User.class))).thenReturn(List.of(task));
+        when(taskService.getTaskSummaries(any(User.class), eq(true))).thenReturn(List.of(task));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/tasks/list")
                 .header("Authorization", "Bearer token123"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value("Tarea prueba"));
+                .andExpect(jsonPath("$[0].name").value("Tarea prueba"))
+                .andExpect(jsonPath("$[0].category.id").value(3))
+                .andExpect(jsonPath("$[0].priority.level").value(1))
+                .andExpect(jsonPath("$[0].subtaskTotal").value(3))
+                .andExpect(jsonPath("$[0].subtaskCompleted").value(1));
+    }
+
+    @Test
+    void testGetTasksByUser_unchangedList_returns304WithoutLoadingTasks() throws Exception {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        when(authService.getAuthenticatedUser(anyString())).thenReturn(mockUser);
+        when(listVersions.taskListTag(1L)).thenReturn("\"t7-c2-p3\"");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/tasks/list")
+                .header("Authorization", "Bearer token123")
+                .header("If-None-Match", "W/\"t6-c2-p3\", \"t7-c2-p3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"t7-c2-p3\""));
+
+        verify(taskService, never()).getTaskSummaries(any(User.class), anyBoolean());
     }
 
     @Test
     void testMarkTaskAsCompletedSuccess() throws Exception {
-        when(taskService.markTaskAsCompleted(eq("Bearer token123"), eq(1L)))
+        when(taskService.markTaskAsCompleted(eq("Bearer token123"), eq(1L), isNull()))
                 .thenReturn(Map.of("message", "Tarea marcada como completada"));
 
         mockMvc.perform(MockMvcRequestBuilders.put("/api/tasks/complete/1")
@@ -111,7 +139,7 @@ public class TaskControllerTest {
 
     @Test
     void testMarkTaskAsCompletedError() throws Exception {
-        when(taskService.markTaskAsCompleted(eq("Bearer token123"), eq(99L)))
+        when(taskService.markTaskAsCompleted(eq("Bearer token123"), eq(99L), isNull()))
                 .thenThrow(new RuntimeException("No tienes permisos para modificar esta tarea"));
 
         mockMvc.perform(MockMvcRequestBuilders.put("/api/tasks/complete/99")
@@ -120,6 +148,18 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.error").value("No tienes permisos para modificar esta tarea"));
     }
 
+    @Test
+    void testMarkTaskAsCompletedConflict() throws Exception {
+        when(taskService.markTaskAsCompleted(eq("Bearer token123"), eq(1L), eq(3L)))
+                .thenThrow(new OptimisticLockingFailureException("La tarea ha cambiado mientras tanto, vuelve a cargarla"));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/tasks/complete/1")
+                .param("version", "3")
+                .header("Authorization", "Bearer token123"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("La tarea ha cambiado mientras tanto, vuelve a cargarla"));
+    }
+
     @Test
     void testUpdateTaskSuccess() throws Exception {
         TaskDTO updatedTask = new TaskDTO();
@@ -158,5 +198,72 @@ public class TaskControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("No tienes permisos para eliminar esta tarea"));
     }
-}
 
+    @Test
+    void testDeleteTaskConflict() throws Exception {
+        when(taskService.deleteTask(eq("Bearer token123"), eq(1L)))
+                .thenThrow(new OptimisticLockingFailureException("La tarea ha cambiado mientras tanto, vuelve a cargarla"));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/tasks/1")
+                .header("Authorization", "Bearer token123"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("La tarea ha cambiado mientras tanto, vuelve a cargarla"));
+    }
+
+    @Test
+    void testGetTaskPage() throws Exception {
+        TaskSummaryDTO task = new TaskSummaryDTO(1L, "Tarea prueba", null, null, null,
+                Status.PENDENT, false, null, null, false, 0L, 0L, null, null, null, null, null, null,
+                2L, "Alta", 1, null);
+
+        when(taskService.getTaskPage(eq("Bearer token123"), eq(3L), isNull(), eq(20), eq(true)))
+                .thenReturn(new TaskPageDTO<>(List.of(task), "abc"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/tasks/page")
+                .param("categoryId", "3")
+                .header("Authorization", "Bearer token123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Tarea prueba"))
+                .andExpect(jsonPath("$.nextCursor").value("abc"));
+    }
+
+    @Test
+    void testGetTaskPageBadCursor() throws Exception {
+        when(taskService.getTaskPage(eq("Bearer token123"), isNull(), eq("x"), eq(20), eq(true)))
+                .thenThrow(new IllegalArgumentException("Cursor no válido"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/tasks/page")
+                .param("cursor", "x")
+                .header("Authorization", "Bearer token123"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Cursor no válido"));
+    }
+
+    @Test
+    void testBulkUpdate() throws Exception {
+        BulkTaskResultDTO result = new BulkTaskResultDTO(List.of(
+                new BulkTaskResultDTO.Item(1L, BulkTaskResultDTO.Outcome.UPDATED),
+                new BulkTaskResultDTO.Item(2L, BulkTaskResultDTO.Outcome.NOT_FOUND)), 1);
+        when(taskService.bulkUpdate(eq("Bearer token123"), any(BulkTaskRequest.class))).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/tasks/bulk")
+                .header("Authorization", "Bearer token123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"taskIds\":[1,2],\"operation\":\"TRASH\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"));
+    }
+
+    @Test
+    void testBulkUpdateConflict() throws Exception {
+        when(taskService.bulkUpdate(eq("Bearer token123"), any(BulkTaskRequest.class)))
+                .thenThrow(new OptimisticLockingFailureException("La tarea ha cambiado mientras tanto, vuelve a cargarla"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/tasks/bulk")
+                .header("Authorization", "Bearer token123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"taskIds\":[1,2],\"operation\":\"TRASH\"}"))
+                .andExpect(status().isConflict());
+    }
+}
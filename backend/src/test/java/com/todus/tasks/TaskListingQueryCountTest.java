@@ -0,0 +1,132 @@
+package com.todus.tasks;
+
+import com.todus.category.Category;
+import com.todus.enums.ImageType;
+import com.todus.enums.Status;
+import com.todus.image.Image;
+import com.todus.priority.Priority;
+import com.todus.stats.StatsRollupService;
+import com.todus.subTask.SubTask;
+import com.todus.task.Task;
+import com.todus.task.TaskPurgeService;
+import com.todus.task.TaskService;
+import com.todus.task.TaskSummaryDTO;
+import com.todus.user.User;
+import com.todus.util.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que los listados de tareas lanzan un número fijo de sentencias SQL,
+ * independiente del número de tareas y subtareas (sin N+1).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TaskService.class)
+class TaskListingQueryCountTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TaskService taskService;
+
+    @MockBean private JwtUtil jwtUtil;
+    @MockBean private StatsRollupService statsRollup;
+    @MockBean private TaskPurgeService taskPurgeService;
+
+    private User user;
+    private Category work;
+    private Category home;
+    private Priority priority;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Ana"); user.setSurname("Ruiz"); user.setNickname("ana");
+        user.setEmail("ana@x.com"); user.setPassword("pwd");
+        em.persist(user);
+
+        Image image = new Image();
+        image.setImageUrl("prueba.png"); image.setImageType(ImageType.CATEGORY);
+        em.persist(image);
+
+        work = category("Trabajo", image);
+        home = category("Casa", image);
+
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Category category(String name, Image image) {
+        Category c = new Category();
+        c.setName(name); c.setImage(image); c.setUser(user);
+        return em.persist(c);
+    }
+
+    private void createTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            Task t = new Task();
+            t.setName("tarea " + i);
+            t.setDateCreated(LocalDateTime.now());
+            t.setPriority(priority);
+            t.setUser(user);
+            t.setCategory(i % 3 == 0 ? null : (i % 2 == 0 ? work : home));
+            t.setStatus(Status.PENDENT);
+            t.setTrashed(i % 4 == 0);
+            em.persist(t);
+            for (int j = 0; j < 2; j++) {
+                SubTask s = new SubTask();
+                s.setName("subtarea " + j); s.setStatus(Status.PENDENT); s.setTask(t);
+                em.persist(s);
+            }
+        }
+        em.flush();
+        em.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void list_usesTwoStatementsRegardlessOfSize() {
+        createTasks(3);
+        List<TaskSummaryDTO> small = taskService.getTaskSummaries(user);
+        long smallCount = statistics.getPrepareStatementCount();
+
+        createTasks(30);
+        List<TaskSummaryDTO> large = taskService.getTaskSummaries(user);
+
+        assertEquals(3, small.size());
+        assertEquals(33, large.size());
+        assertEquals(2, smallCount);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(large.stream().allMatch(t -> t.subtasks().size() == 2 && t.priority() != null));
+    }
+
+    @Test
+    void trash_usesTwoStatementsRegardlessOfSize() {
+        createTasks(40);
+        List<TaskSummaryDTO> trashed = taskService.getTrashedTasks(user, null);
+
+        assertEquals(10, trashed.size());
+        assertTrue(trashed.stream().allMatch(TaskSummaryDTO::trashed));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,177 @@
+package com.todus.tasks;
+
+import com.todus.category.Category;
+import com.todus.enums.ImageType;
+import com.todus.enums.Status;
+import com.todus.image.Image;
+import com.todus.priority.Priority;
+import com.todus.stats.StatsRollupService;
+import com.todus.task.Task;
+import com.todus.task.TaskDTO;
+import com.todus.task.TaskPurgeService;
+import com.todus.task.TaskRepository;
+import com.todus.task.TaskService;
+import com.todus.user.User;
+import com.todus.util.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuenta las sentencias y entidades cargadas por las mutaciones de una tarea:
+ * la comprobación de dueño va en la propia consulta y los cambios de estado no
+ * cargan la entidad (comparado con el antiguo findById + comprobación en Java).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TaskService.class)
+class TaskMutationQueryCountTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TaskService taskService;
+    @Autowired private TaskRepository taskRepository;
+
+    @MockBean private JwtUtil jwtUtil;
+    @MockBean private StatsRollupService statsRollup;
+    @MockBean private TaskPurgeService taskPurgeService;
+
+    private User user;
+    private User other;
+    private Priority priority;
+    private Category category;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = user("ana");
+        other = user("luis");
+
+        Image image = new Image();
+        image.setImageUrl("prueba.png"); image.setImageType(ImageType.CATEGORY);
+        em.persist(image);
+
+        category = new Category();
+        category.setName("Trabajo"); category.setImage(image); category.setUser(user);
+        em.persist(category);
+
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // El usuario ya viene resuelto por el filtro JWT
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private User user(String nickname) {
+        User u = new User();
+        u.setName(nickname); u.setSurname("Ruiz"); u.setNickname(nickname);
+        u.setEmail(nickname + "@x.com"); u.setPassword("pwd");
+        return em.persist(u);
+    }
+
+    private Long task() {
+        Task t = new Task();
+        t.setName("tarea");
+        t.setDateCreated(LocalDateTime.now());
+        t.setPriority(priority);
+        t.setCategory(category);
+        t.setUser(user);
+        t.setStatus(Status.PENDENT);
+        t.setTrashed(false);
+        Long id = em.persist(t).getId();
+        em.flush();
+        em.clear();
+        statistics.clear();
+        return id;
+    }
+
+    @Test
+    void complete_readsProjectionAndUpdatesWithoutLoadingTheTask() {
+        Long id = task();
+        taskService.markTaskAsCompleted("Bearer x", id);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void trashAndRestore_twoStatementsEachWithoutLoadingTheTask() {
+        Long id = task();
+        taskService.trashTask("Bearer x", id);
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        taskService.recoverTask("Bearer x", id);
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void foreignTask_isRejectedWithoutLoadingIt() {
+        Long id = task();
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(other, null, List.of()));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> taskService.trashTask("Bearer x", id));
+
+        assertEquals("No tienes permisos para eliminar esta tarea", ex.getMessage());
+        // Consulta con dueño y, solo en el error, la comprobación de existencia
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void ownedTask_loadsGraphInOneStatement_versusFindById() {
+        Long id = task();
+        taskRepository.findById(id).orElseThrow();
+        long findByIdStatements = statistics.getPrepareStatementCount();
+
+        em.clear();
+        statistics.clear();
+        Task owned = taskService.getOwnedTask(user, id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getPrepareStatementCount() <= findByIdStatements);
+        assertEquals(category.getId(), owned.getCategory().getId());
+    }
+
+    @Test
+    void update_checksOwnershipOfTaskPriorityAndCategoryInTheirLookups() {
+        Long id = task();
+        TaskDTO dto = new TaskDTO();
+        dto.setName("renombrada");
+        dto.setPriorityId(priority.getId());
+        dto.setCategoryId(category.getId());
+
+        taskService.updateTask("Bearer x", id, dto);
+        em.flush();
+
+        // Tarea con su grafo, prioridad, categoría y el UPDATE (las subtareas no se cargan)
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+}
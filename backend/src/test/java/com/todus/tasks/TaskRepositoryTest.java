@@ -0,0 +1,305 @@
+package com.todus.tasks;
+
+import com.todus.category.Category;
+import com.todus.enums.BulkTaskOperation;
+import com.todus.enums.ImageType;
+import com.todus.enums.OrderTask;
+import com.todus.enums.Status;
+import com.todus.image.Image;
+import com.todus.priority.Priority;
+import com.todus.subTask.SubTask;
+import com.todus.subTask.SubTaskRepository;
+import com.todus.task.Task;
+import com.todus.task.TaskCursor;
+import com.todus.task.TaskPurgeService;
+import com.todus.task.TaskRepository;
+import com.todus.task.TaskSummaryDTO;
+import com.todus.task.TaskVersionRow;
+import com.todus.task.TrashCursor;
+import com.todus.task.TrashedTaskDTO;
+import com.todus.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TaskRepositoryTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private TaskRepository taskRepository;
+    @Autowired private SubTaskRepository subTaskRepository;
+
+    private User user;
+    private Category category;
+    private Priority high;
+    private Priority low;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Ana"); user.setSurname("Ruiz"); user.setNickname("ana");
+        user.setEmail("ana@x.com"); user.setPassword("pwd");
+        em.persist(user);
+
+        Image image = new Image();
+        image.setImageUrl("prueba.png"); image.setImageType(ImageType.CATEGORY);
+        em.persist(image);
+
+        category = new Category();
+        category.setName("Trabajo"); category.setImage(image); category.setUser(user);
+        em.persist(category);
+
+        high = priority("Alta", 1);
+        low = priority("Baja", 4);
+
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+        task("c", base.plusHours(1), null, low, false);
+        task("a", base.plusHours(2), base.plusDays(3), high, false);
+        task("e", base.plusHours(3), null, high, false);
+        task("b", base.plusHours(4), base.plusDays(1), low, false);
+        task("d", base.plusHours(5), base.plusDays(2), high, false);
+        task("z", base.plusHours(6), base.plusDays(1), high, true);
+        Task completed = task("f", base.plusHours(7), base.plusDays(1), low, false);
+        completed.setStatus(Status.COMPLETED);
+        em.flush();
+        em.clear();
+    }
+
+    private Priority priority(String name, int level) {
+        Priority p = new Priority();
+        p.setName(name); p.setLevel(level); p.setUser(user);
+        return em.persist(p);
+    }
+
+    private Task task(String name, LocalDateTime created, LocalDateTime due, Priority priority, boolean trashed) {
+        Task t = new Task();
+        t.setName(name);
+        t.setDateCreated(created);
+        t.setDueDate(due);
+        t.setPriority(priority);
+        t.setUser(user);
+        t.setCategory(category);
+        t.setStatus(Status.PENDENT);
+        t.setTrashed(trashed);
+        return em.persist(t);
+    }
+
+    private List<String> readAll(OrderTask order, int pageSize) {
+        List<String> names = new ArrayList<>();
+        TaskCursor cursor = null;
+        while (true) {
+            List<TaskSummaryDTO> page = taskRepository.findKeysetPage(
+                user.getId(), category.getId(), false, order, cursor, pageSize);
+            page.forEach(t -> names.add(t.name()));
+            if (page.size() < pageSize) {
+                return names;
+            }
+            cursor = TaskCursor.decode(TaskCursor.after(order, page.get(page.size() - 1)).encode());
+        }
+    }
+
+    @Test
+    void dateCreated_pagesInCreationOrderAndSkipsTrashed() {
+        assertEquals(List.of("c", "a", "e", "b", "d"), readAll(OrderTask.DATE_CREATED, 2));
+    }
+
+    @Test
+    void dueDate_tasksWithoutDueDateFirst() {
+        assertEquals(List.of("c", "e", "b", "d", "a"), readAll(OrderTask.DUE_DATE, 2));
+        assertEquals(List.of("c", "e", "b", "d", "a"), readAll(OrderTask.DUE_DATE, 1));
+    }
+
+    @Test
+    void name_ascendingAndDescending() {
+        assertEquals(List.of("a", "b", "c", "d", "e"), readAll(OrderTask.NAME_ASC, 2));
+        assertEquals(List.of("e", "d", "c", "b", "a"), readAll(OrderTask.NAME_DES, 3));
+    }
+
+    @Test
+    void priority_tiesBrokenById() {
+        assertEquals(List.of("a", "e", "d", "c", "b"), readAll(OrderTask.PRIORITY_ASC, 2));
+        assertEquals(List.of("b", "c", "d", "e", "a"), readAll(OrderTask.PRIORITY_DES, 2));
+    }
+
+    @Test
+    void otherUser_seesNothing() {
+        assertTrue(taskRepository.findKeysetPage(-1L, null, true, OrderTask.DATE_CREATED, null, 10).isEmpty());
+    }
+
+    @Test
+    void keyset_includeCompleted_returnsCompletedToo() {
+        List<TaskSummaryDTO> page = taskRepository.findKeysetPage(user.getId(), category.getId(), true,
+            OrderTask.DATE_CREATED, null, 10);
+        assertEquals(List.of("c", "a", "e", "b", "d", "f"), names(page));
+    }
+
+    @Test
+    void byCategory_sortedInDatabaseFollowingOrderTask() {
+        for (OrderTask order : OrderTask.values()) {
+            List<TaskSummaryDTO> tasks = taskRepository.findCategorySummariesWithoutStatus(
+                user.getId(), category.getId(), Status.COMPLETED, order.toSort());
+            assertEquals(readAll(order, 2), names(tasks), order.name());
+        }
+    }
+
+    @Test
+    void byCategory_showCompleteIncludesCompleted() {
+        List<TaskSummaryDTO> tasks = taskRepository.findCategorySummaries(
+            user.getId(), category.getId(), OrderTask.NAME_DES.toSort());
+        assertEquals(List.of("f", "e", "d", "c", "b", "a"), names(tasks));
+    }
+
+    @Test
+    void summaries_carryCategoryAndPriority() {
+        List<TaskSummaryDTO> trashed = taskRepository.findSummariesByUserIdAndTrashed(user.getId(), true);
+        assertEquals(List.of("z"), names(trashed));
+        assertEquals(category.getId(), trashed.get(0).category().id());
+        assertEquals(1, trashed.get(0).priority().level());
+        assertEquals(7, taskRepository.findSummariesByUserId(user.getId()).size());
+    }
+
+    private List<String> names(List<TaskSummaryDTO> tasks) {
+        return tasks.stream().map(TaskSummaryDTO::name).toList();
+    }
+
+    @Test
+    void batchUpdate_updatesOnlyOwnedRows() {
+        List<Long> ids = taskRepository.findSummariesByUserIdAndTrashed(user.getId(), false).stream()
+            .map(TaskSummaryDTO::id).toList();
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+        int[] counts = taskRepository.batchUpdate(BulkTaskOperation.TRASH, user.getId(), ids, null, now);
+        int[] foreign = taskRepository.batchUpdate(BulkTaskOperation.RESTORE, -1L, ids, null, now);
+        em.clear();
+
+        assertEquals(ids.size(), counts.length);
+        assertTrue(java.util.Arrays.stream(foreign).allMatch(c -> c == 0));
+        assertEquals(7, taskRepository.findSummariesByUserIdAndTrashed(user.getId(), true).size());
+        assertEquals(now, taskRepository.findById(ids.get(0)).orElseThrow().getDateTrashed());
+        assertEquals(ids.size(), taskRepository.lockRows(ids, TaskPurgeService.PurgeScope.owned(user.getId())).size());
+        assertTrue(taskRepository.lockRows(ids, TaskPurgeService.PurgeScope.owned(-1L)).isEmpty());
+    }
+
+    @Test
+    void findTrashedIds_filtersByCategoryAndDeletesById() {
+        Long trashedId = taskRepository.findSummariesByUserIdAndTrashed(user.getId(), true).get(0).id();
+
+        assertEquals(List.of(trashedId), taskRepository.findTrashedIds(user.getId(), PageRequest.of(0, 10)));
+        assertEquals(List.of(trashedId),
+            taskRepository.findTrashedIdsInCategory(user.getId(), category.getId(), PageRequest.of(0, 10)));
+        assertTrue(taskRepository.findTrashedIdsInCategory(user.getId(), -1L, PageRequest.of(0, 10)).isEmpty());
+        assertTrue(taskRepository.findTrashedIds(-1L, PageRequest.of(0, 10)).isEmpty());
+
+        assertEquals(1, taskRepository.deleteByIdIn(List.of(trashedId)));
+        em.clear();
+        assertTrue(taskRepository.findById(trashedId).isEmpty());
+        assertEquals(6, taskRepository.findSummariesByUserId(user.getId()).size());
+    }
+
+    @Test
+    void trashPage_newestFirstThenUndatedWithCategoryFilter() {
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 9, 0);
+        for (String name : List.of("t1", "t2", "t3")) {
+            Task t = task(name, base, null, low, true);
+            t.setDateTrashed(base.plusDays(name.charAt(1) - '0'));
+        }
+        Task other = task("sin categoría", base, null, low, true);
+        other.setCategory(null);
+        other.setDateTrashed(base.plusDays(10));
+        em.flush();
+        em.clear();
+
+        List<String> names = new ArrayList<>();
+        TrashCursor cursor = null;
+        while (true) {
+            List<TrashedTaskDTO> page = taskRepository.findTrashPage(user.getId(), category.getId(), cursor, 2);
+            page.forEach(t -> names.add(t.name()));
+            if (page.size() < 2) {
+                break;
+            }
+            cursor = TrashCursor.decode(TrashCursor.after(page.get(1)).encode());
+        }
+        // "z" no tiene fecha de envío y va al final
+        assertEquals(List.of("t3", "t2", "t1", "z"), names);
+
+        List<TrashedTaskDTO> all = taskRepository.findTrashPage(user.getId(), null, null, 10);
+        assertEquals("sin categoría", all.get(0).name());
+        assertNull(all.get(0).category());
+        assertEquals(5, all.size());
+        assertEquals(List.of("t3", "t2", "t1", "z"),
+            names(taskRepository.findTrashSummariesInCategory(user.getId(), category.getId())));
+        assertEquals(5, taskRepository.findTrashSummaries(user.getId()).size());
+        assertTrue(taskRepository.findTrashSummariesInCategory(user.getId(), -1L).isEmpty());
+    }
+
+    @Test
+    void updateStatusIfVersion_onlyMatchesOwnerAndCurrentVersion() {
+        Long id = taskRepository.findSummariesByUserIdAndTrashed(user.getId(), false).get(0).id();
+        TaskVersionRow row = taskRepository.findOwnedVersionRow(id, user.getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        // Posterior a la creación de todas las tareas del escenario
+        LocalDateTime updatedAt = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.SECONDS);
+
+        assertEquals(0, taskRepository.updateStatusIfVersion(id, -1L, row.version(), Status.COMPLETED, now, now));
+        assertEquals(0, taskRepository.updateStatusIfVersion(id, user.getId(), row.version() + 1, Status.COMPLETED, now, now));
+        assertEquals(1, taskRepository.updateStatusIfVersion(id, user.getId(), row.version(), Status.COMPLETED, now, updatedAt));
+        // Un segundo toque con la misma versión ya no aplica
+        assertEquals(0, taskRepository.updateStatusIfVersion(id, user.getId(), row.version(), Status.PENDENT, null, now));
+        em.clear();
+
+        Task task = taskRepository.findById(id).orElseThrow();
+        assertEquals(Status.COMPLETED, task.getStatus());
+        assertEquals(row.version() + 1, task.getVersion());
+        assertEquals(updatedAt, task.getUpdatedAt());
+        assertEquals(List.of(id), taskRepository.findSummariesChangedSince(user.getId(), updatedAt).stream()
+            .map(TaskSummaryDTO::id).toList());
+
+        taskRepository.batchUpdate(BulkTaskOperation.TRASH, user.getId(), List.of(id), null, now);
+        em.clear();
+        assertEquals(row.version() + 2, taskRepository.findOwnedVersionRow(id, user.getId()).orElseThrow().version());
+        assertTrue(taskRepository.findOwnedVersionRow(id, -1L).isEmpty());
+        assertTrue(taskRepository.findByIdAndUserId(id, -1L).isEmpty());
+    }
+
+    @Test
+    void subtaskCounters_backfilledAdjustedAndNotOverwrittenBySave() {
+        Task task = taskRepository.findByIdAndUserId(
+            taskRepository.findSummariesByUserId(user.getId()).get(0).id(), user.getId()).orElseThrow();
+        for (Status status : List.of(Status.PENDENT, Status.COMPLETED, Status.COMPLETED)) {
+            SubTask s = new SubTask();
+            s.setName("sub"); s.setStatus(status); s.setTask(task);
+            em.persist(s);
+        }
+        em.flush();
+
+        // Subtareas creadas sin pasar por el servicio: el relleno las cuenta una sola vez
+        assertEquals(1, subTaskRepository.backfillTaskCounters());
+        assertEquals(0, subTaskRepository.backfillTaskCounters());
+
+        // Un guardado con los contadores en memoria desfasados no los pisa
+        subTaskRepository.adjustTaskCounters(task.getId(), 1, -1, LocalDateTime.now());
+        task.setName("renombrada");
+        em.flush();
+        em.clear();
+
+        TaskSummaryDTO summary = taskRepository.findSummariesByUserId(user.getId()).stream()
+            .filter(t -> t.id().equals(task.getId())).findFirst().orElseThrow();
+        assertEquals("renombrada", summary.name());
+        assertEquals(4L, summary.subtaskTotal());
+        assertEquals(1L, summary.subtaskCompleted());
+    }
+}
@@ -2,13 +2,29 @@ package com.todus.tasks;
 
 import com.todus.category.Category;
 import com.todus.category.CategoryRepository;
+import com.todus.enums.BulkTaskOperation;
+import com.todus.enums.OrderTask;
 import com.todus.enums.Status;
 import com.todus.priority.Priority;
 import com.todus.priority.PriorityRepository;
 import com.todus.task.Task;
+import com.todus.task.BulkTaskRequest;
+import com.todus.task.BulkTaskResultDTO;
+import com.todus.task.BulkTaskRow;
+import com.todus.task.TaskChangedEvent;
+import com.todus.task.TaskCursor;
 import com.todus.task.TaskDTO;
+import com.todus.task.TaskPageDTO;
+import com.todus.task.TaskPurgeService;
 import com.todus.task.TaskRepository;
 import com.todus.task.TaskService;
+import com.todus.task.TaskSummaryDTO;
+import com.todus.task.TaskVersionRow;
+import com.todus.task.TrashCursor;
+import com.todus.task.TrashedTaskDTO;
+import com.todus.subTask.SubTaskRepository;
+import com.todus.subTask.SubTaskSummaryDTO;
+import com.todus.stats.StatsRollupService;
 import com.todus.user.User;
 import com.todus.user.UserRepository;
 import com.todus.util.JwtUtil;
@@ -17,7 +33,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.cglib.core.Local;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -32,8 +53,12 @@ class TaskServiceTest {
     @Mock private TaskRepository taskRepository;
     @Mock private CategoryRepository categoryRepository;
     @Mock private PriorityRepository priorityRepository;
+    @Mock private SubTaskRepository subTaskRepository;
     @Mock private UserRepository userRepository;
     @Mock private JwtUtil jwtUtil;
+    @Mock private StatsRollupService statsRollup;
+    @Mock private ApplicationEventPublisher events;
+    @Mock private TaskPurgeService taskPurgeService;
 
     @InjectMocks private TaskService taskService;
 
@@ -56,6 +81,20 @@ class TaskServiceTest {
         assertSame(user, result);
     }
 
+    @Test
+    void getAuthenticatedUser_reusesSecurityContextPrincipal() {
+        User principal = new User(); principal.setId(3L);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        try {
+            User result = taskService.getAuthenticatedUser(token);
+            assertSame(principal, result);
+            verifyNoInteractions(jwtUtil, userRepository);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
     @Test
     void getAuthenticatedUser_notFound_throws() {
         when(userRepository.findByEmail("u@x.com")).thenReturn(Optional.empty());
@@ -91,7 +130,7 @@ class TaskServiceTest {
         dto.setCategoryId(null);
 
         Priority pr = new Priority(); pr.setId(2L);
-        when(priorityRepository.findById(2L)).thenReturn(Optional.of(pr));
+        when(priorityRepository.findByIdAndUserId(2L, 1L)).thenReturn(Optional.of(pr));
 
         Map<String,String> resp = taskService.createTask(token, dto);
         assertEquals("Tarea creada con éxito", resp.get("message"));
@@ -111,16 +150,16 @@ class TaskServiceTest {
         // Now with category
         dto.setCategoryId(7L);
         Category cat = new Category(); cat.setId(7L);
-        when(categoryRepository.findById(7L)).thenReturn(Optional.of(cat));
+        when(categoryRepository.findByIdAndUserId(7L, 1L)).thenReturn(Optional.of(cat));
         taskService.createTask(token, dto);
-        verify(categoryRepository).findById(7L);
+        verify(categoryRepository).findByIdAndUserId(7L, 1L);
     }
 
     @Test
     void createTask_missingPriority_throws() {
         TaskDTO dto = new TaskDTO();
         dto.setPriorityId(99L);
-        when(priorityRepository.findById(99L)).thenReturn(Optional.empty());
+        when(priorityRepository.findByIdAndUserId(99L, 1L)).thenReturn(Optional.empty());
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> taskService.createTask(token, dto));
         assertEquals("Prioridad no encontrada", ex.getMessage());
@@ -134,34 +173,97 @@ class TaskServiceTest {
         assertSame(list, res);
     }
 
+    @Test
+    void getTaskSummaries_attachesSubtasksFromSingleQuery() {
+        TaskSummaryDTO a = summary(1L, "a", null);
+        TaskSummaryDTO b = summary(2L, "b", null);
+        when(taskRepository.findSummariesByUserId(1L)).thenReturn(List.of(a, b));
+        when(subTaskRepository.findSummariesByUserId(1L)).thenReturn(List.of(
+            new SubTaskSummaryDTO(2L, 20L, "s1", Status.PENDENT),
+            new SubTaskSummaryDTO(2L, 21L, "s2", Status.COMPLETED)));
+
+        List<TaskSummaryDTO> res = taskService.getTaskSummaries(user);
+
+        assertEquals(List.of(a, b), res);
+        assertTrue(a.subtasks().isEmpty());
+        assertEquals(List.of(20L, 21L), b.subtasks().stream().map(SubTaskSummaryDTO::id).toList());
+    }
+
+    @Test
+    void getTaskSummaries_withoutSubtasks_skipsSubtaskQuery() {
+        TaskSummaryDTO a = summary(1L, "a", null);
+        when(taskRepository.findSummariesByUserId(1L)).thenReturn(List.of(a));
+
+        List<TaskSummaryDTO> res = taskService.getTaskSummaries(user, false);
+
+        assertEquals(List.of(a), res);
+        verifyNoInteractions(subTaskRepository);
+    }
+
+    private TaskSummaryDTO summary(Long id, String name, Long categoryId) {
+        return new TaskSummaryDTO(id, name, null, null, null, Status.PENDENT, false, null, null, false, 0L, 0L,
+            categoryId, null, null, null, null, null, 1L, "Alta", 1, null);
+    }
+
+    private TaskVersionRow versionRow(Long id, Long userId, Status status, LocalDateTime completedAt, long version) {
+        return new TaskVersionRow(id, version, userId, null, 1L, status, false, false,
+            LocalDateTime.of(2025,4,1,0,0), completedAt);
+    }
+
     @Test
     void markTaskAsCompleted_togglePendingToCompleted() {
-        Task t = new Task(); t.setId(11L); t.setUser(user); t.setStatus(Status.PENDENT);
-        when(taskRepository.findById(11L)).thenReturn(Optional.of(t));
-        Map<String,String> resp = taskService.markTaskAsCompleted(token, 11L);
+        when(taskRepository.findOwnedVersionRow(11L, 1L)).thenReturn(Optional.of(versionRow(11L, 1L, Status.PENDENT, null, 3)));
+        when(taskRepository.updateStatusIfVersion(eq(11L), eq(1L), eq(3L), eq(Status.COMPLETED), notNull(), notNull()))
+            .thenReturn(1);
+
+        Map<String,Object> resp = taskService.markTaskAsCompleted(token, 11L);
 
         assertEquals("Tarea marcada como completada", resp.get("message"));
-        assertEquals(Status.COMPLETED, t.getStatus());
-        assertNotNull(t.getCompletedAt());
-        verify(taskRepository).save(t);
+        assertEquals(Status.COMPLETED, resp.get("status"));
+        assertEquals(4L, resp.get("version"));
+        verify(taskRepository, never()).findById(anyLong());
+        verify(taskRepository, never()).save(any());
+        verify(statsRollup).apply(
+            argThat(before -> before.status() == Status.PENDENT),
+            argThat(after -> after.status() == Status.COMPLETED && after.completedAt() != null));
+        verify(events).publishEvent(new TaskChangedEvent(1L, 11L, TaskChangedEvent.Change.COMPLETED));
     }
 
     @Test
     void markTaskAsCompleted_toggleCompletedToPending() {
-        Task t = new Task(); t.setId(12L); t.setUser(user); t.setStatus(Status.COMPLETED);
         LocalDateTime before = LocalDateTime.of(2025,5,1,0,0);
-        t.setCompletedAt(before);
-        when(taskRepository.findById(12L)).thenReturn(Optional.of(t));
+        when(taskRepository.findOwnedVersionRow(12L, 1L)).thenReturn(Optional.of(versionRow(12L, 1L, Status.COMPLETED, before, 0)));
+        when(taskRepository.updateStatusIfVersion(eq(12L), eq(1L), eq(0L), eq(Status.PENDENT), isNull(), notNull())).thenReturn(1);
 
-        Map<String,String> resp = taskService.markTaskAsCompleted(token, 12L);
+        Map<String,Object> resp = taskService.markTaskAsCompleted(token, 12L);
         assertEquals("Tarea vuelta a pendiente", resp.get("message"));
-        assertEquals(Status.PENDENT, t.getStatus());
-        assertNull(t.getCompletedAt());
+        assertEquals(Status.PENDENT, resp.get("status"));
+        verify(statsRollup).apply(
+            argThat(b -> b.completedAt() == before),
+            argThat(a -> a.status() == Status.PENDENT && a.completedAt() == null));
+    }
+
+    @Test
+    void markTaskAsCompleted_concurrentChange_throwsConflict() {
+        when(taskRepository.findOwnedVersionRow(13L, 1L)).thenReturn(Optional.of(versionRow(13L, 1L, Status.PENDENT, null, 5)));
+        when(taskRepository.updateStatusIfVersion(eq(13L), eq(1L), eq(5L), any(), any(), any())).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> taskService.markTaskAsCompleted(token, 13L));
+        verifyNoInteractions(statsRollup, events);
+    }
+
+    @Test
+    void markTaskAsCompleted_staleClientVersion_throwsConflictWithoutUpdating() {
+        when(taskRepository.findOwnedVersionRow(14L, 1L)).thenReturn(Optional.of(versionRow(14L, 1L, Status.PENDENT, null, 5)));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> taskService.markTaskAsCompleted(token, 14L, 4L));
+        verify(taskRepository, never()).updateStatusIfVersion(any(), any(), any(), any(), any(), any());
     }
 
     @Test
     void markTaskAsCompleted_notFound_throws() {
-        when(taskRepository.findById(20L)).thenReturn(Optional.empty());
+        when(taskRepository.findOwnedVersionRow(20L, 1L)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(20L)).thenReturn(false);
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> taskService.markTaskAsCompleted(token, 20L));
         assertEquals("Tarea no encontrada", ex.getMessage());
@@ -169,12 +271,12 @@ class TaskServiceTest {
 
     @Test
     void markTaskAsCompleted_noPermission_throws() {
-        User other = new User(); other.setId(99L);
-        Task t = new Task(); t.setId(30L); t.setUser(other);
-        when(taskRepository.findById(30L)).thenReturn(Optional.of(t));
+        when(taskRepository.findOwnedVersionRow(30L, 1L)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(30L)).thenReturn(true);
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> taskService.markTaskAsCompleted(token, 30L));
         assertEquals("No tienes permisos para modificar esta tarea", ex.getMessage());
+        verify(taskRepository, never()).updateStatusIfVersion(any(), any(), any(), any(), any(), any());
     }
 
     @Test
@@ -183,7 +285,7 @@ class TaskServiceTest {
         t.setId(40L);
         t.setUser(user);
         t.setDueDate(LocalDateTime.of(2025,5,1,12,0));
-        when(taskRepository.findById(40L)).thenReturn(Optional.of(t));
+        when(taskRepository.findByIdAndUserId(40L, 1L)).thenReturn(Optional.of(t));
 
         TaskDTO dto = new TaskDTO();
         dto.setName("X"); dto.setDescription("Y");
@@ -201,7 +303,7 @@ class TaskServiceTest {
     void updateTask_changePriorityAndCategory() {
         Task t = new Task(); t.setId(50L); t.setUser(user);
         t.setDueDate(null);
-        when(taskRepository.findById(50L)).thenReturn(Optional.of(t));
+        when(taskRepository.findByIdAndUserId(50L, 1L)).thenReturn(Optional.of(t));
 
         TaskDTO dto = new TaskDTO();
         dto.setName("N"); dto.setDescription("D");
@@ -212,8 +314,8 @@ class TaskServiceTest {
 
         Priority pr = new Priority(); pr.setId(2L);
         Category cat = new Category(); cat.setId(3L);
-        when(priorityRepository.findById(2L)).thenReturn(Optional.of(pr));
-        when(categoryRepository.findById(3L)).thenReturn(Optional.of(cat));
+        when(priorityRepository.findByIdAndUserId(2L, 1L)).thenReturn(Optional.of(pr));
+        when(categoryRepository.findByIdAndUserId(3L, 1L)).thenReturn(Optional.of(cat));
 
         taskService.updateTask(token, 50L, dto);
         assertSame(pr, t.getPriority());
@@ -222,7 +324,8 @@ class TaskServiceTest {
 
     @Test
     void updateTask_notFound_throws() {
-        when(taskRepository.findById(60L)).thenReturn(Optional.empty());
+        when(taskRepository.findByIdAndUserId(60L, 1L)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(60L)).thenReturn(false);
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> taskService.updateTask(token, 60L, new TaskDTO()));
         assertEquals("Tarea no encontrada", ex.getMessage());
@@ -230,9 +333,8 @@ class TaskServiceTest {
 
     @Test
     void updateTask_noPermission_throws() {
-        User other = new User(); other.setId(100L);
-        Task t = new Task(); t.setId(70L); t.setUser(other);
-        when(taskRepository.findById(70L)).thenReturn(Optional.of(t));
+        when(taskRepository.findByIdAndUserId(70L, 1L)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(70L)).thenReturn(true);
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> taskService.updateTask(token, 70L, new TaskDTO()));
         assertEquals("No tienes permisos para modificar esta tarea", ex.getMessage());
@@ -240,16 +342,17 @@ class TaskServiceTest {
 
     @Test
     void deleteTask_success() {
-        Task t = new Task(); t.setId(80L); t.setUser(user);
-        when(taskRepository.findById(80L)).thenReturn(Optional.of(t));
+        when(taskRepository.findOwnedVersionRow(80L, 1L)).thenReturn(Optional.of(versionRow(80L, 1L, Status.PENDENT, null, 0)));
         Map<String,String> resp = taskService.deleteTask(token, 80L);
         assertEquals("Tarea eliminada correctamente", resp.get("message"));
-        verify(taskRepository).delete(t);
+        verify(taskPurgeService).deleteTasks(List.of(80L), TaskPurgeService.PurgeScope.owned(1L));
+        verify(taskRepository, never()).delete(any(Task.class));
     }
 
     @Test
     void deleteTask_notFound_throws() {
-        when(taskRepository.findById(90L)).thenReturn(Optional.empty());
+        when(taskRepository.findOwnedVersionRow(90L, 1L)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(90L)).thenReturn(false);
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> taskService.deleteTask(token, 90L));
         assertEquals("Tarea no encontrada", ex.getMessage());
@@ -257,62 +360,301 @@ class TaskServiceTest {
 
     @Test
     void deleteTask_noPermission_throws() {
-        User other = new User(); other.setId(2L);
-        Task t = new Task(); t.setId(91L); t.setUser(other);
-        when(taskRepository.findById(91L)).thenReturn(Optional.of(t));
+        when(taskRepository.findOwnedVersionRow(91L, 1L)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(91L)).thenReturn(true);
         RuntimeException ex = assertThrows(RuntimeException.class,
             () -> taskService.deleteTask(token, 91L));
         assertEquals("No tienes permisos para eliminar esta tarea", ex.getMessage());
+        verifyNoInteractions(taskPurgeService);
     }
 
     @Test
     void deleteAllTrashedTasks_emptyList() {
-        when(taskRepository.findByUserAndTrashed(user, true)).thenReturn(Collections.emptyList());
-        Map<String,String> resp = taskService.deleteAllTrashedTasks(token, null);
+        when(taskRepository.findTrashedIds(eq(1L), any(Pageable.class))).thenReturn(Collections.emptyList());
+        Map<String,Object> resp = taskService.deleteAllTrashedTasks(token, null);
         assertEquals("No hay tareas en la papelera para eliminar", resp.get("message"));
+        assertEquals(0, resp.get("deletedTasks"));
+        verifyNoInteractions(taskPurgeService);
     }
 
     @Test
     void deleteAllTrashedTasks_withCategory() {
-        Task t1 = new Task(); t1.setId(100L); t1.setTrashed(true);
-        List<Task> list = List.of(t1);
-        when(taskRepository.findByUserAndTrashedAndCategoryId(user, true, 5L)).thenReturn(list);
-        Map<String,String> resp = taskService.deleteAllTrashedTasks(token, 5L);
+        when(taskRepository.findTrashedIdsInCategory(eq(1L), eq(5L), any(Pageable.class))).thenReturn(List.of(100L, 101L));
+        when(taskPurgeService.deleteTasks(List.of(100L, 101L), TaskPurgeService.PurgeScope.trash(1L, 5L)))
+            .thenReturn(new TaskPurgeService.PurgeResult(2, 3));
+        Map<String,Object> resp = taskService.deleteAllTrashedTasks(token, 5L);
         assertEquals("Todas las tareas en la papelera han sido eliminadas correctamente", resp.get("message"));
-        verify(taskRepository).deleteAll(list);
+        assertEquals(2, resp.get("deletedTasks"));
+        assertEquals(3, resp.get("deletedSubtasks"));
+        verify(taskRepository, never()).deleteAll(anyList());
+    }
+
+    @Test
+    void deleteAllTrashedTasks_deletesInChunks() {
+        List<Long> full = new ArrayList<>();
+        for (long i = 0; i < 500; i++) full.add(i);
+        List<Long> rest = List.of(900L);
+        TaskPurgeService.PurgeScope scope = TaskPurgeService.PurgeScope.trash(1L, null);
+        when(taskRepository.findTrashedIds(eq(1L), any(Pageable.class))).thenReturn(full, rest);
+        when(taskPurgeService.deleteTasks(full, scope)).thenReturn(new TaskPurgeService.PurgeResult(500, 0));
+        when(taskPurgeService.deleteTasks(rest, scope)).thenReturn(new TaskPurgeService.PurgeResult(1, 2));
+
+        Map<String,Object> resp = taskService.deleteAllTrashedTasks(token, null);
+
+        assertEquals(501, resp.get("deletedTasks"));
+        assertEquals(2, resp.get("deletedSubtasks"));
+        verify(taskPurgeService, times(2)).deleteTasks(anyCollection(), eq(scope));
     }
 
     @Test
     void trashAndRecoverTask() {
-        Task t = new Task(); t.setId(120L); t.setUser(user); t.setTrashed(false);
-        when(taskRepository.findById(120L)).thenReturn(Optional.of(t))
-                                         .thenReturn(Optional.of(t)); // for recover
+        when(taskRepository.findOwnedVersionRow(120L, 1L))
+            .thenReturn(Optional.of(versionRow(120L, 1L, Status.PENDENT, null, 2)))
+            .thenReturn(Optional.of(new TaskVersionRow(120L, 3L, 1L, null, 1L, Status.PENDENT, true, false,
+                LocalDateTime.of(2025,4,1,0,0), null)));
+        when(taskRepository.updateTrashedIfVersion(eq(120L), eq(1L), eq(2L), eq(true), notNull(), notNull())).thenReturn(1);
+        when(taskRepository.updateTrashedIfVersion(eq(120L), eq(1L), eq(3L), eq(false), isNull(), notNull())).thenReturn(1);
+
         Map<String,String> resp1 = taskService.trashTask(token, 120L);
-        assertTrue(t.getTrashed());
-        assertNotNull(t.getDateTrashed());
         assertEquals("Tarea movida a la papelera correctamente", resp1.get("message"));
+        verify(statsRollup).apply(argThat(b -> !b.trashed()), argThat(a -> a.trashed()));
 
         Map<String,String> resp2 = taskService.recoverTask(token, 120L);
-        assertFalse(t.getTrashed());
-        assertNull(t.getDateTrashed());
         assertEquals("Tarea recuperada con éxito", resp2.get("message"));
+        verify(statsRollup).apply(argThat(b -> b.trashed()), argThat(a -> !a.trashed()));
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void trashTask_concurrentChange_throwsConflict() {
+        when(taskRepository.findOwnedVersionRow(121L, 1L))
+            .thenReturn(Optional.of(versionRow(121L, 1L, Status.PENDENT, null, 4)));
+        when(taskRepository.updateTrashedIfVersion(eq(121L), eq(1L), eq(4L), eq(true), any(), any())).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> taskService.trashTask(token, 121L));
+        verifyNoInteractions(statsRollup, events);
     }
 
     @Test
-    void getTrashedTasks_filtersByCategoryId() {
-        Task a = new Task(); a.setTrashed(true);
-        Task b = new Task(); b.setTrashed(true);
-        Category cat1 = new Category(); cat1.setId(1L);
-        a.setCategory(cat1);
-        b.setCategory(null);
-        when(taskRepository.findByUserAndTrashed(user, true)).thenReturn(List.of(a, b));
+    void getTrashedTasks_filtersByCategoryInQuery() {
+        TaskSummaryDTO a = summary(1L, "a", 1L);
+        when(taskRepository.findTrashSummariesInCategory(1L, 1L)).thenReturn(List.of(a));
+        when(subTaskRepository.findSummariesByTaskIdIn(List.of(1L)))
+            .thenReturn(List.of(new SubTaskSummaryDTO(1L, 10L, "s", Status.PENDENT)));
+
+        List<TaskSummaryDTO> resFiltered = taskService.getTrashedTasks(user, 1L);
+        assertEquals(List.of(a), resFiltered);
+        assertEquals(1, a.subtasks().size());
+        verify(taskRepository, never()).findSummariesByUserIdAndTrashed(anyLong(), anyBoolean());
+    }
 
-        List<Task> resAll = taskService.getTrashedTasks(user, null);
-        assertEquals(2, resAll.size());
+    @Test
+    void getTrashedTasks_emptyTrash_skipsSubtaskQuery() {
+        when(taskRepository.findTrashSummaries(1L)).thenReturn(List.of());
+        assertTrue(taskService.getTrashedTasks(user, null).isEmpty());
+        verifyNoInteractions(subTaskRepository);
+    }
 
-        List<Task> resFiltered = taskService.getTrashedTasks(user, 1L);
-        assertEquals(1, resFiltered.size());
-        assertSame(a, resFiltered.get(0));
+    private TrashedTaskDTO trashed(Long id, LocalDateTime dateTrashed) {
+        return new TrashedTaskDTO(id, "t" + id, Status.PENDENT, null, dateTrashed, null,
+            null, null, 1L, "Alta", 1, null);
     }
-}
 
+    @Test
+    void getTrashPage_returnsCursorOfLastItem() {
+        LocalDateTime when = LocalDateTime.of(2025, 6, 1, 12, 0);
+        TrashedTaskDTO a = trashed(5L, when);
+        TrashedTaskDTO b = trashed(4L, when.minusDays(1));
+        TrashedTaskDTO c = trashed(3L, null);
+        when(taskRepository.findTrashPage(1L, null, null, 3)).thenReturn(new ArrayList<>(List.of(a, b, c)));
+
+        TaskPageDTO<TrashedTaskDTO> page = taskService.getTrashPage(token, null, null, 2);
+
+        assertEquals(List.of(a, b), page.items());
+        assertEquals(new TrashCursor(when.minusDays(1), 4L), TrashCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void getTrashPage_passesDecodedCursorAndChecksCategory() {
+        Category cat = new Category(); cat.setId(4L); cat.setUser(user);
+        when(categoryRepository.findByIdAndUserId(4L, 1L)).thenReturn(Optional.of(cat));
+        TrashCursor cursor = new TrashCursor(null, 9L);
+        when(taskRepository.findTrashPage(1L, 4L, cursor, 21)).thenReturn(List.of(trashed(8L, null)));
+
+        TaskPageDTO<TrashedTaskDTO> page = taskService.getTrashPage(token, 4L, cursor.encode(), 20);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getTrashPage_invalidSize_throws() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTrashPage(token, null, null, 0));
+    }
+
+    @Test
+    void getTaskPage_usesCategoryOrderAndReturnsCursor() {
+        Category cat = new Category(); cat.setId(4L); cat.setUser(user); cat.setOrderTasks(OrderTask.NAME_ASC);
+        when(categoryRepository.findByIdAndUserId(4L, 1L)).thenReturn(Optional.of(cat));
+        TaskSummaryDTO a = summary(1L, "a", 4L);
+        TaskSummaryDTO b = summary(2L, "b", 4L);
+        TaskSummaryDTO c = summary(3L, "c", 4L);
+        when(taskRepository.findKeysetPage(1L, 4L, false, OrderTask.NAME_ASC, null, 3))
+            .thenReturn(new ArrayList<>(List.of(a, b, c)));
+        when(subTaskRepository.findSummariesByTaskIdIn(List.of(1L, 2L)))
+            .thenReturn(List.of(new SubTaskSummaryDTO(1L, 10L, "s", Status.PENDENT)));
+
+        TaskPageDTO<TaskSummaryDTO> page = taskService.getTaskPage(token, 4L, null, 2);
+
+        assertEquals(List.of(a, b), page.items());
+        assertEquals(1, a.subtasks().size());
+        TaskCursor next = TaskCursor.decode(page.nextCursor());
+        assertEquals(OrderTask.NAME_ASC, next.order());
+        assertEquals(2L, next.id());
+        assertEquals("b", next.value());
+    }
+
+    @Test
+    void getTaskPage_lastPageHasNoCursor() {
+        TaskSummaryDTO a = summary(1L, "a", null);
+        when(taskRepository.findKeysetPage(1L, null, true, OrderTask.DATE_CREATED, null, 21))
+            .thenReturn(List.of(a));
+
+        TaskPageDTO<TaskSummaryDTO> page = taskService.getTaskPage(token, null, null, 20);
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getTaskPage_cursorFromAnotherOrder_throws() {
+        String cursor = new TaskCursor(OrderTask.NAME_ASC, 1L, "a").encode();
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> taskService.getTaskPage(token, null, cursor, 20));
+        assertEquals("El cursor no corresponde al orden actual de la categoría", ex.getMessage());
+    }
+
+    @Test
+    void getTaskPage_foreignCategory_throws() {
+        when(categoryRepository.findByIdAndUserId(4L, 1L)).thenReturn(Optional.empty());
+        when(categoryRepository.existsById(4L)).thenReturn(true);
+        RuntimeException ex = assertThrows(RuntimeException.class,
+            () -> taskService.getTaskPage(token, 4L, null, 20));
+        assertEquals("No tienes permisos para ver esta categoría", ex.getMessage());
+    }
+
+    @Test
+    void getTaskPage_invalidSize_throws() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTaskPage(token, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTaskPage(token, null, null, 101));
+    }
+
+    @Test
+    void getTaskPage_malformedCursor_throws() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> taskService.getTaskPage(token, null, "%%%", 20));
+        assertEquals("Cursor no válido", ex.getMessage());
+    }
+
+    @Test
+    void getTasksByCategory_hidesCompletedWhenShowCompleteIsFalse() {
+        Category cat = new Category(); cat.setId(4L); cat.setUser(user);
+        cat.setOrderTasks(OrderTask.PRIORITY_DES); cat.setShowComplete(false);
+        when(categoryRepository.findByIdAndUserId(4L, 1L)).thenReturn(Optional.of(cat));
+        List<TaskSummaryDTO> list = List.of(summary(1L, "a", 4L));
+        when(taskRepository.findCategorySummariesWithoutStatus(
+            1L, 4L, Status.COMPLETED, OrderTask.PRIORITY_DES.toSort())).thenReturn(list);
+
+        assertSame(list, taskService.getTasksByCategory(token, 4L));
+    }
+
+    @Test
+    void getTasksByCategory_showCompleteAndDefaultOrder() {
+        Category cat = new Category(); cat.setId(4L); cat.setUser(user);
+        cat.setOrderTasks(null); cat.setShowComplete(true);
+        when(categoryRepository.findByIdAndUserId(4L, 1L)).thenReturn(Optional.of(cat));
+        List<TaskSummaryDTO> list = List.of(summary(1L, "a", 4L));
+        when(taskRepository.findCategorySummaries(1L, 4L, OrderTask.DATE_CREATED.toSort()))
+            .thenReturn(list);
+
+        assertSame(list, taskService.getTasksByCategory(token, 4L));
+    }
+
+    private BulkTaskRow row(Long id, Status status, boolean trashed) {
+        return new BulkTaskRow(id, 1L, 4L, 2L, status, trashed, false, LocalDateTime.now().minusDays(1), null);
+    }
+
+    @Test
+    void bulkUpdate_completesOwnedTasksInOneBatch() {
+        BulkTaskRequest request = new BulkTaskRequest();
+        request.setOperation(BulkTaskOperation.COMPLETE);
+        request.setTaskIds(List.of(1L, 2L, 3L, 1L));
+        when(taskRepository.lockRows(List.of(1L, 2L, 3L), TaskPurgeService.PurgeScope.owned(1L)))
+            .thenReturn(List.of(row(1L, Status.PENDENT, false), row(2L, Status.COMPLETED, false)));
+
+        BulkTaskResultDTO result = taskService.bulkUpdate(token, request);
+
+        assertEquals(1, result.updated());
+        assertEquals(List.of(
+            new BulkTaskResultDTO.Item(1L, BulkTaskResultDTO.Outcome.UPDATED),
+            new BulkTaskResultDTO.Item(2L, BulkTaskResultDTO.Outcome.UNCHANGED),
+            new BulkTaskResultDTO.Item(3L, BulkTaskResultDTO.Outcome.NOT_FOUND)), result.results());
+        verify(taskRepository).batchUpdate(eq(BulkTaskOperation.COMPLETE), eq(1L), eq(List.of(1L)), isNull(), any());
+        verify(statsRollup).applyAll(eq(1L), anyList(), anyList());
+        verify(events).publishEvent(new TaskChangedEvent(1L, 1L, TaskChangedEvent.Change.COMPLETED));
+    }
+
+    @Test
+    void bulkUpdate_nothingToChange_skipsUpdate() {
+        BulkTaskRequest request = new BulkTaskRequest();
+        request.setOperation(BulkTaskOperation.RESTORE);
+        request.setTaskIds(List.of(1L));
+        when(taskRepository.lockRows(List.of(1L), TaskPurgeService.PurgeScope.owned(1L))).thenReturn(List.of(row(1L, Status.PENDENT, false)));
+
+        BulkTaskResultDTO result = taskService.bulkUpdate(token, request);
+
+        assertEquals(0, result.updated());
+        verify(taskRepository, never()).batchUpdate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void bulkUpdate_reprioritize_publishesOneEventForTheBatch() {
+        Priority target = new Priority();
+        target.setId(5L);
+        when(priorityRepository.findByIdAndUserId(5L, 1L)).thenReturn(Optional.of(target));
+        BulkTaskRequest request = new BulkTaskRequest();
+        request.setOperation(BulkTaskOperation.REPRIORITIZE);
+        request.setPriorityId(5L);
+        request.setTaskIds(List.of(1L, 2L));
+        when(taskRepository.lockRows(List.of(1L, 2L), TaskPurgeService.PurgeScope.owned(1L)))
+            .thenReturn(List.of(row(1L, Status.PENDENT, false), row(2L, Status.COMPLETED, false)));
+
+        assertEquals(2, taskService.bulkUpdate(token, request).updated());
+        verify(events).publishEvent(TaskChangedEvent.ofTasks(1L, List.of(1L, 2L), TaskChangedEvent.Change.MOVED));
+        verify(events, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void bulkUpdate_foreignPriority_throws() {
+        when(priorityRepository.findByIdAndUserId(2L, 1L)).thenReturn(Optional.empty());
+        when(priorityRepository.existsById(2L)).thenReturn(true);
+        BulkTaskRequest request = new BulkTaskRequest();
+        request.setOperation(BulkTaskOperation.REPRIORITIZE);
+        request.setPriorityId(2L);
+        request.setTaskIds(List.of(1L));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> taskService.bulkUpdate(token, request));
+        assertEquals("No tienes permisos para usar esta prioridad", ex.getMessage());
+        verify(taskRepository, never()).lockRows(any(), any());
+    }
+
+    @Test
+    void bulkUpdate_invalidRequest_throws() {
+        BulkTaskRequest request = new BulkTaskRequest();
+        request.setTaskIds(List.of(1L));
+        assertThrows(IllegalArgumentException.class, () -> taskService.bulkUpdate(token, request));
+
+        request.setOperation(BulkTaskOperation.TRASH);
+        request.setTaskIds(List.of());
+        assertThrows(IllegalArgumentException.class, () -> taskService.bulkUpdate(token, request));
+    }
+}
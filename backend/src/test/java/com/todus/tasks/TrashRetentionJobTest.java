@@ -0,0 +1,142 @@
+package com.todus.tasks;
+
+import com.todus.enums.Status;
+import com.todus.priority.Priority;
+import com.todus.search.TaskSearchIndex;
+import com.todus.stats.StatsRollupService;
+import com.todus.subTask.SubTask;
+import com.todus.task.Task;
+import com.todus.sync.SyncService;
+import com.todus.task.TaskPurgeService;
+import com.todus.task.TaskRepository;
+import com.todus.task.TrashRetentionJob;
+import com.todus.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TaskPurgeService.class, StatsRollupService.class, SyncService.class, TaskSearchIndex.class})
+class TrashRetentionJobTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private TaskRepository taskRepository;
+    @Autowired private TaskPurgeService taskPurgeService;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 20, 10, 0);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private User user;
+    private Priority priority;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Ana"); user.setSurname("Ruiz"); user.setNickname("ana");
+        user.setEmail("ana@x.com"); user.setPassword("pwd");
+        em.persist(user);
+
+        priority = new Priority();
+        priority.setName("Alta"); priority.setLevel(1); priority.setUser(user);
+        em.persist(priority);
+
+        task("caducada 1", true, now.minusDays(45));
+        task("caducada 2", true, now.minusDays(40));
+        task("caducada 3", true, now.minusDays(31));
+        task("reciente", true, now.minusDays(3));
+        task("sin fecha", true, null);
+        task("activa", false, null);
+        em.flush();
+        em.clear();
+    }
+
+    private void task(String name, boolean trashed, LocalDateTime dateTrashed) {
+        Task t = new Task();
+        t.setName(name); t.setPriority(priority); t.setUser(user); t.setStatus(Status.PENDENT);
+        t.setTrashed(trashed); t.setDateTrashed(dateTrashed);
+        em.persist(t);
+        SubTask s = new SubTask();
+        s.setName("paso"); s.setStatus(Status.PENDENT); s.setTask(t);
+        em.persist(s);
+    }
+
+    private TrashRetentionJob job(boolean dryRun, int batchSize, int maxBatches) {
+        return new TrashRetentionJob(taskRepository, taskPurgeService, registry, 30, dryRun, batchSize, maxBatches, 0);
+    }
+
+    @Test
+    void deletesOnlyTasksTrashedLongerThanRetention() {
+        TaskPurgeService.PurgeResult result = job(false, 2, 10).purge(now);
+        em.clear();
+
+        assertEquals(3, result.tasks());
+        assertEquals(3, result.subtasks());
+        assertEquals(3, taskRepository.count());
+        assertEquals(3.0, registry.get("todus.purge.trash.tasks").counter().count());
+    }
+
+    @Test
+    void respectsBatchLimitPerRun() {
+        TaskPurgeService.PurgeResult result = job(false, 1, 2).purge(now);
+        em.clear();
+
+        assertEquals(2, result.tasks());
+        assertEquals(4, taskRepository.count());
+    }
+
+    @Test
+    void dryRun_countsWithoutDeleting() {
+        TaskPurgeService.PurgeResult result = job(true, 2, 10).purge(now);
+        em.clear();
+
+        assertEquals(3, result.tasks());
+        assertEquals(6, taskRepository.count());
+        assertEquals(0.0, registry.get("todus.purge.trash.tasks").counter().count());
+        assertEquals(3.0, registry.get("todus.purge.trash.tasks.per.run").tag("mode", "dry-run").summary().totalAmount());
+    }
+
+    @Test
+    void dryRun_reportsAtMostWhatOneRunWouldDelete() {
+        TaskPurgeService.PurgeResult result = job(true, 1, 2).purge(now);
+
+        assertEquals(2, result.tasks());
+        assertEquals(6, taskRepository.count());
+    }
+
+    @Test
+    void taskRestoredAfterBeingSelected_isNotDeleted() {
+        LocalDateTime cutoff = now.minusDays(30);
+        List<Long> ids = taskRepository.findTrashedBefore(cutoff, PageRequest.of(0, 10));
+        assertEquals(3, ids.size());
+
+        // El usuario la restaura entre la selección y el borrado
+        Task restored = taskRepository.findById(ids.get(0)).orElseThrow();
+        restored.setTrashed(false);
+        restored.setDateTrashed(null);
+        em.flush();
+        em.clear();
+
+        TaskPurgeService.PurgeResult result = taskPurgeService.deleteTasks(ids,
+                TaskPurgeService.PurgeScope.trashedBefore(cutoff));
+        em.clear();
+
+        assertEquals(2, result.tasks());
+        assertEquals(2, result.subtasks());
+        assertTrue(taskRepository.findById(ids.get(0)).isPresent());
+    }
+}
+
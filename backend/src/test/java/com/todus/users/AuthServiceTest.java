@@ -8,13 +8,18 @@ import com.todus.user.RegisterDTO;
 import com.todus.user.User;
 import com.todus.user.UserRepository;
 import com.todus.util.JwtUtil;
+import com.todus.util.PrincipalCache;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -29,6 +34,7 @@ class AuthServiceTest {
     @Mock private ImageRepository imageRepository;
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private JwtUtil jwtUtil;
+    @Mock private PrincipalCache principalCache;
 
     @InjectMocks private AuthService authService;
 
@@ -45,6 +51,12 @@ class AuthServiceTest {
         // allow getAuthenticatedUser in changePassword tests
         lenient().when(jwtUtil.extractEmail("abc.def.ghi")).thenReturn("u@e.com");
         lenient().when(userRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user));
+        lenient().when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -162,6 +174,25 @@ class AuthServiceTest {
         Map<String,String> resp = authService.changePassword(token, dto);
         assertEquals("Contraseña cambiada correctamente", resp.get("message"));
         assertEquals("encNew", user.getPassword());
+        verify(principalCache).invalidateUser(1L);
+    }
+
+    @Test
+    void changePasswordFailedSave_leavesCachedPrincipalUntouched() {
+        // El principal es el que comparte PrincipalCache; la base de datos devuelve otra instancia
+        User principal = new User();
+        principal.setId(1L); principal.setEmail("u@e.com"); principal.setPassword("encodedPwd");
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        ChangePasswordDTO dto = new ChangePasswordDTO();
+        dto.setOldPassword("old"); dto.setNewPassword("new1"); dto.setConfirmNewPassword("new1");
+        when(passwordEncoder.matches("old", "encodedPwd")).thenReturn(true);
+        when(passwordEncoder.encode("new1")).thenReturn("encNew");
+        when(userRepository.save(user)).thenThrow(new IllegalStateException("sin conexión"));
+
+        assertThrows(IllegalStateException.class, () -> authService.changePassword(token, dto));
+        assertEquals("encodedPwd", principal.getPassword());
+        verify(principalCache, never()).invalidateUser(any());
     }
 
     @Test
@@ -0,0 +1,67 @@
+package com.todus.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolGuardTest {
+
+    private ConnectionPoolGuard guard(int maxConcurrent) {
+        return new ConnectionPoolGuard(null, new ObjectMapper(), new SimpleMeterRegistry(), maxConcurrent, 2, 50);
+    }
+
+    @Test
+    void limit_defaultsToPoolSizeTimesFactor() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(7);
+            ConnectionPoolGuard guard = new ConnectionPoolGuard(dataSource, new ObjectMapper(),
+                    new SimpleMeterRegistry(), 0, 3, 50);
+
+            assertEquals(21, guard.getMaxConcurrent());
+        }
+    }
+
+    @Test
+    void requestOverTheLimit_getsServiceUnavailable_andPermitIsReleased() throws Exception {
+        ConnectionPoolGuard guard = guard(1);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread busy = Thread.ofVirtual().start(() -> {
+            try {
+                guard.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+                    inside.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        guard.doFilter(new MockHttpServletRequest(), rejected, (req, res) -> fail("No debería atenderse"));
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Servidor ocupado"));
+
+        release.countDown();
+        busy.join();
+
+        MockHttpServletResponse served = new MockHttpServletResponse();
+        guard.doFilter(new MockHttpServletRequest(), served, (req, res) -> ((MockHttpServletResponse) res).setStatus(200));
+        assertEquals(200, served.getStatus());
+    }
+}
@@ -0,0 +1,75 @@
+package com.todus.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringLruCacheTest {
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.parse("2025-05-01T10:00:00Z");
+
+        void advance(Duration d) { now = now.plus(d); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void get_returnsValueUntilExpiry() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, clock);
+        cache.put("a", "1", clock.instant().plusSeconds(60));
+
+        assertEquals("1", cache.get("a"));
+        clock.advance(Duration.ofSeconds(61));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_alreadyExpired_isIgnored() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, clock);
+        cache.put("a", "1", clock.instant());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2, clock);
+        Instant exp = clock.instant().plusSeconds(60);
+        cache.put("a", "1", exp);
+        cache.put("b", "2", exp);
+        cache.get("a");
+        cache.put("c", "3", exp);
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    void invalidateIf_removesMatchingEntries() {
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(10, clock);
+        Instant exp = clock.instant().plusSeconds(60);
+        cache.put("a", 1, exp);
+        cache.put("b", 2, exp);
+        cache.invalidateIf((k, v) -> v == 1);
+
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.get("b"));
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpiringLruCache<>(0));
+    }
+}
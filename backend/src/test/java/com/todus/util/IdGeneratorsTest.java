@@ -0,0 +1,48 @@
+package com.todus.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdGeneratorsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private IdGenerators idGenerators;
+
+    @Test
+    void rowCreatedByAnotherInstance_fallsBackToTheConditionalUpdate() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE(MAX(id)"), eq(Long.class))).thenReturn(100L);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq("tasks"))).thenReturn(List.of());
+        when(jdbcTemplate.update(startsWith("INSERT"), eq("tasks"), eq(150L)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'tasks'"));
+        when(jdbcTemplate.update(startsWith("UPDATE"), eq(150L), eq("tasks"), eq(150L))).thenReturn(1);
+
+        idGenerators.align("tasks", "tasks");
+
+        verify(jdbcTemplate).update(startsWith("UPDATE"), eq(150L), eq("tasks"), eq(150L));
+    }
+
+    @Test
+    void counterAlreadyHighEnough_isLeftAlone() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE(MAX(id)"), eq(Long.class))).thenReturn(100L);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq("tasks"))).thenReturn(List.of(400L));
+
+        idGenerators.align("tasks", "tasks");
+
+        verify(jdbcTemplate, never()).update(startsWith("INSERT"), any(), any());
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE"), any(), any(), any());
+    }
+}
@@ -0,0 +1,67 @@
+package com.todus.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "EstaEsUnaClaveSuperSeguraDe32Caracteres123456";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 100);
+
+    @Test
+    void parseVerifiedClaims_validToken() {
+        String token = jwtUtil.generateToken("u@x.com");
+        Optional<Claims> claims = jwtUtil.parseVerifiedClaims(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("u@x.com", claims.get().getSubject());
+        assertNotNull(claims.get().getExpiration());
+    }
+
+    @Test
+    void parseVerifiedClaims_cachedTokenReturnsSameClaims() {
+        String token = jwtUtil.generateToken("u@x.com");
+        Claims first = jwtUtil.parseVerifiedClaims(token).orElseThrow();
+        Claims second = jwtUtil.parseVerifiedClaims(token).orElseThrow();
+        assertSame(first, second);
+    }
+
+    @Test
+    void parseVerifiedClaims_wrongSignature_isEmpty() {
+        JwtUtil other = new JwtUtil("OtraClaveDistintaPeroTambienDe32Caracteres!!", 100);
+        String token = other.generateToken("u@x.com");
+
+        assertTrue(jwtUtil.parseVerifiedClaims(token).isEmpty());
+        assertFalse(jwtUtil.validateToken(token));
+    }
+
+    @Test
+    void parseVerifiedClaims_garbage_isEmpty() {
+        assertTrue(jwtUtil.parseVerifiedClaims("no.es.jwt").isEmpty());
+        assertTrue(jwtUtil.parseVerifiedClaims("").isEmpty());
+        assertTrue(jwtUtil.parseVerifiedClaims(null).isEmpty());
+    }
+
+    @Test
+    void extractEmail_invalidToken_throws() {
+        assertThrows(JwtException.class, () -> jwtUtil.extractEmail("no.es.jwt"));
+    }
+
+    @Test
+    void withoutCache_stillVerifies() {
+        JwtUtil uncached = new JwtUtil(SECRET, 0);
+        String token = uncached.generateToken("u@x.com");
+        assertEquals("u@x.com", uncached.extractEmail(token));
+    }
+
+    @Test
+    void constructor_rejectsShortSecret() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtUtil("corta", 10));
+    }
+}
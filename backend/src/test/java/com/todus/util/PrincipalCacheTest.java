@@ -0,0 +1,85 @@
+package com.todus.util;
+
+import com.todus.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private User user(Long id) {
+        User u = new User();
+        u.setId(id);
+        return u;
+    }
+
+    private static Date inOneHour() {
+        return Date.from(Instant.now().plusSeconds(3600));
+    }
+
+    @Test
+    void putAndGet_byToken() {
+        PrincipalCache cache = new PrincipalCache(10, 300);
+        User u = user(1L);
+        cache.put("tok", u, inOneHour());
+
+        assertSame(u, cache.get("tok"));
+        assertNull(cache.get("other"));
+    }
+
+    @Test
+    void invalidateUser_removesEveryTokenOfThatUser() {
+        PrincipalCache cache = new PrincipalCache(10, 300);
+        User u1 = user(1L);
+        User u2 = user(2L);
+        cache.put("t1", u1, inOneHour());
+        cache.put("t1b", u1, inOneHour());
+        cache.put("t2", u2, inOneHour());
+
+        cache.invalidateUser(1L);
+
+        assertNull(cache.get("t1"));
+        assertNull(cache.get("t1b"));
+        assertSame(u2, cache.get("t2"));
+    }
+
+    @Test
+    void zeroTtl_neverCaches() {
+        PrincipalCache cache = new PrincipalCache(10, 0);
+        cache.put("tok", user(1L), inOneHour());
+        assertNull(cache.get("tok"));
+    }
+
+    @Test
+    void expiredOrUnboundedToken_isNotCached() {
+        PrincipalCache cache = new PrincipalCache(10, 300);
+        cache.put("expired", user(1L), Date.from(Instant.now().minusSeconds(1)));
+        cache.put("no-exp", user(1L), null);
+
+        assertNull(cache.get("expired"));
+        assertNull(cache.get("no-exp"));
+    }
+
+    @Test
+    void invalidateUserAfterCommit_waitsForTheCommit() {
+        PrincipalCache cache = new PrincipalCache(10, 300);
+        User u = user(1L);
+        cache.put("tok", u, inOneHour());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateUserAfterCommit(1L);
+            assertSame(u, cache.get("tok"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertNull(cache.get("tok"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}